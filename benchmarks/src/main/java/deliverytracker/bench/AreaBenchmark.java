@@ -0,0 +1,62 @@
+package deliverytracker.bench;
+
+import deliverytracker.Main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the shoelace area kernels on a single closed route.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class AreaBenchmark {
+    @Param({"8", "64", "4096", "65536"})
+    public int verticesPerRoute;
+
+    private List<Main.Point> points;
+    private double[] xs;
+    private double[] ys;
+
+    @Setup
+    public void buildRoute() {
+        int count = verticesPerRoute + 1;
+        xs = new double[count];
+        ys = new double[count];
+        BenchmarkData.fillPolygon(new SplittableRandom(42), xs, ys, verticesPerRoute);
+        xs[verticesPerRoute] = xs[0];
+        ys[verticesPerRoute] = ys[0];
+        points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new Main.Point(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public double calculateAreaPoints() {
+        return Main.calculateArea(points);
+    }
+
+    @Benchmark
+    public double calculateAreaPacked() {
+        return Main.calculateArea(xs, ys, xs.length);
+    }
+}
@@ -0,0 +1,134 @@
+package deliverytracker.bench;
+
+import deliverytracker.Driver;
+import deliverytracker.LinkedList;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic inputs shared by the benchmarks.
+ */
+final class BenchmarkData {
+    // Fixed seed so every fork and every run sees the same data
+    private static final long SEED = 20231020L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Returns the name of the i-th generated driver.
+     * @param i The index of the driver.
+     * @return The driver's name.
+     */
+    static String driverName(int i) {
+        return "driver" + i;
+    }
+
+    /**
+     * Writes a route file of closed polygons.
+     * @param drivers The number of drivers to write.
+     * @param vertices The number of distinct vertices per route.
+     * @return The path of the temporary file.
+     */
+    static Path writeDriverFile(int drivers, int vertices) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Path path = Files.createTempFile("drivers", ".txt");
+        path.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            double[] xs = new double[vertices];
+            double[] ys = new double[vertices];
+            for (int i = 0; i < drivers; i++) {
+                fillPolygon(random, xs, ys, vertices);
+                writer.write(driverName(i));
+                for (int v = 0; v <= vertices; v++) {
+                    int k = v % vertices; // Repeat the first vertex to close the route
+                    writer.write(' ');
+                    writer.write(format(xs[k]));
+                    writer.write(',');
+                    writer.write(format(ys[k]));
+                }
+                writer.newLine();
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Writes a command file that sorts and then looks up a batch of drivers.
+     * @param drivers The number of drivers in the matching route file.
+     * @param lookups The number of name lookups to write.
+     * @return The path of the temporary file.
+     */
+    static Path writeCommandFile(int drivers, int lookups) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        Path path = Files.createTempFile("commands", ".txt");
+        path.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("sort area dsc");
+            writer.newLine();
+            for (int i = 0; i < lookups; i++) {
+                // One in ten lookups misses
+                writer.write(random.nextInt(10) == 0 ? "missing" + i : driverName(random.nextInt(drivers)));
+                writer.newLine();
+            }
+            writer.write("sort name asc");
+            writer.newLine();
+        }
+        return path;
+    }
+
+    /**
+     * Builds drivers with random names and areas, in generation order.
+     * @param drivers The number of drivers to build.
+     * @return The drivers.
+     */
+    static List<Driver> drivers(int drivers) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Driver> result = new ArrayList<>(drivers);
+        for (int i = 0; i < drivers; i++) {
+            result.add(new Driver(driverName(random.nextInt(drivers)), random.nextDouble(0, 10_000)));
+        }
+        return result;
+    }
+
+    /**
+     * Copies drivers into a new linked list.
+     * @param drivers The drivers to add.
+     * @return The populated list.
+     */
+    static LinkedList<Driver> listOf(List<Driver> drivers) {
+        LinkedList<Driver> list = new LinkedList<>();
+        for (Driver driver : drivers) {
+            list.add(driver);
+        }
+        return list;
+    }
+
+    /**
+     * Fills the coordinate arrays with a star-shaped polygon around a random center.
+     * @param random The source of randomness.
+     * @param xs The x coordinates to fill.
+     * @param ys The y coordinates to fill.
+     * @param vertices The number of vertices.
+     */
+    static void fillPolygon(SplittableRandom random, double[] xs, double[] ys, int vertices) {
+        double centerX = random.nextDouble(-1000, 1000);
+        double centerY = random.nextDouble(-1000, 1000);
+        for (int v = 0; v < vertices; v++) {
+            double angle = 2 * Math.PI * v / vertices;
+            double radius = random.nextDouble(1, 50);
+            xs[v] = Math.round((centerX + radius * Math.cos(angle)) * 100) / 100.0;
+            ys[v] = Math.round((centerY + radius * Math.sin(angle)) * 100) / 100.0;
+        }
+    }
+
+    private static String format(double value) {
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,23 @@
+package deliverytracker.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always attached, so every result reports
+ * allocation rate and bytes allocated per operation next to its timing.
+ * Accepts the usual JMH command line, e.g. a benchmark regex or -p driverCount=1000.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,215 @@
+package deliverytracker.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Writes synthetic driver and command files for load tests.
+ * The output depends only on the options, so the same seed always gives the same files.
+ *
+ * Usage: FleetGenerator [options] driver-file command-file
+ *   --seed N          random seed (default 20231020)
+ *   --drivers N       number of route lines (default 1000)
+ *   --vertices N      distinct vertices per route (default 8)
+ *   --duplicates R    fraction of lines reusing an earlier driver's name (default 0.1)
+ *   --unclosed R      fraction of routes whose last point does not match the first (default 0.02)
+ *   --shared-routes R fraction of lines repeating one of the last 1024 routes exactly (default 0)
+ *   --commands N      number of command lines (default 1000)
+ *   --mix K=W,...     relative weights of lookup, sort, range, nearest, top, percentile,
+ *                     prefix and covers commands (default lookup=80,sort=4,range=4,nearest=3,
+ *                     top=3,percentile=2,prefix=3,covers=1)
+ */
+public final class FleetGenerator {
+    // Number of past routes a shared route is picked from
+    private static final int RECENT_ROUTES = 1024;
+
+    long seed = 20231020L;
+    int drivers = 1000;
+    int vertices = 8;
+    double duplicateRatio = 0.1;
+    double unclosedRatio = 0.02;
+    double sharedRouteRatio = 0;
+    int commands = 1000;
+    final Map<String, Integer> mix = new LinkedHashMap<>();
+
+    FleetGenerator() {
+        mix.put("lookup", 80);
+        mix.put("sort", 4);
+        mix.put("range", 4);
+        mix.put("nearest", 3);
+        mix.put("top", 3);
+        mix.put("percentile", 2);
+        mix.put("prefix", 3);
+        mix.put("covers", 1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> filenames = new ArrayList<>();
+        FleetGenerator generator = parse(args, filenames);
+        if (filenames.size() != 2) {
+            System.err.println("Usage: FleetGenerator [options] driver-file command-file");
+            System.exit(2);
+        }
+        generator.writeDriverFile(Paths.get(filenames.get(0)));
+        generator.writeCommandFile(Paths.get(filenames.get(1)));
+    }
+
+    /**
+     * Parses the generator options.
+     * @param args The command line.
+     * @param others Receives the arguments that are not generator options, in order.
+     * @return The configured generator.
+     */
+    static FleetGenerator parse(String[] args, List<String> others) {
+        FleetGenerator generator = new FleetGenerator();
+        for (int i = 0; i < args.length; i++) {
+            boolean hasValue = i + 1 < args.length;
+            if ("--seed".equals(args[i]) && hasValue) {
+                generator.seed = Long.parseLong(args[++i]);
+            } else if ("--drivers".equals(args[i]) && hasValue) {
+                generator.drivers = Integer.parseInt(args[++i]);
+            } else if ("--vertices".equals(args[i]) && hasValue) {
+                generator.vertices = Math.max(3, Integer.parseInt(args[++i]));
+            } else if ("--duplicates".equals(args[i]) && hasValue) {
+                generator.duplicateRatio = Double.parseDouble(args[++i]);
+            } else if ("--unclosed".equals(args[i]) && hasValue) {
+                generator.unclosedRatio = Double.parseDouble(args[++i]);
+            } else if ("--shared-routes".equals(args[i]) && hasValue) {
+                generator.sharedRouteRatio = Double.parseDouble(args[++i]);
+            } else if ("--commands".equals(args[i]) && hasValue) {
+                generator.commands = Integer.parseInt(args[++i]);
+            } else if ("--mix".equals(args[i]) && hasValue) {
+                generator.mix.replaceAll((kind, weight) -> 0);
+                for (String entry : args[++i].split(",")) {
+                    String[] parts = entry.split("=");
+                    if (!generator.mix.containsKey(parts[0])) {
+                        throw new IllegalArgumentException("Unknown command kind in --mix: " + parts[0]);
+                    }
+                    generator.mix.put(parts[0], Integer.parseInt(parts[1]));
+                }
+            } else {
+                others.add(args[i]);
+            }
+        }
+        return generator;
+    }
+
+    /**
+     * Returns the name written on a route line. Duplicate lines reuse the name of an earlier line.
+     */
+    private String nameFor(int line, SplittableRandom random) {
+        if (line > 0 && random.nextDouble() < duplicateRatio) {
+            return BenchmarkData.driverName(random.nextInt(line));
+        }
+        return BenchmarkData.driverName(line);
+    }
+
+    /**
+     * Writes the route file: one star-shaped polygon per line, closed unless it was picked to be unclosed.
+     * @param path The file to write.
+     */
+    void writeDriverFile(Path path) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        // The most recent routes, for lines that repeat one
+        double[][] recentXs = new double[RECENT_ROUTES][vertices];
+        double[][] recentYs = new double[RECENT_ROUTES][vertices];
+        StringBuilder line = new StringBuilder();
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < drivers; i++) {
+                String name = nameFor(i, random);
+                double[] xs = recentXs[i % RECENT_ROUTES];
+                double[] ys = recentYs[i % RECENT_ROUTES];
+                if (i > 0 && sharedRouteRatio > 0 && random.nextDouble() < sharedRouteRatio) {
+                    int earlier = (i - 1 - random.nextInt(Math.min(i, RECENT_ROUTES))) % RECENT_ROUTES;
+                    System.arraycopy(recentXs[earlier], 0, xs, 0, vertices);
+                    System.arraycopy(recentYs[earlier], 0, ys, 0, vertices);
+                } else {
+                    BenchmarkData.fillPolygon(random, xs, ys, vertices);
+                }
+                boolean unclosed = random.nextDouble() < unclosedRatio;
+                line.setLength(0);
+                line.append(name);
+                for (int v = 0; v < vertices; v++) {
+                    line.append(' ').append(xs[v]).append(',').append(ys[v]);
+                }
+                // Close the route by repeating the first vertex, or end it just off the first vertex
+                line.append(' ').append(unclosed ? xs[0] + 1 : xs[0]).append(',').append(ys[0]);
+                writer.append(line);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Writes the command file, drawing each command's kind from the mix.
+     * @param path The file to write.
+     */
+    void writeCommandFile(Path path) throws IOException {
+        // A separate stream from the route file, so changing the command options keeps the routes
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        int totalWeight = 0;
+        for (int weight : mix.values()) {
+            totalWeight += weight;
+        }
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("--mix must give at least one command kind a positive weight");
+        }
+        String[] orders = {"asc", "dsc"};
+        String[] keys = {"name", "area"};
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < commands; i++) {
+                String kind = pick(random.nextInt(totalWeight));
+                String command;
+                switch (kind) {
+                    case "sort":
+                        command = "sort " + keys[random.nextInt(2)] + " " + orders[random.nextInt(2)];
+                        break;
+                    case "range":
+                        double low = random.nextDouble(0, 7_500);
+                        command = "range " + low + " " + (low + random.nextDouble(0, 10));
+                        break;
+                    case "nearest":
+                        command = "nearest " + random.nextDouble(0, 7_500);
+                        break;
+                    case "top":
+                        command = "top " + (1 + random.nextInt(20)) + " " + keys[random.nextInt(2)] + " " + orders[random.nextInt(2)];
+                        break;
+                    case "percentile":
+                        command = "percentile " + random.nextInt(101) + " area";
+                        break;
+                    case "prefix":
+                        String name = BenchmarkData.driverName(random.nextInt(Math.max(1, drivers)));
+                        command = "prefix " + name.substring(0, Math.min(name.length(), 7 + random.nextInt(3))) + " " + (1 + random.nextInt(20));
+                        break;
+                    case "covers":
+                        command = "covers " + random.nextDouble(-1000, 1000) + "," + random.nextDouble(-1000, 1000);
+                        break;
+                    default:
+                        // One in ten lookups misses
+                        command = random.nextInt(10) == 0 ? "missing" + i : BenchmarkData.driverName(random.nextInt(Math.max(1, drivers)));
+                        break;
+                }
+                writer.append(command);
+                writer.newLine();
+            }
+        }
+    }
+
+    private String pick(int roll) {
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Roll outside the mix");
+    }
+}
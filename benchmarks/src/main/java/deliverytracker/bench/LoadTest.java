@@ -0,0 +1,151 @@
+package deliverytracker.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Runs the whole program end to end on generated fleets of increasing size and prints one
+ * table row per size: throughput, peak resident memory and GC time.
+ * Unlike the JMH benchmarks it measures a cold run, startup and file I/O included.
+ * Memory and GC cover every JVM of a run: with --partitions the workers are included, the
+ * peak is the sum of each JVM's own peak, and the JVMs column counts them.
+ * LoadTest must run from benchmarks.jar, which carries LoadTestAgent.
+ *
+ * Usage: LoadTest [generator options] [--sizes N,N,...] [--jvm "FLAGS"] [-- MAIN OPTIONS]
+ *   --sizes N,...     driver counts to run (default 1000,10000,100000,1000000,10000000)
+ *   --jvm FLAGS       space-separated flags for each run's JVM, e.g. "-Xmx8g -XX:+UseParallelGC"
+ *   -- OPTIONS        options passed to Main after the two file names (default --output /dev/null)
+ * The generator options are FleetGenerator's; --drivers is replaced by each size in turn.
+ */
+public class LoadTest {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> rest = new ArrayList<>();
+        int separator = Arrays.asList(args).indexOf("--");
+        String[] own = separator < 0 ? args : Arrays.copyOfRange(args, 0, separator);
+        FleetGenerator generator = FleetGenerator.parse(own, rest);
+        List<String> mainOptions = separator < 0 ? Arrays.asList("--output", "/dev/null")
+                : Arrays.asList(args).subList(separator + 1, args.length);
+
+        long[] sizes = {1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+        List<String> jvmFlags = new ArrayList<>();
+        for (int i = 0; i < rest.size(); i++) {
+            boolean hasValue = i + 1 < rest.size();
+            if ("--sizes".equals(rest.get(i)) && hasValue) {
+                sizes = Arrays.stream(rest.get(++i).split(",")).mapToLong(Long::parseLong).toArray();
+            } else if ("--jvm".equals(rest.get(i)) && hasValue) {
+                jvmFlags.addAll(Arrays.asList(rest.get(++i).trim().split("\\s+")));
+            } else {
+                System.err.println("Unknown option: " + rest.get(i));
+                System.exit(2);
+            }
+        }
+
+        Path directory = Files.createTempDirectory("loadtest");
+        try {
+            System.out.printf("%10s %9s %10s %12s %12s %5s %10s %8s %9s%n",
+                    "drivers", "commands", "wall ms", "drivers/s", "commands/s", "JVMs", "peak MB", "GCs", "GC ms");
+            for (long size : sizes) {
+                generator.drivers = Math.toIntExact(size);
+                Path driverFile = directory.resolve("drivers-" + size + ".txt");
+                Path commandFile = directory.resolve("commands-" + size + ".txt");
+                generator.writeDriverFile(driverFile);
+                generator.writeCommandFile(commandFile);
+
+                long[] report = run(jvmFlags, driverFile, commandFile, mainOptions);
+                double seconds = report[0] / 1e9;
+                System.out.printf("%10d %9d %10.1f %12.0f %12.0f %5d %10.1f %8d %9d%n",
+                        size, generator.commands, report[0] / 1e6, size / seconds, generator.commands / seconds,
+                        report[4], report[1] / 1024.0, report[2], report[3]);
+
+                // Large fleets take gigabytes of disk, so only keep one at a time
+                Files.delete(driverFile);
+                Files.delete(commandFile);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    /**
+     * Runs Main in a child JVM through LoadTestWorker and collects its report and the agent's
+     * reports from that JVM and any JVMs it starts.
+     * @return Elapsed nanoseconds, then the sums over the JVMs of peak resident kilobytes, GC count
+     * and GC milliseconds, and the number of JVMs that reported.
+     */
+    private static long[] run(List<String> jvmFlags, Path driverFile, Path commandFile, List<String> mainOptions)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-javaagent:" + agentJar());
+        // As the README runs the program, so large routes use the vectorized area kernel
+        command.add("--add-modules");
+        command.add("jdk.incubator.vector");
+        command.addAll(jvmFlags);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LoadTestWorker.class.getName());
+        command.addAll(mainOptions);
+        command.add(driverFile.toString());
+        command.add(commandFile.toString());
+
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        String report = null;
+        // Peak resident kilobytes, GC count, GC milliseconds and JVMs, summed over the JVMs
+        long[] totals = new long[4];
+        try (BufferedReader errors = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = errors.readLine()) != null) {
+                if (line.startsWith(LoadTestWorker.REPORT_PREFIX)) {
+                    report = line.substring(LoadTestWorker.REPORT_PREFIX.length());
+                } else if (line.startsWith(LoadTestAgent.REPORT_PREFIX)) {
+                    long[] jvm = Arrays.stream(line.substring(LoadTestAgent.REPORT_PREFIX.length()).trim().split(" "))
+                            .mapToLong(Long::parseLong).toArray();
+                    // An unknown peak makes the sum unknown
+                    totals[0] = totals[0] < 0 || jvm[1] < 0 ? -1 : totals[0] + jvm[1];
+                    totals[1] += jvm[2];
+                    totals[2] += jvm[3];
+                    totals[3]++;
+                } else {
+                    System.err.println(line);
+                }
+            }
+        }
+        // The output ends when the last JVM of the run closes it, after every report
+        int status = process.waitFor();
+        if (status != 0 || report == null || totals[3] == 0) {
+            throw new IOException("Load test run failed with exit status " + status + ": " + command);
+        }
+        return new long[] {Long.parseLong(report.trim()), totals[0], totals[1], totals[2], totals[3]};
+    }
+
+    /**
+     * Finds the jar LoadTest runs from, which names LoadTestAgent as its agent.
+     */
+    private static String agentJar() throws IOException {
+        try {
+            Path jar = Paths.get(LoadTestAgent.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (Files.isRegularFile(jar)) {
+                return jar.toString();
+            }
+        } catch (URISyntaxException | SecurityException e) {
+            // Reported below
+        }
+        throw new IOException("LoadTest must be run from benchmarks.jar, which carries LoadTestAgent");
+    }
+}
@@ -0,0 +1,52 @@
+package deliverytracker.bench;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * A Java agent that reports what a JVM cost when it exits.
+ * LoadTest starts each run's JVM with this agent. The partition workers that a run with
+ * --partitions starts copy their parent's JVM options, so they load the agent too, and every
+ * JVM of the run reports on the standard error it shares with LoadTest. The report is one line:
+ * LOADTEST-JVM pid peak-rss-kb gc-count gc-millis
+ */
+public class LoadTestAgent {
+    static final String REPORT_PREFIX = "LOADTEST-JVM ";
+
+    private LoadTestAgent() {
+    }
+
+    public static void premain(String arguments) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            long gcCount = 0;
+            long gcMillis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(0, collector.getCollectionCount());
+                gcMillis += Math.max(0, collector.getCollectionTime());
+            }
+            System.out.flush();
+            System.err.println(REPORT_PREFIX + ProcessHandle.current().pid() + " " + peakResidentKilobytes()
+                    + " " + gcCount + " " + gcMillis);
+        }, "loadtest-report"));
+    }
+
+    /**
+     * Reads the peak resident set size from /proc/self/status.
+     * @return The high-water mark in kilobytes, or -1 where /proc is not available.
+     */
+    static long peakResidentKilobytes() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux; report the figure as unknown
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,23 @@
+package deliverytracker.bench;
+
+import deliverytracker.Main;
+import java.io.IOException;
+
+/**
+ * Runs the Main pipeline once in a fresh JVM and reports how long it took.
+ * LoadTest starts one of these per run, with LoadTestAgent attached, so the agent reports this
+ * JVM's peak resident set and GC totals, and those of any partition workers, when they exit.
+ * The timing is a line on standard error:
+ * LOADTEST elapsed-nanos
+ */
+public class LoadTestWorker {
+    static final String REPORT_PREFIX = "LOADTEST ";
+
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        Main.main(args);
+        long elapsed = System.nanoTime() - start;
+        System.out.flush();
+        System.err.println(REPORT_PREFIX + elapsed);
+    }
+}
@@ -0,0 +1,59 @@
+package deliverytracker.bench;
+
+import deliverytracker.Driver;
+import deliverytracker.LinkedList;
+import deliverytracker.Main;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading a route file into a driver list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({"1000", "100000"})
+    public int driverCount;
+
+    @Param({"8", "64"})
+    public int verticesPerRoute;
+
+    private Path driverFile;
+
+    @Setup
+    public void writeFile() throws IOException {
+        driverFile = BenchmarkData.writeDriverFile(driverCount, verticesPerRoute);
+    }
+
+    @Benchmark
+    public LinkedList<Driver> readDriverFile() throws IOException {
+        LinkedList<Driver> driverList = new LinkedList<>();
+        Main.readDriverFile(driverFile.toString(), driverList);
+        return driverList;
+    }
+
+    @Benchmark
+    public LinkedList<Driver> readDriverFileParallel() throws IOException {
+        LinkedList<Driver> driverList = new LinkedList<>();
+        Main.readDriverFileParallel(driverFile.toString(), driverList);
+        return driverList;
+    }
+}
@@ -0,0 +1,68 @@
+package deliverytracker.bench;
+
+import deliverytracker.Driver;
+import deliverytracker.LinkedList;
+import deliverytracker.Main;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the whole pipeline: reading the route file, running the command file and
+ * displaying the final list, with console output discarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+    @Param({"1000", "100000"})
+    public int driverCount;
+
+    @Param({"8", "64"})
+    public int verticesPerRoute;
+
+    private Path driverFile;
+    private Path commandFile;
+    private PrintStream console;
+
+    @Setup
+    public void writeFiles() throws IOException {
+        driverFile = BenchmarkData.writeDriverFile(driverCount, verticesPerRoute);
+        commandFile = BenchmarkData.writeCommandFile(driverCount, driverCount);
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void restoreConsole() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public LinkedList<Driver> processCommandsFile() throws IOException {
+        LinkedList<Driver> driverList = new LinkedList<>();
+        Main.readDriverFile(driverFile.toString(), driverList);
+        Main.processCommandsFile(commandFile.toString(), driverList);
+        Main.displayDriverList(driverList);
+        return driverList;
+    }
+}
@@ -0,0 +1,53 @@
+package deliverytracker.bench;
+
+import deliverytracker.Driver;
+import deliverytracker.LinkedList;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures name lookups against a populated driver list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int driverCount;
+
+    private LinkedList<Driver> driverList;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void buildList() {
+        driverList = BenchmarkData.listOf(BenchmarkData.drivers(driverCount));
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            // Mixed case and padding exercise the same normalization as the command file
+            String name = BenchmarkData.driverName((int) ((long) i * 7919 % driverCount));
+            queries[i] = i % 4 == 0 ? " " + name.toUpperCase() + " " : name;
+        }
+    }
+
+    @Benchmark
+    public Driver searchByName() {
+        next = (next + 1) & (queries.length - 1);
+        return driverList.searchByName(queries[next]);
+    }
+}
@@ -0,0 +1,85 @@
+package deliverytracker.bench;
+
+import deliverytracker.Driver;
+import deliverytracker.LinkedList;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures each LinkedList sort on a fresh copy of an unsorted list.
+ * The list and its indexes are built once per trial; before each invocation only its nodes
+ * are copied with copyNodes, which costs one reference per driver, so the per-invocation
+ * setup no longer rebuilds a million drivers' indexes between timed calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SortBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int driverCount;
+
+    private LinkedList<Driver> unsorted;
+    private LinkedList<Driver> driverList;
+
+    @Setup(Level.Trial)
+    public void buildList() {
+        unsorted = BenchmarkData.listOf(BenchmarkData.drivers(driverCount));
+    }
+
+    @Setup(Level.Invocation)
+    public void copyList() {
+        driverList = unsorted.copyNodes();
+    }
+
+    @Benchmark
+    public LinkedList<Driver> sortByNameAsc() {
+        driverList.sortByName("asc");
+        return driverList;
+    }
+
+    @Benchmark
+    public LinkedList<Driver> sortByAreaDsc() {
+        driverList.sortByArea("dsc");
+        return driverList;
+    }
+
+    @Benchmark
+    public LinkedList<Driver> radixSortByNameAsc() {
+        driverList.radixSortByName("asc");
+        return driverList;
+    }
+
+    @Benchmark
+    public LinkedList<Driver> radixSortByAreaDsc() {
+        driverList.radixSortByArea("dsc");
+        return driverList;
+    }
+
+    @Benchmark
+    public LinkedList<Driver> sortAscending() {
+        driverList.sortAscending();
+        return driverList;
+    }
+
+    @Benchmark
+    public LinkedList<Driver> sortDescending() {
+        driverList.sortDescending();
+        return driverList;
+    }
+}
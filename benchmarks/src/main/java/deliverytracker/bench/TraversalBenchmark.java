@@ -0,0 +1,69 @@
+package deliverytracker.bench;
+
+import deliverytracker.Driver;
+import deliverytracker.LinkedList;
+import deliverytracker.Node;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full traversal of a LinkedList, as displayDriverList walks it, both node by node
+ * and through its iterator. The list is sorted by name first, so its drivers are no longer in
+ * allocation order, as after any sort in a real run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraversalBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int driverCount;
+
+    private LinkedList<Driver> driverList;
+
+    @Setup(Level.Trial)
+    public void buildList() {
+        driverList = BenchmarkData.listOf(BenchmarkData.drivers(driverCount));
+        driverList.sortByName("asc");
+    }
+
+    @Benchmark
+    public double traverseNodes() {
+        double total = 0;
+        for (Node<Driver> current = driverList.getHead(); current != null; current = current.getNext()) {
+            for (int i = 0; i < current.getCount(); i++) {
+                total += current.getPayload(i).getArea();
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double traverseIterator() {
+        double total = 0;
+        for (Driver driver : driverList) {
+            total += driver.getArea();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int size() {
+        return driverList.size();
+    }
+}
@@ -0,0 +1,294 @@
+package deliverytracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sorted index of drivers by route area.
+ * Areas are kept in a primitive double array sorted ascending, next to a parallel array of
+ * drivers, so range and nearest queries are a binary search followed by a scan of the matches.
+ * New drivers are buffered and merged into the sorted arrays on the next query.
+ * Drivers with equal areas stay in the order they were added.
+ */
+public class AreaIndex {
+    // Sorted areas and their drivers
+    private double[] areas = new double[16];
+    private Driver[] drivers = new Driver[16];
+    private int size;
+    // Drivers added since the last merge, in insertion order
+    private Driver[] pending = new Driver[16];
+    private int pendingCount;
+
+    /**
+     * Constructs an empty index.
+     */
+    public AreaIndex() {
+    }
+
+    /**
+     * Constructs a copy of another index, including its unmerged drivers.
+     * @param other The index to copy.
+     */
+    public AreaIndex(AreaIndex other) {
+        areas = Arrays.copyOf(other.areas, Math.max(16, other.size));
+        drivers = Arrays.copyOf(other.drivers, areas.length);
+        size = other.size;
+        pending = Arrays.copyOf(other.pending, Math.max(16, other.pendingCount));
+        pendingCount = other.pendingCount;
+    }
+
+    /**
+     * Adds a driver to the index under its current area.
+     * @param driver The driver to add.
+     */
+    public void add(Driver driver) {
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, 2 * pendingCount);
+        }
+        pending[pendingCount++] = driver;
+    }
+
+    /**
+     * Adds every driver of another index after this index's drivers, with the same result as
+     * adding them one by one. Once both are merged this is one linear merge of the sorted arrays,
+     * and taking the other's arrays when this index is empty. The other index must not be used
+     * afterwards.
+     * @param other The index whose drivers to add.
+     */
+    public void addAll(AreaIndex other) {
+        merge();
+        other.merge();
+        if (other.size == 0) {
+            return;
+        }
+        if (size == 0) {
+            areas = other.areas;
+            drivers = other.drivers;
+            size = other.size;
+            return;
+        }
+        int total = size + other.size;
+        double[] mergedAreas = new double[total];
+        Driver[] mergedDrivers = new Driver[total];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size && j < other.size) {
+            // Ties go to this index's drivers, since they were added first
+            if (other.areas[j] < areas[i]) {
+                mergedAreas[k] = other.areas[j];
+                mergedDrivers[k++] = other.drivers[j++];
+            } else {
+                mergedAreas[k] = areas[i];
+                mergedDrivers[k++] = drivers[i++];
+            }
+        }
+        System.arraycopy(areas, i, mergedAreas, k, size - i);
+        System.arraycopy(drivers, i, mergedDrivers, k, size - i);
+        k += size - i;
+        System.arraycopy(other.areas, j, mergedAreas, k, other.size - j);
+        System.arraycopy(other.drivers, j, mergedDrivers, k, other.size - j);
+        areas = mergedAreas;
+        drivers = mergedDrivers;
+        size = total;
+    }
+
+    /**
+     * Returns the number of drivers in the index.
+     * @return The number of drivers.
+     */
+    public int size() {
+        return size + pendingCount;
+    }
+
+    /**
+     * Returns all drivers whose area lies in the given range, in ascending order of area.
+     * Runs in O(log n + k) for k matches.
+     * @param min The smallest area to include.
+     * @param max The largest area to include.
+     * @return The matching drivers.
+     */
+    public List<Driver> range(double min, double max) {
+        merge();
+        List<Driver> result = new ArrayList<>();
+        for (int i = lowerBound(min); i < size && areas[i] <= max; i++) {
+            result.add(drivers[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the drivers whose area lies in the given range without collecting them.
+     * Runs in O(log n).
+     * @param min The smallest area to include.
+     * @param max The largest area to include.
+     * @return The number of matching drivers.
+     */
+    public int count(double min, double max) {
+        merge();
+        return Math.max(0, upperBound(max) - lowerBound(min));
+    }
+
+    /**
+     * Returns the drivers whose area is closest to the given value.
+     * Several drivers are returned when they tie for the smallest distance.
+     * Runs in O(log n + k) for k matches.
+     * @param area The area to search near.
+     * @return The closest drivers in ascending order of area, or an empty list if the index is empty.
+     */
+    public List<Driver> nearest(double area) {
+        merge();
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        int above = lowerBound(area);
+        double below = above > 0 ? area - areas[above - 1] : Double.POSITIVE_INFINITY;
+        double over = above < size ? areas[above] - area : Double.POSITIVE_INFINITY;
+        // The closest value below and the closest value above, whichever is nearer or both on a tie
+        int from = above;
+        int to = above;
+        if (below <= over) {
+            from = lowerBound(areas[above - 1]);
+        }
+        if (over <= below) {
+            while (to < size && areas[to] == areas[above]) {
+                to++;
+            }
+        }
+        return new ArrayList<>(Arrays.asList(drivers).subList(from, to));
+    }
+
+    /**
+     * Returns the driver at the given percentile of area, using the nearest-rank method:
+     * the smallest area that at least P percent of the drivers do not exceed.
+     * Once the index is merged this is a single array read.
+     * @param percentile The percentile, from 0 to 100; values outside are clamped.
+     * @return The driver at that rank, or null if the index is empty.
+     */
+    public Driver percentile(double percentile) {
+        merge();
+        if (size == 0) {
+            return null;
+        }
+        double clamped = Math.max(0, Math.min(100, percentile));
+        int rank = (int) Math.ceil(clamped / 100 * size);
+        return drivers[Math.max(1, rank) - 1];
+    }
+
+    /**
+     * Returns the driver at the given percentile of area of two indexes taken together, as
+     * percentile would for one index holding the first index's drivers and then the second's.
+     * Both indexes must be merged. Runs in O(log n) by binary search over how many of the
+     * drivers up to that rank come from the first index.
+     * @param first The index of the drivers added first.
+     * @param second The index of the drivers added after them.
+     * @param percentile The percentile, from 0 to 100; values outside are clamped.
+     * @return The driver at that rank, or null if both indexes are empty.
+     */
+    public static Driver percentile(AreaIndex first, AreaIndex second, double percentile) {
+        int total = first.size + second.size;
+        if (total == 0) {
+            return null;
+        }
+        double clamped = Math.max(0, Math.min(100, percentile));
+        int rank = Math.max(1, (int) Math.ceil(clamped / 100 * total));
+        // Find how many of the first rank drivers come from the first index; on equal areas
+        // the first index's drivers come first
+        int low = Math.max(0, rank - second.size);
+        int high = Math.min(rank, first.size);
+        while (low < high) {
+            int taken = (low + high) >>> 1;
+            if (first.areas[taken] <= second.areas[rank - taken - 1]) {
+                low = taken + 1; // The next driver of the first index also comes before this rank
+            } else {
+                high = taken;
+            }
+        }
+        int fromFirst = low;
+        int fromSecond = rank - fromFirst;
+        if (fromFirst == 0) {
+            return second.drivers[fromSecond - 1];
+        }
+        if (fromSecond == 0) {
+            return first.drivers[fromFirst - 1];
+        }
+        // The later of the two last drivers taken is the one at the rank
+        return second.areas[fromSecond - 1] >= first.areas[fromFirst - 1] ? second.drivers[fromSecond - 1] : first.drivers[fromFirst - 1];
+    }
+
+    /**
+     * Merges the pending drivers into the sorted arrays, so later queries only read.
+     */
+    public void merge() {
+        if (pendingCount == 0) {
+            return;
+        }
+        Arrays.sort(pending, 0, pendingCount, Driver.BY_AREA); // Stable, so ties keep insertion order
+        int total = size + pendingCount;
+        if (total > areas.length) {
+            int capacity = Math.max(total, 2 * areas.length);
+            areas = Arrays.copyOf(areas, capacity);
+            drivers = Arrays.copyOf(drivers, capacity);
+        }
+        // Merge from the back so the sorted arrays are filled in place
+        int i = size - 1;
+        int j = pendingCount - 1;
+        for (int k = total - 1; j >= 0; k--) {
+            // Pending entries go after existing ones with the same area, since they were added later
+            if (i >= 0 && areas[i] > pending[j].getArea()) {
+                areas[k] = areas[i];
+                drivers[k] = drivers[i--];
+            } else {
+                areas[k] = pending[j].getArea();
+                drivers[k] = pending[j--];
+            }
+        }
+        size = total;
+        if (pending.length > 1024) {
+            pending = new Driver[16]; // Do not hold on to the buffer of a bulk load
+        } else {
+            Arrays.fill(pending, 0, pendingCount, null);
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * Finds the first sorted position whose area is not less than the given value.
+     * @param area The value to search for.
+     * @return The index of the first area greater than or equal to the value.
+     */
+    private int lowerBound(double area) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (areas[middle] < area) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first sorted position whose area is greater than the given value.
+     * @param area The value to search for.
+     * @return The index of the first area greater than the value.
+     */
+    private int upperBound(double area) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (areas[middle] <= area) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,863 @@
+package deliverytracker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A driver store that keeps names and areas in off-heap columns instead of Driver objects.
+ *
+ * Every driver is an int handle, its position in the add order. Per-driver columns hold the
+ * area, where the name starts, a name header (length and encoding) and the hash of the
+ * name's lookup key, all in direct buffers. Names are stored as Latin-1 bytes when every
+ * character fits, otherwise as UTF-16, in fixed-size off-heap segments. The list order is an
+ * off-heap column of handles that the sorts rearrange, and names are looked up through an
+ * off-heap open-addressing hash table, so the heap holds no per-driver objects at all.
+ *
+ * Sorts, lookups and area queries behave like LinkedList's: sorts are stable, names compare
+ * like String.compareTo, lookups ignore case and surrounding whitespace, and the area and
+ * prefix queries answer from handle columns sorted by area and by lookup key, which are
+ * rebuilt after adds. Prefix searches compare the stored names in place, so they decode only
+ * the names they return. The sorted columns and the sorts' scratch column are allocated with
+ * the per-driver columns and reused, so queries and sorts allocate no off-heap memory.
+ * Direct buffers count against -XX:MaxDirectMemorySize, which defaults to the maximum heap
+ * size, and are otherwise only freed when the garbage collector finds them unreachable, so
+ * close frees them at once, as does growing for the columns it replaces.
+ */
+public class ColumnarDriverStore implements RouteFileParser.RouteSink, Closeable {
+    // Bytes per name segment; a name never spans two segments
+    private static final int SEGMENT_SHIFT = 26;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    // Header bit marking a name stored as UTF-16
+    private static final int UTF16 = 1;
+    // Length of the runs the merge sort starts from
+    private static final int INSERTION_RUN = 32;
+    // Keys the handle columns are sorted by: area, name, and name folded like LinkedList.nameKey
+    private static final int AREA = 0;
+    private static final int NAME = 1;
+    private static final int NAME_KEY = 2;
+    // sun.misc.Unsafe and its invokeCleaner method, which frees a direct buffer at once; null if unavailable
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field instance = unsafeClass.getDeclaredField("theUnsafe");
+            instance.setAccessible(true);
+            unsafe = instance.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Without jdk.unsupported the garbage collector frees the buffers
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private int size;
+    private int capacity;
+    // Per-handle columns
+    private ByteBuffer areas;
+    private ByteBuffer nameStarts;
+    private ByteBuffer nameHeaders;
+    private ByteBuffer keyHashes;
+    // Handles in list order
+    private ByteBuffer order;
+    // Handles in ascending order of area, current only while byAreaBuilt is set; add() clears it
+    private ByteBuffer byArea;
+    private boolean byAreaBuilt;
+    // Handles in ascending order of lookup key, current only while byKeyBuilt is set; add() clears it
+    private ByteBuffer byKey;
+    private boolean byKeyBuilt;
+    // Where the merge sort writes every other pass
+    private ByteBuffer scratch;
+    // Name segments; the last one is being filled
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    // Open-addressing table of handle + 1 by key hash; 0 marks an empty slot
+    private ByteBuffer nameTable;
+    private int tableMask;
+    // Key the list order is sorted by ("name" or "area"), or null; add() clears it
+    private String sortedBy;
+    private boolean sortedDescending;
+
+    /**
+     * Constructs an empty store.
+     */
+    public ColumnarDriverStore() {
+        capacity = 1024;
+        areas = allocate(capacity * Double.BYTES);
+        nameStarts = allocate(capacity * Long.BYTES);
+        nameHeaders = allocate(capacity * Integer.BYTES);
+        keyHashes = allocate(capacity * Integer.BYTES);
+        order = allocate(capacity * Integer.BYTES);
+        byArea = allocate(capacity * Integer.BYTES);
+        byKey = allocate(capacity * Integer.BYTES);
+        scratch = allocate(capacity * Integer.BYTES);
+        nameTable = allocate(2 * capacity * Integer.BYTES);
+        tableMask = 2 * capacity - 1;
+        segments.add(allocate(SEGMENT_SIZE));
+    }
+
+    /**
+     * Adds a route accepted by the parser.
+     * @param name The driver's name.
+     * @param area The area of the driver's route.
+     */
+    @Override
+    public void accept(String name, double area) {
+        add(name, area);
+    }
+
+    /**
+     * Adds a driver to the end of the list.
+     * @param name The driver's name.
+     * @param area The area of the driver's route.
+     * @return The new driver's handle.
+     */
+    public int add(String name, double area) {
+        if (size == capacity) {
+            grow();
+        }
+        int handle = size++;
+        areas.putDouble(handle * Double.BYTES, area);
+        storeName(handle, name);
+        int hash = mix(LinkedList.nameKey(name).hashCode());
+        keyHashes.putInt(handle * Integer.BYTES, hash);
+        insertIntoTable(handle, hash);
+        order.putInt(handle * Integer.BYTES, handle);
+        byAreaBuilt = false;
+        byKeyBuilt = false;
+        sortedBy = null;
+        return handle;
+    }
+
+    /**
+     * Returns the number of drivers in the store.
+     * @return The number of drivers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the handle at a position of the list order.
+     * @param position The position, from 0 to size() - 1.
+     * @return The driver's handle.
+     */
+    public int handleAt(int position) {
+        return order.getInt(position * Integer.BYTES);
+    }
+
+    /**
+     * Returns a driver's area.
+     * @param handle The driver's handle.
+     * @return The route area.
+     */
+    public double getArea(int handle) {
+        return areas.getDouble(handle * Double.BYTES);
+    }
+
+    /**
+     * Returns a driver's name. This decodes the name into a new String.
+     * @param handle The driver's handle.
+     * @return The name.
+     */
+    public String getName(int handle) {
+        int header = nameHeaders.getInt(handle * Integer.BYTES);
+        int length = header >>> 1;
+        ByteBuffer segment = segment(handle);
+        int start = offset(handle);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = charAt(segment, start, header, i);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Writes a driver in the same format as Driver.toString, followed by a line separator.
+     * @param handle The driver's handle.
+     * @param out Where to write the driver.
+     */
+    public void appendDriver(int handle, Appendable out) throws IOException {
+        out.append(getName(handle)).append('\t').append(String.format("%.2f", getArea(handle))).append(System.lineSeparator());
+    }
+
+    /**
+     * Sorts the list by name with a stable merge sort over the handle column.
+     * Repeating the current sort is a no-op, and flipping its order reverses the list in O(n).
+     * @param order "dsc" for descending order, anything else for ascending.
+     */
+    public void sortByName(String order) {
+        sortByKey("name", order);
+    }
+
+    /**
+     * Sorts the list by area with a stable merge sort over the handle column.
+     * Repeating the current sort is a no-op, and flipping its order reverses the list in O(n).
+     * @param order "dsc" for descending order, anything else for ascending.
+     */
+    public void sortByArea(String order) {
+        sortByKey("area", order);
+    }
+
+    private void sortByKey(String key, String sortOrder) {
+        boolean descending = "dsc".equalsIgnoreCase(sortOrder);
+        int sortKey = "name".equals(key) ? NAME : AREA;
+        if (!key.equals(sortedBy)) {
+            sortHandles(order, sortKey, descending);
+        } else if (descending != sortedDescending) {
+            reverse(sortKey);
+        }
+        sortedBy = key;
+        sortedDescending = descending;
+    }
+
+    /**
+     * Reverses the list order, then restores the original order within each run of equal keys,
+     * so the result matches a stable sort in the opposite direction.
+     * @param sortKey The key the list is sorted by.
+     */
+    private void reverse(int sortKey) {
+        reverseRange(0, size);
+        int runStart = 0;
+        for (int position = 1; position <= size; position++) {
+            if (position == size || compare(handleAt(position - 1), handleAt(position), sortKey, false) != 0) {
+                reverseRange(runStart, position);
+                runStart = position;
+            }
+        }
+    }
+
+    private void reverseRange(int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int handle = order.getInt(i * Integer.BYTES);
+            order.putInt(i * Integer.BYTES, order.getInt(j * Integer.BYTES));
+            order.putInt(j * Integer.BYTES, handle);
+        }
+    }
+
+    /**
+     * Searches for a driver by name, ignoring case and surrounding whitespace.
+     * @param nameToSearch The name to search for.
+     * @return The handle of the first driver added under that name, or -1 if not found.
+     */
+    public int searchByName(String nameToSearch) {
+        int[] matches = searchAllByName(nameToSearch);
+        return matches.length == 0 ? -1 : matches[0];
+    }
+
+    /**
+     * Searches for every driver with the given name, ignoring case and surrounding whitespace.
+     * @param nameToSearch The name to search for.
+     * @return The handles of the matching drivers in the order they were added.
+     */
+    public int[] searchAllByName(String nameToSearch) {
+        String key = LinkedList.nameKey(nameToSearch);
+        int hash = mix(key.hashCode());
+        // Count the candidates first, so the result is allocated once
+        int candidates = 0;
+        for (int slot = hash & tableMask; ; slot = (slot + 1) & tableMask) {
+            int entry = nameTable.getInt(slot * Integer.BYTES);
+            if (entry == 0) {
+                break;
+            }
+            if (keyHashes.getInt((entry - 1) * Integer.BYTES) == hash) {
+                candidates++;
+            }
+        }
+        int[] matches = new int[candidates];
+        int count = 0;
+        for (int slot = hash & tableMask; ; slot = (slot + 1) & tableMask) {
+            int entry = nameTable.getInt(slot * Integer.BYTES);
+            if (entry == 0) {
+                break;
+            }
+            int handle = entry - 1;
+            if (keyHashes.getInt(handle * Integer.BYTES) == hash && keyEquals(handle, key)) {
+                matches[count++] = handle;
+            }
+        }
+        if (count < candidates) {
+            matches = Arrays.copyOf(matches, count); // Only when another key has the same hash
+        }
+        Arrays.sort(matches); // Probing can wrap around the table, so restore the add order
+        return matches;
+    }
+
+    /**
+     * Compares a stored name with a lookup key in place, without decoding the name.
+     * @param handle The driver's handle.
+     * @param key A key made by LinkedList.nameKey.
+     * @return True if the name's key equals the given key.
+     */
+    private boolean keyEquals(int handle, String key) {
+        int header = nameHeaders.getInt(handle * Integer.BYTES);
+        ByteBuffer segment = segment(handle);
+        int start = offset(handle);
+        int from = trimStart(segment, start, header);
+        int to = trimEnd(segment, start, header, from);
+        if (to - from != key.length()) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (LinkedList.foldCase(charAt(segment, start, header, i)) != key.charAt(i - from)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of a stored name's first character that String.trim keeps.
+     */
+    private static int trimStart(ByteBuffer segment, int start, int header) {
+        int length = header >>> 1;
+        int from = 0;
+        while (from < length && charAt(segment, start, header, from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Returns the index just past a stored name's last character that String.trim keeps.
+     */
+    private static int trimEnd(ByteBuffer segment, int start, int header, int from) {
+        int to = header >>> 1;
+        while (to > from && charAt(segment, start, header, to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * Searches for the drivers whose name starts with the given text, ignoring case and
+     * surrounding whitespace. Binary-searches the handle column sorted by lookup key, so it
+     * costs O(log n) key comparisons plus one per driver returned.
+     * @param prefix The text names must start with.
+     * @param limit The largest number of drivers to return.
+     * @return Up to limit handles in the same order as LinkedList.searchByPrefix: by case-folded
+     * name, then in the order they were added.
+     */
+    public int[] searchByPrefix(String prefix, int limit) {
+        if (limit <= 0) {
+            return new int[0];
+        }
+        String key = LinkedList.nameKey(prefix);
+        ByteBuffer sorted = keyOrder();
+        // First handle whose key is not less than the prefix; keys starting with it follow in a run
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareKey(sorted.getInt(middle * Integer.BYTES), key, false) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int to = low;
+        while (to < size && to - low < limit && compareKey(sorted.getInt(to * Integer.BYTES), key, true) == 0) {
+            to++;
+        }
+        return handles(sorted, low, to);
+    }
+
+    /**
+     * Searches for every driver whose area lies in the given range.
+     * @param min The smallest area to include.
+     * @param max The largest area to include.
+     * @return The matching handles in ascending order of area; ties keep the add order.
+     */
+    public int[] searchByAreaRange(double min, double max) {
+        ByteBuffer sorted = areaOrder();
+        int from = lowerBound(sorted, min);
+        int to = from;
+        while (to < size && getArea(sorted.getInt(to * Integer.BYTES)) <= max) {
+            to++;
+        }
+        return handles(sorted, from, to);
+    }
+
+    /**
+     * Searches for the drivers whose area is closest to the given value.
+     * @param area The area to search near.
+     * @return The closest handles in ascending order of area, more than one if they tie.
+     */
+    public int[] searchNearestArea(double area) {
+        ByteBuffer sorted = areaOrder();
+        if (size == 0) {
+            return new int[0];
+        }
+        int above = lowerBound(sorted, area);
+        double belowArea = above > 0 ? getArea(sorted.getInt((above - 1) * Integer.BYTES)) : 0;
+        double aboveArea = above < size ? getArea(sorted.getInt(above * Integer.BYTES)) : 0;
+        double below = above > 0 ? area - belowArea : Double.POSITIVE_INFINITY;
+        double over = above < size ? aboveArea - area : Double.POSITIVE_INFINITY;
+        int from = above;
+        int to = above;
+        if (below <= over) {
+            from = lowerBound(sorted, belowArea);
+        }
+        if (over <= below) {
+            while (to < size && getArea(sorted.getInt(to * Integer.BYTES)) == aboveArea) {
+                to++;
+            }
+        }
+        return handles(sorted, from, to);
+    }
+
+    /**
+     * Returns the driver at the given percentile of area, using the nearest-rank method.
+     * @param percentile The percentile, from 0 to 100; values outside are clamped.
+     * @return The driver's handle, or -1 if the store is empty.
+     */
+    public int searchByAreaPercentile(double percentile) {
+        ByteBuffer sorted = areaOrder();
+        if (size == 0) {
+            return -1;
+        }
+        double clamped = Math.max(0, Math.min(100, percentile));
+        int rank = (int) Math.ceil(clamped / 100 * size);
+        return sorted.getInt((Math.max(1, rank) - 1) * Integer.BYTES);
+    }
+
+    /**
+     * Returns the first K drivers of an order without changing the list order.
+     * Ties keep their current list order, as DriverSelection does for LinkedList.
+     * @param k The number of drivers to select.
+     * @param key "name" or "area".
+     * @param selectOrder "dsc" for descending order, anything else for ascending.
+     * @return Up to K handles, best first.
+     */
+    public int[] top(int k, String key, String selectOrder) {
+        int sortKey = "name".equals(key) ? NAME : AREA;
+        boolean descending = "dsc".equalsIgnoreCase(selectOrder);
+        int count = Math.max(0, Math.min(k, size));
+        // Max-heap of positions on (key, position): the root is the worst kept so far
+        int[] heap = new int[count];
+        int heapSize = 0;
+        for (int position = 0; position < size && count > 0; position++) {
+            if (heapSize < count) {
+                int i = heapSize++;
+                while (i > 0 && comparePositions(position, heap[(i - 1) >>> 1], sortKey, descending) > 0) {
+                    heap[i] = heap[(i - 1) >>> 1];
+                    i = (i - 1) >>> 1;
+                }
+                heap[i] = position;
+            } else if (comparePositions(position, heap[0], sortKey, descending) < 0) {
+                siftDown(heap, heapSize, position, sortKey, descending);
+            }
+        }
+        int[] result = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            result[i] = handleAt(heap[0]);
+            heapSize--;
+            siftDown(heap, heapSize, heap[heapSize], sortKey, descending);
+        }
+        return result;
+    }
+
+    private void siftDown(int[] heap, int heapSize, int position, int sortKey, boolean descending) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && comparePositions(heap[child + 1], heap[child], sortKey, descending) > 0) {
+                child++;
+            }
+            if (comparePositions(position, heap[child], sortKey, descending) >= 0) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (heapSize > 0) {
+            heap[i] = position;
+        }
+    }
+
+    private int comparePositions(int a, int b, int sortKey, boolean descending) {
+        int comparison = compare(handleAt(a), handleAt(b), sortKey, descending);
+        return comparison != 0 ? comparison : Integer.compare(a, b);
+    }
+
+    /**
+     * Returns the handle column sorted by lookup key, building it if drivers were added since.
+     */
+    private ByteBuffer keyOrder() {
+        if (!byKeyBuilt) {
+            fillIdentity(byKey);
+            sortHandles(byKey, NAME_KEY, false); // Stable, so equal keys keep the add order
+            byKeyBuilt = true;
+        }
+        return byKey;
+    }
+
+    /**
+     * Returns the handle column sorted by area, building it if drivers were added since.
+     */
+    private ByteBuffer areaOrder() {
+        if (!byAreaBuilt) {
+            fillIdentity(byArea);
+            sortHandles(byArea, AREA, false); // Stable, so equal areas keep the add order
+            byAreaBuilt = true;
+        }
+        return byArea;
+    }
+
+    /**
+     * Writes every handle in add order into the first size slots of a column.
+     */
+    private void fillIdentity(ByteBuffer column) {
+        for (int handle = 0; handle < size; handle++) {
+            column.putInt(handle * Integer.BYTES, handle);
+        }
+    }
+
+    private int lowerBound(ByteBuffer sorted, double area) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getArea(sorted.getInt(middle * Integer.BYTES)) < area) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int[] handles(ByteBuffer column, int from, int to) {
+        int[] result = new int[to - from];
+        for (int i = from; i < to; i++) {
+            result[i - from] = column.getInt(i * Integer.BYTES);
+        }
+        return result;
+    }
+
+    /**
+     * Sorts the first size handles of a column with a stable bottom-up merge sort,
+     * using the store's scratch column. Short runs are insertion-sorted
+     * first, and two runs that are already in order are copied without merging.
+     */
+    private void sortHandles(ByteBuffer column, int sortKey, boolean descending) {
+        if (size < 2) {
+            return;
+        }
+        for (int left = 0; left < size; left += INSERTION_RUN) {
+            insertionSort(column, left, Math.min(left + INSERTION_RUN, size), sortKey, descending);
+        }
+        ByteBuffer source = column;
+        ByteBuffer target = scratch;
+        for (int width = INSERTION_RUN; width < size; width *= 2) {
+            for (int left = 0; left < size; left += 2 * width) {
+                int middle = Math.min(left + width, size);
+                int right = Math.min(left + 2 * width, size);
+                merge(source, target, left, middle, right, sortKey, descending);
+            }
+            ByteBuffer swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != column) {
+            column.put(0, source, 0, size * Integer.BYTES);
+        }
+    }
+
+    private void insertionSort(ByteBuffer column, int from, int to, int sortKey, boolean descending) {
+        for (int i = from + 1; i < to; i++) {
+            int handle = column.getInt(i * Integer.BYTES);
+            int j = i;
+            // Only move past strictly greater handles, which keeps the sort stable
+            while (j > from && compare(column.getInt((j - 1) * Integer.BYTES), handle, sortKey, descending) > 0) {
+                column.putInt(j * Integer.BYTES, column.getInt((j - 1) * Integer.BYTES));
+                j--;
+            }
+            column.putInt(j * Integer.BYTES, handle);
+        }
+    }
+
+    /**
+     * Merges the sorted runs [left, middle) and [middle, right) of source into target.
+     * Ties are taken from the left run first, which keeps the sort stable.
+     */
+    private void merge(ByteBuffer source, ByteBuffer target, int left, int middle, int right, int sortKey, boolean descending) {
+        if (middle == right
+                || compare(source.getInt((middle - 1) * Integer.BYTES), source.getInt(middle * Integer.BYTES), sortKey, descending) <= 0) {
+            target.put(left * Integer.BYTES, source, left * Integer.BYTES, (right - left) * Integer.BYTES);
+            return;
+        }
+        int i = left;
+        int j = middle;
+        int k = left;
+        int a = source.getInt(i * Integer.BYTES);
+        int b = source.getInt(j * Integer.BYTES);
+        while (true) {
+            if (compare(b, a, sortKey, descending) < 0) {
+                target.putInt(k++ * Integer.BYTES, b);
+                if (++j == right) {
+                    break;
+                }
+                b = source.getInt(j * Integer.BYTES);
+            } else {
+                target.putInt(k++ * Integer.BYTES, a);
+                if (++i == middle) {
+                    break;
+                }
+                a = source.getInt(i * Integer.BYTES);
+            }
+        }
+        // Copy whichever run is left over
+        if (i < middle) {
+            target.put(k * Integer.BYTES, source, i * Integer.BYTES, (middle - i) * Integer.BYTES);
+        } else {
+            target.put(k * Integer.BYTES, source, j * Integer.BYTES, (right - j) * Integer.BYTES);
+        }
+    }
+
+    /**
+     * Compares two drivers by area, name or lookup key, in the given direction.
+     */
+    private int compare(int a, int b, int sortKey, boolean descending) {
+        int comparison;
+        if (sortKey == NAME) {
+            comparison = compareNames(a, b);
+        } else if (sortKey == NAME_KEY) {
+            comparison = compareKeys(a, b);
+        } else {
+            comparison = Double.compare(getArea(a), getArea(b));
+        }
+        return descending ? -comparison : comparison;
+    }
+
+    /**
+     * Compares two names character by character, like String.compareTo.
+     */
+    private int compareNames(int a, int b) {
+        int headerA = nameHeaders.getInt(a * Integer.BYTES);
+        int headerB = nameHeaders.getInt(b * Integer.BYTES);
+        ByteBuffer segmentA = segment(a);
+        ByteBuffer segmentB = segment(b);
+        int startA = offset(a);
+        int startB = offset(b);
+        int lengthA = headerA >>> 1;
+        int lengthB = headerB >>> 1;
+        int common = Math.min(lengthA, lengthB);
+        for (int i = 0; i < common; i++) {
+            char x = charAt(segmentA, startA, headerA, i);
+            char y = charAt(segmentB, startB, headerB, i);
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    /**
+     * Compares the lookup keys of two names character by character, like String.compareTo on
+     * the results of LinkedList.nameKey.
+     */
+    private int compareKeys(int a, int b) {
+        int headerA = nameHeaders.getInt(a * Integer.BYTES);
+        int headerB = nameHeaders.getInt(b * Integer.BYTES);
+        ByteBuffer segmentA = segment(a);
+        ByteBuffer segmentB = segment(b);
+        int startA = offset(a);
+        int startB = offset(b);
+        int fromA = trimStart(segmentA, startA, headerA);
+        int fromB = trimStart(segmentB, startB, headerB);
+        int lengthA = trimEnd(segmentA, startA, headerA, fromA) - fromA;
+        int lengthB = trimEnd(segmentB, startB, headerB, fromB) - fromB;
+        int common = Math.min(lengthA, lengthB);
+        for (int i = 0; i < common; i++) {
+            char x = LinkedList.foldCase(charAt(segmentA, startA, headerA, fromA + i));
+            char y = LinkedList.foldCase(charAt(segmentB, startB, headerB, fromB + i));
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    /**
+     * Compares a driver's lookup key with a key, like String.compareTo.
+     * @param handle The driver's handle.
+     * @param key A key made by LinkedList.nameKey.
+     * @param prefixOnly Whether to compare only the first key.length() characters, so that 0
+     *                   means the driver's key starts with key.
+     * @return A negative number, zero or a positive number as the driver's key is less than,
+     * equal to or greater than key.
+     */
+    private int compareKey(int handle, String key, boolean prefixOnly) {
+        int header = nameHeaders.getInt(handle * Integer.BYTES);
+        ByteBuffer segment = segment(handle);
+        int start = offset(handle);
+        int from = trimStart(segment, start, header);
+        int length = trimEnd(segment, start, header, from) - from;
+        int common = Math.min(length, key.length());
+        for (int i = 0; i < common; i++) {
+            char x = LinkedList.foldCase(charAt(segment, start, header, from + i));
+            if (x != key.charAt(i)) {
+                return x - key.charAt(i);
+            }
+        }
+        return prefixOnly && length >= key.length() ? 0 : length - key.length();
+    }
+
+    private static char charAt(ByteBuffer segment, int start, int header, int i) {
+        return (header & UTF16) != 0 ? segment.getChar(start + 2 * i) : (char) (segment.get(start + i) & 0xFF);
+    }
+
+    private ByteBuffer segment(int handle) {
+        return segments.get((int) (nameStarts.getLong(handle * Long.BYTES) >>> SEGMENT_SHIFT));
+    }
+
+    private int offset(int handle) {
+        return (int) (nameStarts.getLong(handle * Long.BYTES) & (SEGMENT_SIZE - 1));
+    }
+
+    /**
+     * Copies a name into the current segment, starting a new one if it does not fit.
+     */
+    private void storeName(int handle, String name) {
+        boolean latin1 = true;
+        for (int i = 0; i < name.length() && latin1; i++) {
+            latin1 = name.charAt(i) < 256;
+        }
+        int bytes = latin1 ? name.length() : 2 * name.length();
+        if (bytes > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Name of " + name.length() + " characters is too long to store");
+        }
+        ByteBuffer segment = segments.get(segments.size() - 1);
+        if (segment.remaining() < bytes) {
+            segment = allocate(SEGMENT_SIZE);
+            segments.add(segment);
+        }
+        int start = segment.position();
+        for (int i = 0; i < name.length(); i++) {
+            if (latin1) {
+                segment.put((byte) name.charAt(i));
+            } else {
+                segment.putChar(name.charAt(i));
+            }
+        }
+        nameStarts.putLong(handle * Long.BYTES, ((long) (segments.size() - 1) << SEGMENT_SHIFT) | start);
+        nameHeaders.putInt(handle * Integer.BYTES, name.length() << 1 | (latin1 ? 0 : UTF16));
+    }
+
+    private void insertIntoTable(int handle, int hash) {
+        int slot = hash & tableMask;
+        while (nameTable.getInt(slot * Integer.BYTES) != 0) {
+            slot = (slot + 1) & tableMask;
+        }
+        nameTable.putInt(slot * Integer.BYTES, handle + 1);
+    }
+
+    /**
+     * Doubles every per-driver column and the name table, which is rebuilt from the stored hashes.
+     */
+    private void grow() {
+        int newCapacity = capacity * 2;
+        if (newCapacity <= 0 || (long) newCapacity * Long.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Store is full at " + size + " drivers");
+        }
+        areas = copy(areas, newCapacity * Double.BYTES);
+        nameStarts = copy(nameStarts, newCapacity * Long.BYTES);
+        nameHeaders = copy(nameHeaders, newCapacity * Integer.BYTES);
+        keyHashes = copy(keyHashes, newCapacity * Integer.BYTES);
+        order = copy(order, newCapacity * Integer.BYTES);
+        // add() marks the sorted columns out of date, so they are allocated again rather than copied
+        free(byArea);
+        free(byKey);
+        free(scratch);
+        byArea = allocate(newCapacity * Integer.BYTES);
+        byKey = allocate(newCapacity * Integer.BYTES);
+        scratch = allocate(newCapacity * Integer.BYTES);
+        capacity = newCapacity;
+        // Keep the table at most half full
+        free(nameTable);
+        nameTable = allocate(2 * newCapacity * Integer.BYTES);
+        tableMask = 2 * newCapacity - 1;
+        for (int handle = 0; handle < size; handle++) {
+            insertIntoTable(handle, keyHashes.getInt(handle * Integer.BYTES));
+        }
+    }
+
+    /**
+     * Copies a column into a larger one and frees the old one.
+     */
+    private static ByteBuffer copy(ByteBuffer column, int newBytes) {
+        ByteBuffer grown = allocate(newBytes);
+        grown.put(0, column, 0, column.capacity());
+        free(column);
+        return grown;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Frees a direct buffer now instead of when it is garbage collected. Nothing may use the
+     * buffer afterwards.
+     */
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // Left to the garbage collector
+        }
+    }
+
+    /**
+     * Frees every off-heap column and name segment. The store must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (areas == null) {
+            return;
+        }
+        for (ByteBuffer column : new ByteBuffer[] {areas, nameStarts, nameHeaders, keyHashes, order, byArea, byKey, scratch,
+                nameTable}) {
+            free(column);
+        }
+        segments.forEach(ColumnarDriverStore::free);
+        segments.clear();
+        // Fail with a NullPointerException rather than read freed memory
+        areas = null;
+        nameStarts = null;
+        nameHeaders = null;
+        keyHashes = null;
+        order = null;
+        byArea = null;
+        byKey = null;
+        scratch = null;
+        nameTable = null;
+    }
+
+    /**
+     * Spreads the bits of a String hash, so consecutive names do not probe neighbouring slots.
+     */
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
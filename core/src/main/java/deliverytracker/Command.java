@@ -0,0 +1,490 @@
+package deliverytracker;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A single parsed line of a command file.
+ * A line starting with "sort" followed by a key and an order sorts the driver list, with a
+ * radix sort if "radix" follows the order,
+ * "range MIN MAX" lists the drivers whose area lies in a range, "nearest AREA" lists the
+ * drivers with the closest area, "top K key order" lists the first K drivers of an order
+ * without sorting, "percentile P area" prints the area at a percentile, "prefix TEXT [N]"
+ * lists the first N drivers whose name starts with TEXT, "covers X,Y" lists the drivers whose
+ * route contains a point, and any other line looks up the drivers named by its first word.
+ */
+public class Command {
+    /**
+     * The kinds of command a line can hold.
+     */
+    public enum Type {
+        SORT,
+        LOOKUP,
+        RANGE,
+        NEAREST,
+        TOP,
+        PERCENTILE,
+        PREFIX,
+        COVERS
+    }
+
+    // Number of matches a prefix command lists when it gives no count
+    static final int DEFAULT_PREFIX_LIMIT = 10;
+
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final Type type;
+    // Sort key ("name" or "area") and order ("asc" or "dsc") for SORT commands
+    private final String key;
+    private final String order;
+    // Whether a SORT command uses the radix sort
+    private final boolean radix;
+    // Name to look up for LOOKUP commands, or the text to match for PREFIX commands
+    private final String name;
+    // Area bounds for RANGE commands; low is the target area for NEAREST, the count for TOP
+    // and PREFIX and the percentile for PERCENTILE commands; low and high are the x and y of
+    // the point for COVERS commands
+    private final double low;
+    private final double high;
+
+    private Command(Type type, String key, String order, String name, double low, double high) {
+        this(type, key, order, false, name, low, high);
+    }
+
+    private Command(Type type, String key, String order, boolean radix, String name, double low, double high) {
+        this.type = type;
+        this.key = key;
+        this.order = order;
+        this.radix = radix;
+        this.name = name;
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * Parses one line of a command file.
+     * @param line The line to parse.
+     * @return The command, or null if the line is a sort or top command with an unknown key or order.
+     * @throws NumberFormatException If a number in a range, nearest, top, percentile, prefix or covers command is invalid.
+     */
+    public static Command parse(String line) {
+        String[] parts = line.trim().split(" ");
+        if ("sort".equalsIgnoreCase(parts[0]) && parts.length >= 3) {
+            String key = parseKey(parts[1]);
+            String order = parseOrder(parts[2]);
+            if (key == null || order == null) {
+                return null;
+            }
+            boolean radix = parts.length >= 4 && "radix".equalsIgnoreCase(parts[3]);
+            return new Command(Type.SORT, key, order, radix, null, 0, 0);
+        }
+        if ("top".equalsIgnoreCase(parts[0]) && parts.length >= 4) {
+            int count = Integer.parseInt(parts[1]);
+            String key = parseKey(parts[2]);
+            String order = parseOrder(parts[3]);
+            if (key == null || order == null) {
+                return null;
+            }
+            return new Command(Type.TOP, key, order, null, count, 0);
+        }
+        if ("percentile".equalsIgnoreCase(parts[0]) && parts.length >= 3 && "area".equalsIgnoreCase(parts[2])) {
+            return new Command(Type.PERCENTILE, "area", null, null, Double.parseDouble(parts[1]), 0);
+        }
+        if ("prefix".equalsIgnoreCase(parts[0]) && parts.length >= 2) {
+            int limit = parts.length >= 3 ? Integer.parseInt(parts[2]) : DEFAULT_PREFIX_LIMIT;
+            return new Command(Type.PREFIX, null, null, parts[1], limit, 0);
+        }
+        if ("covers".equalsIgnoreCase(parts[0]) && parts.length >= 2) {
+            // The point is written like a route vertex, "x,y", or as two words
+            String[] point = parts[1].split(",");
+            String y = point.length >= 2 ? point[1] : parts.length >= 3 ? parts[2] : "";
+            return new Command(Type.COVERS, null, null, null, Double.parseDouble(point[0]), Double.parseDouble(y));
+        }
+        if ("range".equalsIgnoreCase(parts[0]) && parts.length >= 3) {
+            return new Command(Type.RANGE, null, null, null, Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+        }
+        if ("nearest".equalsIgnoreCase(parts[0]) && parts.length >= 2) {
+            return new Command(Type.NEAREST, null, null, null, Double.parseDouble(parts[1]), 0);
+        }
+        // Otherwise the first word is a name to search the driver list for
+        return new Command(Type.LOOKUP, null, null, parts[0], 0, 0);
+    }
+
+    private static String parseKey(String word) {
+        return "name".equalsIgnoreCase(word) ? "name" : "area".equalsIgnoreCase(word) ? "area" : null;
+    }
+
+    private static String parseOrder(String word) {
+        return "asc".equalsIgnoreCase(word) ? "asc" : "dsc".equalsIgnoreCase(word) ? "dsc" : null;
+    }
+
+    /**
+     * Returns the kind of this command.
+     * @return The command type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the sort key of a SORT command.
+     * @return "name" or "area", or null for commands without a key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the order of a SORT or TOP command.
+     * @return "asc" or "dsc", or null for commands without an order.
+     */
+    public String getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the order a SORT or TOP command ranks drivers in.
+     * @return The comparator for the key and order, or null for commands without a key.
+     */
+    public Comparator<Driver> getComparator() {
+        if (key == null) {
+            return null;
+        }
+        Comparator<Driver> comparator = "name".equals(key) ? Driver.BY_NAME : Driver.BY_AREA;
+        return "dsc".equals(order) ? comparator.reversed() : comparator;
+    }
+
+    /**
+     * Returns the name a LOOKUP command searches for, or the text a PREFIX command matches.
+     * @return The name, or null for other commands.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the first number of a command: the smallest area for RANGE, the target area for
+     * NEAREST, the count for TOP and PREFIX, the percentile for PERCENTILE and x for COVERS.
+     * @return The number, or 0 for commands without one.
+     */
+    public double getLow() {
+        return low;
+    }
+
+    /**
+     * Returns the second number of a command: the largest area for RANGE and y for COVERS.
+     * @return The number, or 0 for commands without one.
+     */
+    public double getHigh() {
+        return high;
+    }
+
+    /**
+     * Returns whether this command's output depends on the current order of the list.
+     * Lookups and area queries answer from the indexes, so they do not; top breaks ties
+     * by list order, so it does.
+     * @return True if the command reads or changes the list order.
+     */
+    public boolean dependsOnOrder() {
+        return type == Type.SORT || type == Type.TOP;
+    }
+
+    /**
+     * Runs this command against the driver list.
+     * @param driverList The list of drivers.
+     * @param out Where to write the command's output.
+     */
+    public void execute(IndexedList<Driver> driverList, Appendable out) throws IOException {
+        // Sorts are measured by the list itself
+        if (!Metrics.ENABLED || type == Type.SORT) {
+            run(driverList, out);
+            return;
+        }
+        PipelineEvents.Search event = new PipelineEvents.Search();
+        event.begin();
+        long start = System.nanoTime();
+        boolean found = run(driverList, out);
+        Metrics.SEARCH.record(System.nanoTime() - start);
+        if (!found && type == Type.LOOKUP) {
+            Metrics.LOOKUP_MISSES.increment();
+        }
+        event.command = toString();
+        event.found = found;
+        event.commit();
+    }
+
+    /**
+     * Runs this command against the driver list without instrumentation.
+     * @return Whether a query found anything; true for sorts.
+     */
+    private boolean run(IndexedList<Driver> driverList, Appendable out) throws IOException {
+        switch (type) {
+            case SORT:
+                if ("name".equals(key)) {
+                    if (radix) {
+                        driverList.radixSortByName(order);
+                    } else {
+                        driverList.sortByName(order);
+                    }
+                } else if (radix) {
+                    driverList.radixSortByArea(order);
+                } else {
+                    driverList.sortByArea(order);
+                }
+                return true;
+            case LOOKUP:
+                return writeAnswer(driverList.searchAllByName(name), out);
+            case RANGE:
+                return writeAnswer(driverList.searchByAreaRange(low, high), out);
+            case NEAREST:
+                return writeAnswer(driverList.searchNearestArea(low), out);
+            case TOP:
+                return writeAnswer(DriverSelection.top(driverList, (int) low, getComparator()), out);
+            case PERCENTILE:
+                Driver atPercentile = driverList.searchByAreaPercentile(low);
+                return writeAnswer(atPercentile == null ? Collections.emptyList() : Collections.singletonList(atPercentile), out);
+            case PREFIX:
+                return writeAnswer(driverList.searchByPrefix(name, (int) low), out);
+            case COVERS:
+                return writeAnswer(driverList.searchCovering(low, high), out);
+            default:
+                throw new IllegalStateException("Unknown command type " + type);
+        }
+    }
+
+    /**
+     * Writes the answer to this query in the same format as execute, from drivers found elsewhere.
+     * @param answer The drivers the query found, in the order execute lists them; for PERCENTILE
+     *               the driver at the percentile, if any.
+     * @param out Where to write the answer.
+     * @return Whether the query found anything.
+     */
+    public boolean writeAnswer(List<? extends Driver> answer, Appendable out) throws IOException {
+        return writeAnswer(new Answer() {
+            @Override
+            public int size() {
+                return answer.size();
+            }
+
+            @Override
+            public double getArea(int index) {
+                return answer.get(index).getArea();
+            }
+
+            @Override
+            public void appendDriver(int index, Appendable to) throws IOException {
+                to.append(answer.get(index).toString()).append(NEWLINE);
+            }
+        }, out);
+    }
+
+    /**
+     * Writes the answer to this query from drivers of an off-heap store.
+     * @param store The driver store.
+     * @param handles The handles of the drivers the query found, in the order to list them.
+     * @param out Where to write the answer.
+     * @return Whether the query found anything.
+     */
+    private boolean writeAnswer(ColumnarDriverStore store, int[] handles, Appendable out) throws IOException {
+        return writeAnswer(new Answer() {
+            @Override
+            public int size() {
+                return handles.length;
+            }
+
+            @Override
+            public double getArea(int index) {
+                return store.getArea(handles[index]);
+            }
+
+            @Override
+            public void appendDriver(int index, Appendable to) throws IOException {
+                store.appendDriver(handles[index], to);
+            }
+        }, out);
+    }
+
+    /**
+     * The drivers a query found, wherever they are kept, so both driver stores share one output format.
+     */
+    private interface Answer {
+        int size();
+
+        double getArea(int index);
+
+        /**
+         * Writes a driver in the same format as Driver.toString, followed by a line separator.
+         */
+        void appendDriver(int index, Appendable out) throws IOException;
+    }
+
+    private boolean writeAnswer(Answer answer, Appendable out) throws IOException {
+        boolean empty = answer.size() == 0;
+        switch (type) {
+            case LOOKUP:
+                if (empty) {
+                    out.append(name).append(" not found").append(NEWLINE);
+                }
+                for (int i = 0; i < answer.size(); i++) {
+                    out.append(String.valueOf(answer.getArea(i))).append(NEWLINE);
+                }
+                break;
+            case RANGE:
+                if (empty) {
+                    out.append("no drivers with area between ").append(String.valueOf(low))
+                            .append(" and ").append(String.valueOf(high)).append(NEWLINE);
+                }
+                appendDrivers(answer, out);
+                break;
+            case NEAREST:
+                if (empty) {
+                    out.append("no drivers").append(NEWLINE);
+                }
+                appendDrivers(answer, out);
+                break;
+            case TOP:
+                appendDrivers(answer, out);
+                break;
+            case PERCENTILE:
+                out.append(empty ? "no drivers" : String.valueOf(answer.getArea(0))).append(NEWLINE);
+                break;
+            case PREFIX:
+                if (empty) {
+                    out.append("no drivers starting with ").append(name).append(NEWLINE);
+                }
+                appendDrivers(answer, out);
+                break;
+            case COVERS:
+                if (empty) {
+                    out.append("no drivers covering ").append(String.valueOf(low)).append(",")
+                            .append(String.valueOf(high)).append(NEWLINE);
+                }
+                appendDrivers(answer, out);
+                break;
+            default:
+                throw new IllegalStateException("A " + type + " command has no answer");
+        }
+        return !empty;
+    }
+
+    /**
+     * Runs this command against an off-heap driver store, with the same output as against a list.
+     * @param store The driver store.
+     * @param out Where to write the command's output.
+     */
+    public void execute(ColumnarDriverStore store, Appendable out) throws IOException {
+        switch (type) {
+            case SORT:
+                // The store's merge sort gives the same order as a radix sort, so radix is not needed
+                if ("name".equals(key)) {
+                    store.sortByName(order);
+                } else {
+                    store.sortByArea(order);
+                }
+                break;
+            case LOOKUP:
+                writeAnswer(store, store.searchAllByName(name), out);
+                break;
+            case RANGE:
+                writeAnswer(store, store.searchByAreaRange(low, high), out);
+                break;
+            case NEAREST:
+                writeAnswer(store, store.searchNearestArea(low), out);
+                break;
+            case TOP:
+                writeAnswer(store, store.top((int) low, key, order), out);
+                break;
+            case PERCENTILE:
+                int atPercentile = store.searchByAreaPercentile(low);
+                writeAnswer(store, atPercentile < 0 ? new int[0] : new int[] {atPercentile}, out);
+                break;
+            case PREFIX:
+                writeAnswer(store, store.searchByPrefix(name, (int) low), out);
+                break;
+            case COVERS:
+                // The store keeps no route geometry to test the point against
+                out.append("Error: covers needs route geometry, which --columnar does not keep.").append(NEWLINE);
+                break;
+            default:
+                throw new IllegalStateException("Unknown command type " + type);
+        }
+    }
+
+    /**
+     * Re-evaluates this command after new drivers were added to the list.
+     * Lookups, ranges and covers only report matches among the new drivers, in the same format as
+     * execute, and print nothing when there are none;
+     * nearest, top, percentile and prefix depend on the whole list, so they run again in full.
+     * Sorts print nothing, since the list keeps its order as drivers are added.
+     * @param driverList The linked list of drivers, already including the new ones.
+     * @param added The new drivers only.
+     * @param out Where to write the command's output.
+     */
+    public void executeIncrementally(LinkedList<Driver> driverList, LinkedList<Driver> added, Appendable out) throws IOException {
+        switch (type) {
+            case SORT:
+                break;
+            case LOOKUP:
+                appendNewMatches(added.searchAllByName(name), out);
+                break;
+            case RANGE:
+                appendNewMatches(added.searchByAreaRange(low, high), out);
+                break;
+            case COVERS:
+                appendNewMatches(added.searchCovering(low, high), out);
+                break;
+            default:
+                execute(driverList, out);
+                break;
+        }
+    }
+
+    /**
+     * Writes the drivers a query found among newly added ones in the same format as execute,
+     * or nothing if there are none.
+     */
+    private void appendNewMatches(List<Driver> matches, Appendable out) throws IOException {
+        if (!matches.isEmpty()) {
+            writeAnswer(matches, out);
+        }
+    }
+
+    /**
+     * Writes one line per driver in the same format as the final driver list.
+     * @param drivers The drivers to write.
+     * @param out Where to write them.
+     */
+    private static void appendDrivers(Answer drivers, Appendable out) throws IOException {
+        for (int i = 0; i < drivers.size(); i++) {
+            drivers.appendDriver(i, out);
+        }
+    }
+
+    /**
+     * Returns the text this command was parsed from, normalized.
+     * @return The command as it would appear in a command file.
+     */
+    @Override
+    public String toString() {
+        switch (type) {
+            case SORT:
+                return "sort " + key + " " + order + (radix ? " radix" : "");
+            case RANGE:
+                return "range " + low + " " + high;
+            case NEAREST:
+                return "nearest " + low;
+            case TOP:
+                return "top " + (int) low + " " + key + " " + order;
+            case PERCENTILE:
+                return "percentile " + low + " area";
+            case PREFIX:
+                return "prefix " + name + " " + (int) low;
+            case COVERS:
+                return "covers " + low + "," + high;
+            default:
+                return name;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package deliverytracker;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a whole command file as one plan instead of one line at a time.
+ * The file is parsed up front, sorts that are overridden by a later sort on the same key
+ * are dropped, and all output goes through a single buffered writer. Lookups answer from
+ * the name index regardless of order, so they do not keep the sorts around them apart.
+ */
+public class CommandBatch {
+    private final List<Command> plan;
+
+    private CommandBatch(List<Command> plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * Parses a command file into a plan.
+     * A line with an invalid number is reported on standard error and skipped, so the rest of
+     * the file still runs.
+     * @param filename The name of the command file.
+     * @return The optimized plan.
+     */
+    public static CommandBatch read(String filename) throws IOException {
+        List<Command> commands = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(filename)), 1 << 16)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                Command command;
+                try {
+                    command = Command.parse(line);
+                } catch (NumberFormatException e) {
+                    System.err.println("Warning: invalid number on line " + lineNumber + " of " + filename + "; skipping " + line);
+                    continue;
+                }
+                if (command != null) {
+                    commands.add(command);
+                }
+            }
+        }
+        return new CommandBatch(collapseSorts(commands));
+    }
+
+    /**
+     * Returns the commands that will run, in order.
+     * @return The plan.
+     */
+    public List<Command> getPlan() {
+        return plan;
+    }
+
+    /**
+     * Drops each sort that is followed by a sort on the same key with no order-dependent
+     * command in between. Sorts are stable, so a later sort on a key leaves the earlier one
+     * no effect on the final order: any tie it could break is also a tie for that key.
+     * @param commands The parsed commands.
+     * @return The commands with redundant sorts removed.
+     */
+    static List<Command> collapseSorts(List<Command> commands) {
+        Command[] kept = commands.toArray(new Command[0]);
+        // Index of the latest sort on each key that no order-dependent command has observed yet
+        Map<String, Integer> pendingSorts = new HashMap<>();
+        for (int i = 0; i < kept.length; i++) {
+            Command command = kept[i];
+            if (command.getType() == Command.Type.SORT) {
+                Integer overridden = pendingSorts.put(command.getKey(), i);
+                if (overridden != null) {
+                    kept[overridden] = null;
+                }
+            } else if (command.dependsOnOrder()) {
+                pendingSorts.clear();
+            }
+        }
+        List<Command> result = new ArrayList<>(kept.length);
+        for (Command command : kept) {
+            if (command != null) {
+                result.add(command);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the plan against the driver list.
+     * Lookups answer from the name index straight into the writer, so a run of lookups
+     * costs no console synchronization or flushing until the writer's buffer fills.
+     * @param driverList The list of drivers.
+     * @param out Where to write the output.
+     */
+    public void execute(IndexedList<Driver> driverList, Writer out) throws IOException {
+        for (Command command : plan) {
+            command.execute(driverList, out);
+        }
+    }
+
+    /**
+     * Runs the plan against an off-heap driver store.
+     * @param store The driver store.
+     * @param out Where to write the output.
+     */
+    public void execute(ColumnarDriverStore store, Writer out) throws IOException {
+        for (Command command : plan) {
+            command.execute(store, out);
+        }
+    }
+
+    /**
+     * Runs the plan against drivers sharded over worker processes.
+     * @param coordinator The coordinator of the workers.
+     * @param out Where to write the output.
+     */
+    public void execute(PartitionCoordinator coordinator, Writer out) throws IOException {
+        for (Command command : plan) {
+            coordinator.execute(command, out);
+        }
+    }
+}
@@ -1,12 +1,23 @@
+package deliverytracker;
+
+import java.util.Comparator;
+
 /**
  * Represents a driver with a name and associated route area.
  * Implements the Comparable interface for sorting purposes based on different criteria.
  */
 public class Driver implements Comparable<Driver> {
+    // Orders drivers by name, matching the name comparison used by compareTo
+    public static final Comparator<Driver> BY_NAME = (a, b) -> a.name.compareTo(b.name);
+    // Orders drivers by route area
+    public static final Comparator<Driver> BY_AREA = (a, b) -> Double.compare(a.area, b.area);
+
     // The driver's name
     private String name;
     // The area of the driver's route
     private double area;
+    // The vertices of the driver's route, or null if they were not kept
+    private final RouteGeometry geometry;
     // Variable to determine the comparison criteria: 1 for area, 2 for name, etc.
     private int comparisonVariable;
 
@@ -16,6 +27,28 @@ public class Driver implements Comparable<Driver> {
      */
     public Driver(String name) {
         this.name = name;
+        this.geometry = null;
+    }
+
+    /**
+     * Constructs a Driver with the specified name and route area.
+     * @param name The driver's name.
+     * @param area The area of the driver's route.
+     */
+    public Driver(String name, double area) {
+        this(name, area, null);
+    }
+
+    /**
+     * Constructs a Driver with the specified name, route area and route vertices.
+     * @param name The driver's name.
+     * @param area The area of the driver's route.
+     * @param geometry The vertices of the driver's route, or null if they are not kept.
+     */
+    public Driver(String name, double area, RouteGeometry geometry) {
+        this.name = name;
+        this.area = area;
+        this.geometry = geometry;
     }
 
     /**
@@ -28,6 +61,7 @@ public class Driver implements Comparable<Driver> {
 
     /**
      * Sets the driver's name.
+     * A LinkedList already holding this driver keeps indexing it under its previous name.
      * @param name The name to set.
      */
     public void setName(String name) {
@@ -44,12 +78,21 @@ public class Driver implements Comparable<Driver> {
 
     /**
      * Sets the area of the driver's route.
+     * A LinkedList already holding this driver keeps indexing it under its previous area.
      * @param area The area to set.
      */
     public void setArea(double area) {
         this.area = area;
     }
 
+    /**
+     * Returns the vertices of the driver's route.
+     * @return The route geometry, or null if it was not kept.
+     */
+    public RouteGeometry getGeometry() {
+        return geometry;
+    }
+
     /**
      * Returns the current comparison criteria. 
      * @return 1 for area comparison, 2 for name comparison, etc.
@@ -0,0 +1,339 @@
+package deliverytracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A driver collection that ingest threads and query threads can use at the same time.
+ *
+ * LinkedList reorders its nodes in place when it sorts, so it must not be shared between
+ * threads. Here every driver goes into an append-only log, and the number of drivers in the
+ * log is published together with the log's array as one immutable state behind an
+ * AtomicReference. A driver is part of the collection exactly when a published state counts
+ * it, so every read starts from one state and sees the first count drivers, no more, no less.
+ *
+ * An add claims the next free slot of the log with a compare-and-set and then publishes the
+ * state that counts it. A thread that finds a claimed slot not yet counted finishes that add
+ * for its owner before claiming a slot of its own, so adds are lock-free: a stalled thread
+ * never blocks the others. Name lookups read the state, then the positions indexed under the
+ * name, and are wait-free. Orders are served as read-only LinkedList views built from one
+ * state and cached by its count, so a view is only refreshed after new drivers arrive. A view
+ * is refreshed by extending the previous one: the new drivers are appended to the insertion
+ * order or merged into a sorted order, and only they are indexed, while the indexes of the
+ * earlier drivers are shared. Once the drivers indexed that way outnumber a quarter of the
+ * rest, the insertion view is built again from the log and the sorted views are sorted again
+ * from it, so each driver is indexed and sorted a constant number of times on average.
+ *
+ * QueryServer keeps its drivers here, so a RouteFileFollower can add routes while clients
+ * query them.
+ */
+public class DriverRegistry {
+    // Slots of the first log array; it doubles when full
+    private static final int INITIAL_CAPACITY = 64;
+    // Key of the cached view in insertion order
+    private static final String INSERTION = "insertion";
+    // Views are built again once the drivers added since the last build exceed 1/REBUILD_RATIO of it
+    private static final int REBUILD_RATIO = 4;
+
+    // The published state; replaced as a whole, never changed
+    private final AtomicReference<State> state = new AtomicReference<>(new State(new AtomicReferenceArray<>(INITIAL_CAPACITY), 0));
+    // Log positions of the drivers by LinkedList.nameKey, ascending; each array replaced as a whole
+    private final ConcurrentMap<String, AtomicReference<int[]>> nameIndex = new ConcurrentHashMap<>();
+    // Cached views by INSERTION or their sorts, e.g. "area dsc" or "name asc, area dsc"
+    private final ConcurrentMap<String, View> views = new ConcurrentHashMap<>();
+
+    /**
+     * The log as of one moment: the drivers at positions 0 to count - 1 of the array.
+     * Slots below count never change. The slot at count may already be claimed by an add in
+     * progress; it becomes part of the collection when a state with a larger count is published.
+     */
+    private static final class State {
+        final AtomicReferenceArray<Driver> log;
+        final int count;
+
+        State(AtomicReferenceArray<Driver> log, int count) {
+            this.log = log;
+            this.count = count;
+        }
+    }
+
+    /**
+     * A read-only list holding the first count drivers in some order.
+     */
+    private static final class View {
+        final int count;
+        // Count of the insertion view that was built from the log and whose indexes this one extends
+        final int builtAt;
+        final LinkedList<Driver> list;
+
+        View(int count, int builtAt, LinkedList<Driver> list) {
+            this.count = count;
+            this.builtAt = builtAt;
+            this.list = list;
+        }
+    }
+
+    /**
+     * Adds a driver. Lock-free: concurrent adds retry a compare-and-set instead of blocking,
+     * apart from the map's one-time insertion of a name it has not seen before.
+     * @param driver The driver to add.
+     */
+    public void add(Driver driver) {
+        while (true) {
+            State current = state.get();
+            if (current.count == current.log.length()) {
+                grow(current);
+            } else if (current.log.compareAndSet(current.count, null, driver)) {
+                publish(current);
+                return;
+            } else {
+                publish(current); // Finish the add that claimed the slot, then try the next one
+            }
+        }
+    }
+
+    /**
+     * Publishes the state that counts the driver claimed at current.count, unless another
+     * thread already did. The driver's position is indexed under its name first, so any state
+     * that counts a driver finds it by name.
+     * @param current The state whose next slot is claimed.
+     */
+    private void publish(State current) {
+        int position = current.count;
+        Driver driver = current.log.get(position);
+        AtomicReference<int[]> positions = nameIndex.computeIfAbsent(LinkedList.nameKey(driver.getName()),
+                key -> new AtomicReference<>(new int[0]));
+        int[] indexed;
+        int[] updated;
+        do {
+            indexed = positions.get();
+            // Positions are published in order, so a helper that got here first put it last
+            if (indexed.length > 0 && indexed[indexed.length - 1] >= position) {
+                break;
+            }
+            updated = Arrays.copyOf(indexed, indexed.length + 1);
+            updated[indexed.length] = position;
+        } while (!positions.compareAndSet(indexed, updated));
+        state.compareAndSet(current, new State(current.log, position + 1));
+    }
+
+    /**
+     * Moves a full log into an array twice its size, unless another thread already did.
+     * @param current The state whose log is full.
+     */
+    private void grow(State current) {
+        AtomicReferenceArray<Driver> log = new AtomicReferenceArray<>(2 * current.log.length());
+        for (int i = 0; i < current.count; i++) {
+            log.set(i, current.log.get(i));
+        }
+        state.compareAndSet(current, new State(log, current.count));
+    }
+
+    /**
+     * Adds drivers in order, each as add does.
+     * @param drivers The drivers to add.
+     */
+    public void addAll(List<Driver> drivers) {
+        for (Driver driver : drivers) {
+            add(driver);
+        }
+    }
+
+    /**
+     * Returns the number of drivers added so far.
+     * @return The number of drivers.
+     */
+    public int size() {
+        return state.get().count;
+    }
+
+    /**
+     * Searches for a driver by name, ignoring case and surrounding whitespace.
+     * Wait-free: a few reads, whatever other threads are doing.
+     * @param nameToSearch The name of the driver to search for.
+     * @return The first driver added under that name, or null if not found.
+     */
+    public Driver searchByName(String nameToSearch) {
+        List<Driver> matches = searchAllByName(nameToSearch);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * Searches for every driver with the provided name, ignoring case and surrounding whitespace.
+     * Wait-free, like searchByName.
+     * @param nameToSearch The name of the drivers to search for.
+     * @return The matching drivers in the order they were added, or an empty list if none match.
+     */
+    public List<Driver> searchAllByName(String nameToSearch) {
+        State current = state.get();
+        AtomicReference<int[]> positions = nameIndex.get(LinkedList.nameKey(nameToSearch));
+        if (positions == null) {
+            return Collections.emptyList();
+        }
+        int[] indexed = positions.get();
+        // Positions at or past the count belong to adds this state does not include yet
+        int found = indexed.length;
+        while (found > 0 && indexed[found - 1] >= current.count) {
+            found--;
+        }
+        List<Driver> matches = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            matches.add(current.log.get(indexed[i]));
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Returns the drivers in the order they were added, as of now.
+     * The list is read-only and shared with other callers; its searches are safe to run from
+     * any number of threads.
+     * @return A read-only view of the drivers.
+     */
+    public LinkedList<Driver> snapshot() {
+        return insertionView().list;
+    }
+
+    /**
+     * Returns the drivers sorted by name, as of now. Same contract as snapshot().
+     * @param order "dsc" for descending order, anything else for ascending.
+     * @return A read-only sorted view of the drivers.
+     */
+    public LinkedList<Driver> sortedByName(String order) {
+        return sorted(List.of(sortCommand("name", order)));
+    }
+
+    /**
+     * Returns the drivers sorted by area, as of now. Same contract as snapshot().
+     * @param order "dsc" for descending order, anything else for ascending.
+     * @return A read-only sorted view of the drivers.
+     */
+    public LinkedList<Driver> sortedByArea(String order) {
+        return sorted(List.of(sortCommand("area", order)));
+    }
+
+    /**
+     * Returns the drivers in the order a LinkedList of them would be in after the given sorts,
+     * as of now. Same contract as snapshot(). The sorts are stable, so as in
+     * ExternalSorter.orderOf the last sort decides and an earlier sort on the other key breaks
+     * its ties; sorts overridden by a later sort on the same key do not matter.
+     * @param sorts The sort commands, in the order they ran; radix sorts give the same order.
+     * @return A read-only sorted view of the drivers, or snapshot() if there are no sorts.
+     */
+    public LinkedList<Driver> sorted(List<Command> sorts) {
+        List<Command> effective = new ArrayList<>(2);
+        Set<String> keys = new HashSet<>();
+        for (int i = sorts.size() - 1; i >= 0; i--) {
+            if (keys.add(sorts.get(i).getKey())) {
+                effective.add(0, sorts.get(i));
+            }
+        }
+        return effective.isEmpty() ? snapshot() : sortedView(effective).list;
+    }
+
+    private static Command sortCommand(String key, String order) {
+        return Command.parse("sort " + key + " " + ("dsc".equalsIgnoreCase(order) ? "dsc" : "asc"));
+    }
+
+    /**
+     * Returns the view in insertion order for the current state, building it if needed.
+     * Two threads may build it at once; the one with the larger count is kept.
+     * @return The view, whose indexes the sorted views of its count share.
+     */
+    private View insertionView() {
+        State current = state.get();
+        View cached = views.get(INSERTION);
+        if (cached != null && cached.count >= current.count) {
+            return cached; // Built by another thread from the same or a later state
+        }
+        LinkedList<Driver> list;
+        int builtAt;
+        if (cached != null && current.count - cached.builtAt <= cached.builtAt / REBUILD_RATIO) {
+            // Share the cached view's indexes and index only the new drivers
+            list = cached.list.extendedCopy(drivers(current, cached.count, current.count), null);
+            builtAt = cached.builtAt;
+        } else {
+            list = new LinkedList<>();
+            list.addAll(drivers(current, 0, current.count));
+            builtAt = current.count;
+        }
+        list.makeReadOnly(); // So searches on the shared view only read
+        return publish(INSERTION, new View(current.count, builtAt, list));
+    }
+
+    /**
+     * Returns the view in the order of the given sorts, building it if needed. It has the
+     * count of the view it is sorted from: the insertion view for one sort, and otherwise the
+     * view of the sorts before the last.
+     * A cached view of the same order that extends the same indexes is extended with the new
+     * drivers, which merges them in without sorting again. Otherwise the view copies the nodes
+     * of the view with the last sort's order flipped if it has the same count, so the sort only
+     * reverses it, and else those of the view it is sorted from.
+     * @param sorts Sorts on distinct keys, in the order they ran.
+     * @return The view.
+     */
+    private View sortedView(List<Command> sorts) {
+        Command last = sorts.get(sorts.size() - 1);
+        View source = sorts.size() == 1 ? insertionView() : sortedView(sorts.subList(0, sorts.size() - 1));
+        String viewKey = viewKey(sorts);
+        View cached = views.get(viewKey);
+        if (cached != null && cached.count >= source.count) {
+            return cached;
+        }
+        LinkedList<Driver> list;
+        if (cached != null && cached.builtAt == source.builtAt) {
+            // The cached view is in this order, so the new drivers are merged into it
+            list = cached.list.extendedCopy(drivers(state.get(), cached.count, source.count), ExternalSorter.orderOf(sorts));
+        } else {
+            List<Command> flipped = new ArrayList<>(sorts);
+            flipped.set(sorts.size() - 1, sortCommand(last.getKey(), "dsc".equals(last.getOrder()) ? "asc" : "dsc"));
+            View opposite = views.get(viewKey(flipped));
+            list = (opposite != null && opposite.count == source.count ? opposite.list : source.list).copyNodes();
+            if ("name".equals(last.getKey())) {
+                list.sortByName(last.getOrder());
+            } else {
+                list.sortByArea(last.getOrder());
+            }
+        }
+        list.makeReadOnly();
+        return publish(viewKey, new View(source.count, source.builtAt, list));
+    }
+
+    /**
+     * Returns the cache key of the view in the order of the given sorts, e.g. "name asc, area dsc".
+     */
+    private static String viewKey(List<Command> sorts) {
+        StringBuilder key = new StringBuilder();
+        for (Command sort : sorts) {
+            key.append(key.length() == 0 ? "" : ", ").append(sort.getKey()).append(' ').append(sort.getOrder());
+        }
+        return key.toString();
+    }
+
+    /**
+     * Caches a view unless another thread already cached one with a larger count.
+     * @return The view now cached.
+     */
+    private View publish(String viewKey, View built) {
+        return views.merge(viewKey, built, (old, fresh) -> old.count >= fresh.count ? old : fresh);
+    }
+
+    /**
+     * Returns the drivers of a state between two positions, in the add order.
+     * @param current A state that counts at least the drivers up to the end position.
+     */
+    private static List<Driver> drivers(State current, int from, int to) {
+        List<Driver> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(current.log.get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+package deliverytracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Selects the first few drivers of an order without sorting the list.
+ * A bounded heap holds the best K drivers seen so far, so a pass over n drivers
+ * costs O(n log K) and leaves the list untouched.
+ */
+public class DriverSelection {
+    private final Comparator<Driver> order;
+    // Max-heap on (order, position): the root is the worst driver kept so far
+    private Driver[] drivers = new Driver[16];
+    private int[] positions = new int[16];
+    private int size;
+
+    private DriverSelection(Comparator<Driver> order) {
+        this.order = order;
+    }
+
+    /**
+     * Returns the first K drivers of the list in the given order.
+     * Drivers that tie keep their current order in the list, so the result is what the
+     * top of the list would show after a stable sort.
+     * @param driverList The list of drivers.
+     * @param k The number of drivers to select.
+     * @param order The order to select by.
+     * @return Up to K drivers, best first.
+     */
+    public static List<Driver> top(IndexedList<Driver> driverList, int k, Comparator<Driver> order) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        DriverSelection heap = new DriverSelection(order);
+        int position = 0;
+        for (Driver driver : driverList) {
+            if (heap.size < k) {
+                heap.push(driver, position);
+            } else if (order.compare(driver, heap.drivers[0]) < 0) {
+                // A later driver only displaces the root if it is strictly better, since it loses ties
+                heap.replaceRoot(driver, position);
+            }
+            position++;
+        }
+        Driver[] result = new Driver[heap.size];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.drivers[0];
+            heap.size--;
+            heap.replaceRoot(heap.drivers[heap.size], heap.positions[heap.size]);
+        }
+        return new ArrayList<>(Arrays.asList(result));
+    }
+
+    private void push(Driver driver, int position) {
+        if (size == drivers.length) {
+            drivers = Arrays.copyOf(drivers, 2 * size);
+            positions = Arrays.copyOf(positions, 2 * size);
+        }
+        int i = size++;
+        // Sift up
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compare(driver, position, parent) <= 0) {
+                break;
+            }
+            drivers[i] = drivers[parent];
+            positions[i] = positions[parent];
+            i = parent;
+        }
+        drivers[i] = driver;
+        positions[i] = position;
+    }
+
+    private void replaceRoot(Driver driver, int position) {
+        int i = 0;
+        // Sift down
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && compare(drivers[child + 1], positions[child + 1], child) > 0) {
+                child++;
+            }
+            if (compare(driver, position, child) >= 0) {
+                break;
+            }
+            drivers[i] = drivers[child];
+            positions[i] = positions[child];
+            i = child;
+        }
+        drivers[i] = driver;
+        positions[i] = position;
+    }
+
+    /**
+     * Compares a driver with the heap entry at the given slot, breaking ties by list position.
+     */
+    private int compare(Driver driver, int position, int slot) {
+        int comparison = order.compare(driver, drivers[slot]);
+        return comparison != 0 ? comparison : Integer.compare(position, positions[slot]);
+    }
+}
@@ -0,0 +1,257 @@
+package deliverytracker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * A compact binary snapshot of a parsed driver set, so startup can skip parsing the route
+ * file and recomputing every area.
+ *
+ * The file starts with a fixed header: magic, format version, flags, driver count, the size
+ * and modification time of the route file it was built from, the body length and a CRC32C of
+ * the body followed by the rest of the header, so a damaged count or flag is caught before any
+ * record is decoded. The body holds one record per driver in file order: the UTF-8 name length as
+ * an int, then, when the GEOMETRY flag is set, the vertex count as an int, the name bytes, the
+ * area as a double and, with the flag, the vertices as pairs of doubles (a count of 0 means the
+ * driver kept no geometry). Without the flag a record is only the name and the area.
+ * A snapshot is only used when its version is supported, its checksum matches and the route
+ * file has not changed since it was written.
+ */
+public class DriverSnapshot {
+    // "DTSN"
+    private static final int MAGIC = 0x4454534E;
+    // Bump whenever the layout changes; older readers then fall back to the route file
+    static final int VERSION = 3;
+    // Flag bit: records carry route vertices
+    static final int GEOMETRY = 1;
+    private static final int HEADER_SIZE = 48;
+    // The header fields the checksum covers: everything before the checksum itself
+    private static final int CHECKED_HEADER_SIZE = HEADER_SIZE - Long.BYTES;
+    // Bytes mapped at a time when reading the body
+    private static final int WINDOW = 1 << 28;
+
+    private DriverSnapshot() {
+    }
+
+    /**
+     * Writes the drivers to a snapshot of a route file.
+     * The snapshot is written to a temporary file first and then moved into place.
+     * The route file's size and modification time must be taken before it is parsed: if it grows
+     * while it is parsed, the snapshot is then marked as older than the file and is not used.
+     * @param snapshot The snapshot file to write.
+     * @param sourceSize The size of the route file before the drivers were read from it.
+     * @param sourceModified The modification time of the route file before the drivers were read from it, in milliseconds.
+     * @param driverList The drivers to write, in file order.
+     */
+    public static void write(Path snapshot, long sourceSize, long sourceModified, LinkedList<Driver> driverList) throws IOException {
+        write(snapshot, sourceSize, sourceModified, driverList, true);
+    }
+
+    /**
+     * Writes the drivers to a snapshot of a route file, with or without their route vertices.
+     * A snapshot without vertices is smaller and faster to load, but its drivers have no
+     * geometry, so covers finds none of them.
+     * @param snapshot The snapshot file to write.
+     * @param sourceSize The size of the route file before the drivers were read from it.
+     * @param sourceModified The modification time of the route file before the drivers were read from it, in milliseconds.
+     * @param driverList The drivers to write, in file order.
+     * @param withGeometry Whether to write the route vertices.
+     */
+    public static void write(Path snapshot, long sourceSize, long sourceModified, LinkedList<Driver> driverList,
+            boolean withGeometry) throws IOException {
+        Path directory = snapshot.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, snapshot.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+                CRC32C crc = new CRC32C();
+                long bodyLength = 0;
+                int count = 0;
+                channel.position(HEADER_SIZE);
+                for (Driver driver : driverList) {
+                    byte[] name = driver.getName().getBytes(StandardCharsets.UTF_8);
+                    RouteGeometry geometry = withGeometry ? driver.getGeometry() : null;
+                    double[] vertices = geometry == null ? new double[0] : geometry.coordinates();
+                    int recordLength = (withGeometry ? 2 : 1) * Integer.BYTES + name.length + Double.BYTES
+                            + vertices.length * Double.BYTES;
+                    if (buffer.remaining() < recordLength) {
+                        bodyLength += flush(channel, buffer, crc);
+                        if (buffer.capacity() < recordLength) {
+                            buffer = ByteBuffer.allocateDirect(recordLength).order(ByteOrder.LITTLE_ENDIAN);
+                        }
+                    }
+                    buffer.putInt(name.length);
+                    if (withGeometry) {
+                        buffer.putInt(vertices.length / 2);
+                    }
+                    buffer.put(name).putDouble(driver.getArea());
+                    for (double coordinate : vertices) {
+                        buffer.putDouble(coordinate);
+                    }
+                    count++;
+                }
+                bodyLength += flush(channel, buffer, crc);
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(withGeometry ? GEOMETRY : 0).putInt(count)
+                        .putLong(sourceSize)
+                        .putLong(sourceModified)
+                        .putLong(bodyLength);
+                crc.update(header.array(), 0, CHECKED_HEADER_SIZE);
+                header.putLong(crc.getValue()).flip();
+                channel.write(header, 0);
+                channel.force(false);
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Loads the drivers from a snapshot into the list, if the snapshot is usable.
+     * Nothing is added unless the whole snapshot is valid.
+     * @param snapshot The snapshot file to read.
+     * @param source The route file the snapshot should have been built from.
+     * @param driverList The linked list to populate with Driver objects.
+     * @return True if the drivers were loaded; false if the snapshot is missing, stale,
+     * from another format version or corrupt.
+     */
+    public static boolean read(Path snapshot, Path source, LinkedList<Driver> driverList) throws IOException {
+        return read(snapshot, source, driverList, true);
+    }
+
+    /**
+     * Loads the drivers from a snapshot into the list, if the snapshot is usable and holds
+     * route vertices exactly when they are wanted.
+     * Nothing is added unless the whole snapshot is valid.
+     * @param snapshot The snapshot file to read.
+     * @param source The route file the snapshot should have been built from.
+     * @param driverList The linked list to populate with Driver objects.
+     * @param withGeometry Whether the snapshot should hold route vertices.
+     * @return True if the drivers were loaded; false if the snapshot is missing, stale,
+     * from another format version, corrupt, or written with the other geometry setting.
+     */
+    public static boolean read(Path snapshot, Path source, LinkedList<Driver> driverList, boolean withGeometry)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return false;
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return false;
+            }
+            int flags = header.getInt();
+            int count = header.getInt();
+            long sourceSize = header.getLong();
+            long sourceModified = header.getLong();
+            long bodyLength = header.getLong();
+            long checksum = header.getLong();
+            if (sourceSize != Files.size(source) || sourceModified != Files.getLastModifiedTime(source).toMillis()) {
+                return false; // The route file changed since the snapshot was written
+            }
+            if (((flags & GEOMETRY) != 0) != withGeometry) {
+                return false; // Rewritten with the geometry setting asked for
+            }
+            if (channel.size() != HEADER_SIZE + bodyLength || checksum(channel, header, bodyLength) != checksum) {
+                System.err.println("Warning: snapshot " + snapshot + " is corrupt; reading the route file instead.");
+                return false;
+            }
+            readRecords(channel, bodyLength, count, withGeometry, driverList);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes out the buffered bytes and adds them to the checksum.
+     * @return The number of bytes written.
+     */
+    private static int flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return length;
+    }
+
+    /**
+     * Computes the checksum of the body followed by the checked header fields.
+     */
+    private static long checksum(FileChannel channel, ByteBuffer header, long bodyLength) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long position = 0; position < bodyLength; position += WINDOW) {
+            long length = Math.min(WINDOW, bodyLength - position);
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + position, length));
+        }
+        crc.update(header.duplicate().position(0).limit(CHECKED_HEADER_SIZE));
+        return crc.getValue();
+    }
+
+    /**
+     * Decodes the driver records from the mapped body, remapping whenever a record would
+     * cross the end of the current window.
+     */
+    private static void readRecords(FileChannel channel, long bodyLength, int count, boolean withGeometry,
+            LinkedList<Driver> driverList) throws IOException {
+        long windowStart = HEADER_SIZE;
+        long end = HEADER_SIZE + bodyLength;
+        ByteBuffer window = map(channel, windowStart, end, 0);
+        byte[] name = new byte[64];
+        for (int i = 0; i < count; i++) {
+            int recordLength = window.remaining() < 2 * Integer.BYTES ? -1 : recordLength(window, withGeometry);
+            if (recordLength < 0 || window.remaining() < recordLength) {
+                windowStart += window.position();
+                window = map(channel, windowStart, end, 2 * Integer.BYTES);
+                window = map(channel, windowStart, end, recordLength(window, withGeometry));
+            }
+            int length = window.getInt();
+            int vertexCount = withGeometry ? window.getInt() : 0;
+            if (length > name.length) {
+                name = new byte[Math.max(length, 2 * name.length)];
+            }
+            window.get(name, 0, length);
+            double area = window.getDouble();
+            RouteGeometry geometry = null;
+            if (vertexCount > 0) {
+                double[] coordinates = new double[2 * vertexCount];
+                window.asDoubleBuffer().get(coordinates);
+                window.position(window.position() + coordinates.length * Double.BYTES);
+                geometry = new RouteGeometry(coordinates);
+            }
+            driverList.add(new Driver(new String(name, 0, length, StandardCharsets.UTF_8), area, geometry));
+        }
+    }
+
+    /**
+     * Returns the length of the record at the window's position.
+     */
+    private static int recordLength(ByteBuffer window, boolean withGeometry) {
+        int position = window.position();
+        if (!withGeometry) {
+            return Integer.BYTES + window.getInt(position) + Double.BYTES;
+        }
+        return 2 * Integer.BYTES + window.getInt(position) + Double.BYTES + 2 * Double.BYTES * window.getInt(position + Integer.BYTES);
+    }
+
+    /**
+     * Maps the body from start, at least minimum bytes even when a record is larger than a window.
+     */
+    private static ByteBuffer map(FileChannel channel, long start, long end, int minimum) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(Math.max(WINDOW, minimum), end - start)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
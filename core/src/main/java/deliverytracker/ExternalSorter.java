@@ -0,0 +1,297 @@
+package deliverytracker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Sorts more drivers than fit in the heap.
+ *
+ * Drivers are collected until their estimated size reaches the memory budget, then sorted and
+ * spilled to a temporary file as a run of compact binary records: [int name length][UTF-8 name]
+ * [double area]. At the end the runs are merged with a heap holding one record per run and
+ * streamed to the output in the same format as Main.displayDriverList. When there are more runs
+ * than the budget has read buffers for, groups of neighbouring runs are merged first.
+ *
+ * The order is the one a LinkedList reaches after the same sorts: each run is sorted stably and
+ * the heap breaks ties by run number, so drivers that tie keep their file order.
+ */
+public class ExternalSorter implements RouteFileParser.RouteSink, Closeable {
+    // Read and write buffer per run file
+    static final int BUFFER_SIZE = 1 << 16;
+    // Rough heap cost of a Driver in a run, beyond its name's characters: the Driver, its String and array headers, the list slot
+    private static final int DRIVER_OVERHEAD = 96;
+
+    private final Comparator<Driver> order;
+    private final long memoryBudget;
+    private final Path directory;
+    // The drivers of the run being collected, in file order
+    private final List<Driver> buffer = new ArrayList<>();
+    private long bufferedBytes;
+    // The spilled runs, in file order
+    private final List<Path> runs = new ArrayList<>();
+
+    /**
+     * Constructs a sorter that spills to a new temporary directory.
+     * @param order The order to write the drivers in; drivers it ranks equal keep their file order.
+     * @param memoryBudget The number of heap bytes the collected drivers and read buffers may use.
+     */
+    public ExternalSorter(Comparator<Driver> order, long memoryBudget) throws IOException {
+        this.order = order;
+        this.memoryBudget = Math.max(memoryBudget, 4L * BUFFER_SIZE);
+        this.directory = Files.createTempDirectory("deliverytracker-sort");
+    }
+
+    /**
+     * Returns the order a list ends up in after running the given sorts one after another.
+     * The sorts are stable, so the last sort decides, earlier sorts on other keys break its ties,
+     * and any remaining ties keep the list order.
+     * @param sorts The sort commands, in the order they run.
+     * @return The combined order.
+     */
+    public static Comparator<Driver> orderOf(List<Command> sorts) {
+        Comparator<Driver> combined = (a, b) -> 0;
+        Set<String> keys = new HashSet<>();
+        for (int i = sorts.size() - 1; i >= 0; i--) {
+            Command sort = sorts.get(i);
+            if (keys.add(sort.getKey())) {
+                Comparator<Driver> key = "name".equals(sort.getKey()) ? Driver.BY_NAME : Driver.BY_AREA;
+                combined = combined.thenComparing("dsc".equals(sort.getOrder()) ? key.reversed() : key);
+            }
+        }
+        return combined;
+    }
+
+    /**
+     * Adds a driver, spilling the collected drivers to a run when they reach the budget.
+     * @param name The driver's name.
+     * @param area The area of the driver's route.
+     */
+    @Override
+    public void accept(String name, double area) {
+        buffer.add(new Driver(name, area));
+        bufferedBytes += DRIVER_OVERHEAD + 2L * name.length();
+        if (bufferedBytes >= memoryBudget) {
+            try {
+                runs.add(spill(buffer));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+            bufferedBytes = 0;
+        }
+    }
+
+    /**
+     * Reads a route file into the sorter.
+     * @param path The route file.
+     * @return The number of rejected routes.
+     */
+    public long read(Path path) throws IOException {
+        // No geometry cache: the drivers are all the heap this mode may hold
+        RouteFileParser parser = new RouteFileParser(this, null);
+        try {
+            parser.parse(path);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return parser.getRejectedCount();
+    }
+
+    /**
+     * Returns the number of runs spilled to disk so far.
+     * @return The number of runs.
+     */
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Writes every driver added so far in sorted order, one per line.
+     * @param out Where to write the drivers.
+     */
+    public void writeSorted(Appendable out) throws IOException {
+        String newline = System.lineSeparator();
+        if (runs.isEmpty()) {
+            // Everything fit in the budget
+            buffer.sort(order);
+            for (Driver driver : buffer) {
+                out.append(driver.toString()).append(newline);
+            }
+            return;
+        }
+        if (!buffer.isEmpty()) {
+            runs.add(spill(buffer));
+            buffer.clear();
+            bufferedBytes = 0;
+        }
+        int fanIn = (int) Math.max(2, Math.min(Integer.MAX_VALUE, memoryBudget / BUFFER_SIZE / 2));
+        List<Path> remaining = runs;
+        while (remaining.size() > fanIn) {
+            List<Path> merged = new ArrayList<>();
+            for (int i = 0; i < remaining.size(); i += fanIn) {
+                List<Path> group = remaining.subList(i, Math.min(remaining.size(), i + fanIn));
+                if (group.size() == 1) {
+                    merged.add(group.get(0));
+                    continue;
+                }
+                Path run = Files.createTempFile(directory, "run", ".bin");
+                try (DataOutputStream runOut = openRun(run)) {
+                    merge(group, driver -> writeRecord(runOut, driver));
+                }
+                for (Path done : group) {
+                    Files.delete(done);
+                }
+                merged.add(run);
+            }
+            remaining = merged;
+        }
+        if (remaining != runs) {
+            runs.clear();
+            runs.addAll(remaining);
+        }
+        merge(runs, driver -> out.append(driver.toString()).append(newline));
+    }
+
+    /**
+     * Deletes the run files and the temporary directory.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+        // Intermediate runs left behind by a merge that failed
+        File[] leftovers = directory.toFile().listFiles();
+        if (leftovers != null) {
+            for (File leftover : leftovers) {
+                Files.deleteIfExists(leftover.toPath());
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Receives the merged drivers in order.
+     */
+    private interface DriverWriter {
+        void write(Driver driver) throws IOException;
+    }
+
+    /**
+     * The next unread record of one run.
+     */
+    private static final class RunCursor {
+        private final DataInputStream in;
+        // The run's position in the merge, which breaks ties so equal drivers keep file order
+        private final int rank;
+        private Driver current;
+
+        RunCursor(DataInputStream in, int rank) {
+            this.in = in;
+            this.rank = rank;
+        }
+
+        /**
+         * Reads the next record into current.
+         * @return False at the end of the run.
+         */
+        boolean advance() throws IOException {
+            current = readRecord(in);
+            return current != null;
+        }
+    }
+
+    /**
+     * Merges sorted runs and hands each driver to the writer in order.
+     * @param group The runs, in file order.
+     * @param writer The receiver of the merged drivers.
+     */
+    private void merge(List<Path> group, DriverWriter writer) throws IOException {
+        PriorityQueue<RunCursor> heap = new PriorityQueue<>(Math.max(1, group.size()),
+                (a, b) -> {
+                    int compared = order.compare(a.current, b.current);
+                    return compared != 0 ? compared : Integer.compare(a.rank, b.rank);
+                });
+        List<RunCursor> cursors = new ArrayList<>();
+        try {
+            for (int i = 0; i < group.size(); i++) {
+                RunCursor cursor = new RunCursor(new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(group.get(i)), BUFFER_SIZE)), i);
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+            while (!heap.isEmpty()) {
+                RunCursor smallest = heap.poll();
+                writer.write(smallest.current);
+                if (smallest.advance()) {
+                    heap.add(smallest);
+                }
+            }
+        } finally {
+            for (RunCursor cursor : cursors) {
+                cursor.in.close();
+            }
+        }
+    }
+
+    /**
+     * Sorts the drivers and writes them to a new run file.
+     * @return The run file.
+     */
+    private Path spill(List<Driver> drivers) throws IOException {
+        drivers.sort(order); // Stable, so ties keep file order within the run
+        Path run = Files.createTempFile(directory, "run", ".bin");
+        try (DataOutputStream out = openRun(run)) {
+            for (Driver driver : drivers) {
+                writeRecord(out, driver);
+            }
+        }
+        return run;
+    }
+
+    private static DataOutputStream openRun(Path run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), BUFFER_SIZE));
+    }
+
+    private static void writeRecord(DataOutputStream out, Driver driver) throws IOException {
+        byte[] name = driver.getName().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(name.length);
+        out.write(name);
+        out.writeDouble(driver.getArea());
+    }
+
+    /**
+     * Reads one record.
+     * @return The driver, or null at the end of the run.
+     */
+    private static Driver readRecord(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        byte[] name = new byte[length];
+        in.readFully(name);
+        return new Driver(new String(name, StandardCharsets.UTF_8), in.readDouble());
+    }
+}
@@ -0,0 +1,154 @@
+package deliverytracker;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of route polygons keyed by their vertices, so drivers with identical routes
+ * share one immutable RouteGeometry and skip recalculating its area.
+ *
+ * Entries are found by a 64-bit hash of the vertex sequence and then compared vertex by vertex,
+ * so a hash collision is treated as a miss rather than returning another route. Vertices compare
+ * with ==, which makes 0.0 and -0.0 the same vertex; the hash normalizes them to match.
+ *
+ * A cache is thread-safe, so the parsers of one parallel read can share it. The routes are
+ * split by hash over segments, each with its own lock, its own share of the capacity and its
+ * own least-recently-used order; when a segment is full, its least recently used route is
+ * evicted. A cache with one segment is an exact LRU cache.
+ */
+public class GeometryCache {
+    /** Capacity of the cache every parser gets, from the deliverytracker.routeCache system property; 0 turns caching off. */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("deliverytracker.routeCache", 1 << 16);
+
+    // Routes by hash, split over a power-of-two number of segments
+    private final LinkedHashMap<Long, Route>[] segments;
+
+    /**
+     * A cached route: the shared geometry and its area.
+     */
+    public static final class Route {
+        private final RouteGeometry geometry;
+        private final double area;
+
+        Route(RouteGeometry geometry, double area) {
+            this.geometry = geometry;
+            this.area = area;
+        }
+
+        public RouteGeometry getGeometry() {
+            return geometry;
+        }
+
+        public double getArea() {
+            return area;
+        }
+    }
+
+    /**
+     * Constructs an empty cache with one segment, for a single parser.
+     * @param capacity The largest number of routes to keep.
+     */
+    public GeometryCache(int capacity) {
+        this(capacity, 1);
+    }
+
+    /**
+     * Constructs an empty cache for several threads to share.
+     * @param capacity The largest number of routes to keep.
+     * @param concurrency The number of threads expected to use the cache at once; the number of
+     *                    segments is the next power of two, but no more than the capacity.
+     */
+    @SuppressWarnings("unchecked")
+    public GeometryCache(int capacity, int concurrency) {
+        int count = Integer.highestOneBit(Math.max(1, Math.min(concurrency, capacity)) * 2 - 1);
+        int segmentCapacity = (capacity + count - 1) / count;
+        segments = new LinkedHashMap[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Route> eldest) {
+                    return size() > segmentCapacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * Returns the cached route with these vertices, or computes and caches it.
+     * @param xs The x coordinates of the vertices.
+     * @param ys The y coordinates of the vertices.
+     * @param count The number of vertices.
+     * @return The shared route.
+     */
+    public Route intern(double[] xs, double[] ys, int count) {
+        long hash = hash(xs, ys, count);
+        // The low bits pick the segment; the map spreads the rest
+        LinkedHashMap<Long, Route> routes = segments[(int) hash & (segments.length - 1)];
+        Route cached;
+        synchronized (routes) {
+            cached = routes.get(hash);
+        }
+        if (cached != null && sameVertices(cached.geometry, xs, ys, count)) {
+            if (Metrics.ENABLED) {
+                Metrics.ROUTE_CACHE_HITS.increment();
+            }
+            return cached;
+        }
+        // Computed outside the lock; on a collision the newer route takes the slot
+        Route route = new Route(new RouteGeometry(xs, ys, count), PolygonArea.area(xs, ys, count));
+        synchronized (routes) {
+            cached = routes.get(hash);
+            if (cached != null && sameVertices(cached.geometry, xs, ys, count)) {
+                return cached; // Another thread cached the same route meanwhile
+            }
+            routes.put(hash, route);
+        }
+        return route;
+    }
+
+    /**
+     * Returns the number of cached routes.
+     * @return The number of routes.
+     */
+    public int size() {
+        int size = 0;
+        for (LinkedHashMap<Long, Route> routes : segments) {
+            synchronized (routes) {
+                size += routes.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Hashes the vertex sequence, counting -0.0 as 0.0.
+     * Multiplying only carries bits upwards, and whole-number coordinates have no low mantissa
+     * bits, so the result is finished with a full avalanche: otherwise the low bits that pick
+     * the segment would be the same for most routes.
+     */
+    private static long hash(double[] xs, double[] ys, int count) {
+        long hash = count;
+        for (int i = 0; i < count; i++) {
+            hash = (hash ^ Double.doubleToLongBits(xs[i] + 0.0)) * 0x9E3779B97F4A7C15L;
+            hash = (hash ^ Double.doubleToLongBits(ys[i] + 0.0)) * 0x9E3779B97F4A7C15L;
+        }
+        // The 64-bit finalizer of MurmurHash3
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static boolean sameVertices(RouteGeometry geometry, double[] xs, double[] ys, int count) {
+        if (geometry.getVertexCount() != count) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (geometry.getX(i) != xs[i] || geometry.getY(i) != ys[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
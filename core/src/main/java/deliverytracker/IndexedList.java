@@ -0,0 +1,533 @@
+package deliverytracker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The indexes, searches and sort bookkeeping of LinkedList, kept apart from how it stores
+ * its payloads.
+ *
+ * A subclass keeps the payloads in its own structure and provides the three ways to reorder
+ * it: a stable comparison sort, a radix sort of Driver payloads and a reversal. Everything
+ * else is done here: the name, prefix, area and spatial indexes and their searches, and
+ * remembering the current sort so that repeating it is a no-op and flipping its order only
+ * reverses the list.
+ *
+ * A list extended from a read-only list does not copy that list's indexes. It keeps them as a
+ * base, shared with the other list, and indexes only the payloads added to it in its own
+ * indexes. Every search consults the base first and then the list's own indexes, and combines
+ * the two answers in the order a single index would give.
+ * @param <T> The type of the payloads; the indexes and Driver sorts only apply to Drivers.
+ */
+public abstract class IndexedList<T extends Comparable<T>> implements Iterable<T> {
+    // The order of the name trie's prefix matches
+    private static final Comparator<Driver> BY_NAME_KEY = Comparator.comparing(driver -> LinkedList.nameKey(driver.getName()));
+
+    // Drivers keyed by case-folded, trimmed name, in insertion order; survives reordering by the sorts.
+    // Replaced only when an empty list takes over another list's indexes.
+    private Map<String, List<Driver>> nameIndex;
+    // Drivers sorted by area for range and nearest queries
+    private AreaIndex areaIndex;
+    // Drivers by case-folded name, for prefix searches
+    private NameTrie nameTrie;
+    // R-tree over the route polygons of drivers that kept their geometry
+    private SpatialIndex spatialIndex;
+    // Merged indexes of the payloads added before this list's own, shared and never changed; null if none
+    private Base base;
+    // Key the list is currently sorted by ("name" or "area"), or null if unknown; add() clears it
+    private String sortedBy;
+    // Whether the list is sorted by sortedBy in descending order
+    private boolean sortedDescending;
+    // Whether the indexes are shared with another list, which makes adding to either list unsafe
+    private boolean indexesShared;
+    // Whether adds and sorts are refused, so the list can be handed to other threads as it is
+    private boolean readOnly;
+
+    /**
+     * The merged indexes of a read-only list, kept as the base of the lists extended from it.
+     */
+    private static final class Base {
+        final Map<String, List<Driver>> nameIndex;
+        final AreaIndex areaIndex;
+        final NameTrie nameTrie;
+        final SpatialIndex spatialIndex;
+
+        Base(IndexedList<?> readOnly) {
+            nameIndex = readOnly.nameIndex;
+            areaIndex = readOnly.areaIndex;
+            nameTrie = readOnly.nameTrie;
+            spatialIndex = readOnly.spatialIndex;
+        }
+    }
+
+    /**
+     * Constructs a list with empty indexes.
+     */
+    protected IndexedList() {
+        nameIndex = new HashMap<>();
+        areaIndex = new AreaIndex();
+        nameTrie = new NameTrie();
+        spatialIndex = new SpatialIndex();
+    }
+
+    /**
+     * Constructs a list with the indexes and sort state of another list, either copied or shared.
+     * Copies are made rather than rebuilt, so this runs in O(n) without hashing a name or
+     * comparing an area. The subclass copies the payloads themselves.
+     * @param other The list to copy.
+     * @param shareIndexes Whether to share the other list's indexes instead of copying them.
+     */
+    protected IndexedList(IndexedList<T> other, boolean shareIndexes) {
+        sortedBy = other.sortedBy;
+        sortedDescending = other.sortedDescending;
+        base = other.base; // Never changed, so a copy can share it
+        if (shareIndexes) {
+            nameIndex = other.nameIndex;
+            areaIndex = other.areaIndex;
+            nameTrie = other.nameTrie;
+            spatialIndex = other.spatialIndex;
+            indexesShared = true;
+            // A read-only list already refuses adds, and may be read by other threads
+            if (!other.readOnly) {
+                other.indexesShared = true;
+            }
+            return;
+        }
+        copyIndexes(other);
+    }
+
+    private void copyIndexes(IndexedList<T> other) {
+        nameIndex = new HashMap<>();
+        for (Map.Entry<String, List<Driver>> entry : other.nameIndex.entrySet()) {
+            nameIndex.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        areaIndex = new AreaIndex(other.areaIndex);
+        nameTrie = new NameTrie(other.nameTrie);
+        spatialIndex = new SpatialIndex(other.spatialIndex);
+    }
+
+    /**
+     * Starts this empty list's indexes and sort state from a read-only list whose payloads the
+     * subclass is about to copy, without copying that list's indexes: they become this list's
+     * base. If the other list is itself extended, its base is shared and only its own indexes
+     * are copied, so there is never more than one base.
+     * @param readOnly The list being extended.
+     * @throws IllegalStateException If the other list is not read-only.
+     */
+    protected void extendIndexes(IndexedList<T> readOnly) {
+        if (!readOnly.readOnly) {
+            throw new IllegalStateException("Only a read-only list can be extended");
+        }
+        sortedBy = readOnly.sortedBy;
+        sortedDescending = readOnly.sortedDescending;
+        if (readOnly.base == null) {
+            base = new Base(readOnly);
+        } else {
+            base = readOnly.base;
+            copyIndexes(readOnly);
+        }
+    }
+
+    /**
+     * Returns the number of elements in the list, in constant time.
+     * @return The number of elements.
+     */
+    public abstract int size();
+
+    /**
+     * Adds a payload to the end of the list.
+     * @param data The data to add.
+     */
+    public abstract void add(T data);
+
+    /**
+     * Sorts the list with a stable sort of its payloads.
+     * @param comparator The comparator that determines the order of the payloads.
+     */
+    public abstract void sort(Comparator<? super T> comparator);
+
+    /**
+     * Sorts a list of drivers with RadixSort, giving the same order as a stable comparison sort.
+     * @param key "name" or "area".
+     * @param descending Whether to sort in descending order.
+     */
+    protected abstract void radixSort(String key, boolean descending);
+
+    /**
+     * Reverses the list, then restores the original order within each run of equal keys,
+     * so the result matches a stable sort in the opposite direction.
+     * @param comparator The comparator for the key the list is sorted by.
+     */
+    protected abstract void reverse(Comparator<? super T> comparator);
+
+    /**
+     * Sorts the list of Driver objects by name.
+     * Uses a stable comparison sort with a name comparator. Repeating the current sort is a
+     * no-op, and flipping its order reverses the list in O(n).
+     * @param order Determines if the list should be sorted in ascending or descending order.
+     */
+    public void sortByName(String order) {
+        sortByKey("name", Driver.BY_NAME, order, false);
+    }
+
+    /**
+     * Sorts the list of Driver objects by area.
+     * Uses a stable comparison sort with an area comparator. Repeating the current sort is a
+     * no-op, and flipping its order reverses the list in O(n).
+     * @param order Determines if the list should be sorted in ascending or descending order.
+     */
+    public void sortByArea(String order) {
+        sortByKey("area", Driver.BY_AREA, order, false);
+    }
+
+    /**
+     * Sorts the list of Driver objects by name with a radix sort on primitive keys.
+     * Gives the same order as sortByName and is faster on large lists; see RadixSort.
+     * @param order Determines if the list should be sorted in ascending or descending order.
+     */
+    public void radixSortByName(String order) {
+        sortByKey("name", Driver.BY_NAME, order, true);
+    }
+
+    /**
+     * Sorts the list of Driver objects by area with a radix sort on primitive keys.
+     * Gives the same order as sortByArea and is faster on large lists; see RadixSort.
+     * @param order Determines if the list should be sorted in ascending or descending order.
+     */
+    public void radixSortByArea(String order) {
+        sortByKey("area", Driver.BY_AREA, order, true);
+    }
+
+    /**
+     * Sorts the list in ascending order of the payloads' natural ordering.
+     */
+    public void sortAscending() {
+        sort(Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts the list in descending order of the payloads' natural ordering.
+     */
+    public void sortDescending() {
+        sort(Comparator.reverseOrder());
+    }
+
+    /**
+     * Sorts the list by a Driver key, reusing the order the list is already in when possible.
+     * @param key The name of the key, used to remember the current sort.
+     * @param comparator The ascending comparator for the key.
+     * @param order "dsc" for descending order, anything else for ascending.
+     * @param radix Whether a full sort uses RadixSort instead of the comparison sort.
+     */
+    private void sortByKey(String key, Comparator<Driver> comparator, String order, boolean radix) {
+        checkWritable();
+        if (!Metrics.ENABLED) {
+            sortByKeyUninstrumented(key, comparator, order, radix);
+            return;
+        }
+        PipelineEvents.Sort event = new PipelineEvents.Sort();
+        event.begin();
+        long start = System.nanoTime();
+        sortByKeyUninstrumented(key, comparator, order, radix);
+        Metrics.SORT.record(System.nanoTime() - start);
+        event.key = key;
+        event.order = order;
+        event.commit();
+    }
+
+    private void sortByKeyUninstrumented(String key, Comparator<Driver> comparator, String order, boolean radix) {
+        boolean descending = "dsc".equalsIgnoreCase(order);
+        if (!key.equals(sortedBy)) {
+            if (radix) {
+                sortedBy = null;
+                radixSort(key, descending);
+            } else {
+                sort(orderedBy(comparator, order));
+            }
+        } else if (descending != sortedDescending) {
+            reverse(orderedBy(comparator, "asc"));
+        }
+        sortedBy = key;
+        sortedDescending = descending;
+    }
+
+    /**
+     * Returns whether the list is known to be sorted by a Driver key in the given order,
+     * in which case sorting it that way again is a no-op.
+     * @param key "name" or "area".
+     * @param order "dsc" for descending order, anything else for ascending.
+     * @return True if the last sort was on that key and order and nothing was added since.
+     */
+    public boolean isSortedBy(String key, String order) {
+        return key.equals(sortedBy) && sortedDescending == "dsc".equalsIgnoreCase(order);
+    }
+
+    /**
+     * Returns the comparator the list is currently sorted by, so a subclass can add a batch
+     * without losing the order.
+     * @return The comparator, or null if the list is not known to be sorted by a Driver key.
+     */
+    protected Comparator<T> currentOrder() {
+        if (sortedBy == null) {
+            return null;
+        }
+        return orderedBy("name".equals(sortedBy) ? Driver.BY_NAME : Driver.BY_AREA, sortedDescending ? "dsc" : "asc");
+    }
+
+    /**
+     * Forgets the current sort; called by every add that appends out of order and every
+     * sort that is not on a Driver key.
+     */
+    protected void forgetOrder() {
+        sortedBy = null;
+    }
+
+    /**
+     * Adapts a Driver comparator to this list's payload type and the requested order.
+     * @param comparator The ascending Driver comparator.
+     * @param order "dsc" for descending order, anything else for ascending.
+     * @return The comparator to sort this list with.
+     */
+    @SuppressWarnings("unchecked")
+    protected Comparator<T> orderedBy(Comparator<Driver> comparator, String order) {
+        Comparator<T> ascending = (Comparator<T>) comparator;
+        return "dsc".equalsIgnoreCase(order) ? ascending.reversed() : ascending;
+    }
+
+    /**
+     * Makes the list read-only: every later add or sort throws UnsupportedOperationException.
+     * The indexes are merged first, so searches on the list only read and the list can be
+     * searched from any number of threads. A copy of a read-only list can be sorted again.
+     */
+    public void makeReadOnly() {
+        mergeIndexes();
+        readOnly = true;
+    }
+
+    /**
+     * Returns whether the list refuses adds and sorts.
+     * @return True once makeReadOnly has been called.
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Throws if the list is read-only; called before every add and sort.
+     */
+    protected void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("This list is read-only");
+        }
+    }
+
+    /**
+     * Throws if the list is read-only or its indexes are shared with another list; called
+     * before every add.
+     */
+    protected void checkIndexesOwned() {
+        checkWritable();
+        if (indexesShared) {
+            throw new IllegalStateException("This list shares its indexes with a copy and cannot be added to");
+        }
+    }
+
+    /**
+     * Adds a payload to the name, area, prefix and spatial indexes if it is a Driver.
+     * @param data The payload that was added to the list.
+     */
+    protected void index(T data) {
+        if (data instanceof Driver) {
+            Driver driver = (Driver) data;
+            nameIndex.computeIfAbsent(LinkedList.nameKey(driver.getName()), key -> new ArrayList<>(1)).add(driver);
+            areaIndex.add(driver);
+            nameTrie.add(driver);
+            spatialIndex.add(driver);
+        }
+    }
+
+    /**
+     * Adds another list's indexes to this list's, with the same result as indexing its payloads
+     * one by one after this list's. Each index is merged as a whole instead, and taken over
+     * when this list's is empty. The other list must not be used afterwards.
+     * @param other The list whose payloads are being moved to the end of this list.
+     */
+    protected void indexAll(IndexedList<T> other) {
+        if (other.base != null) {
+            throw new IllegalStateException("The indexes of an extended list cannot be moved");
+        }
+        if (nameIndex.isEmpty()) {
+            nameIndex = other.nameIndex;
+        } else {
+            for (Map.Entry<String, List<Driver>> entry : other.nameIndex.entrySet()) {
+                nameIndex.merge(entry.getKey(), entry.getValue(), (mine, theirs) -> {
+                    mine.addAll(theirs);
+                    return mine;
+                });
+            }
+        }
+        areaIndex.addAll(other.areaIndex);
+        nameTrie.addAll(other.nameTrie);
+        spatialIndex.addAll(other.spatialIndex);
+    }
+
+    /**
+     * Brings the lazily maintained indexes up to date, so that searches only read from them.
+     * Call this before sharing the list with threads that search it concurrently.
+     */
+    public void mergeIndexes() {
+        areaIndex.merge();
+        spatialIndex.build();
+    }
+
+    /**
+     * Searches for a Driver in the list by the provided name.
+     * The lookup ignores case and surrounding whitespace and runs in constant time.
+     * @param nameToSearch The name of the driver to search for.
+     * @return The first Driver added under that name, or null if not found.
+     */
+    public Driver searchByName(String nameToSearch) {
+        List<Driver> matches = searchAllByName(nameToSearch);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * Searches for every Driver in the list with the provided name.
+     * The lookup ignores case and surrounding whitespace and runs in constant time.
+     * @param nameToSearch The name of the drivers to search for.
+     * @return The matching drivers in the order they were added, or an empty list if none match.
+     */
+    public List<Driver> searchAllByName(String nameToSearch) {
+        String key = LinkedList.nameKey(nameToSearch);
+        List<Driver> matches = nameIndex.get(key);
+        List<Driver> earlier = base == null ? null : base.nameIndex.get(key);
+        if (earlier != null) {
+            matches = matches == null ? earlier : concat(earlier, matches);
+        }
+        return matches == null ? Collections.emptyList() : Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Searches for the Drivers whose name starts with the given text, using the name trie.
+     * Runs in O(prefix length + results).
+     * @param prefix The text names must start with; case and surrounding whitespace are ignored.
+     * @param limit The largest number of drivers to return.
+     * @return Up to limit matching drivers in order of their case-folded names; drivers with the
+     * same name keep the order they were added in.
+     */
+    public List<Driver> searchByPrefix(String prefix, int limit) {
+        if (base == null) {
+            return nameTrie.prefix(prefix, limit);
+        }
+        List<Driver> merged = merge(base.nameTrie.prefix(prefix, limit), nameTrie.prefix(prefix, limit), BY_NAME_KEY);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * Searches for the Drivers whose route polygon contains the given point.
+     * Only drivers that kept their route geometry can match. The R-tree narrows the search to
+     * routes whose bounding box holds the point before the exact point-in-polygon test.
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     * @return The covering drivers in the order they were added.
+     */
+    public List<Driver> searchCovering(double x, double y) {
+        if (base == null) {
+            return spatialIndex.covering(x, y);
+        }
+        return concat(base.spatialIndex.covering(x, y), spatialIndex.covering(x, y));
+    }
+
+    /**
+     * Searches for every Driver whose route area lies in the given range.
+     * Runs in O(log n + k) for k matches using the area index.
+     * @param min The smallest area to include.
+     * @param max The largest area to include.
+     * @return The matching drivers in ascending order of area; ties keep the order they were added in.
+     */
+    public List<Driver> searchByAreaRange(double min, double max) {
+        if (base == null) {
+            return areaIndex.range(min, max);
+        }
+        return merge(base.areaIndex.range(min, max), areaIndex.range(min, max), Driver.BY_AREA);
+    }
+
+    /**
+     * Counts the Drivers whose route area lies in the given range.
+     * Runs in O(log n) using the area index.
+     * @param min The smallest area to include.
+     * @param max The largest area to include.
+     * @return The number of matching drivers.
+     */
+    public int countByAreaRange(double min, double max) {
+        return areaIndex.count(min, max) + (base == null ? 0 : base.areaIndex.count(min, max));
+    }
+
+    /**
+     * Searches for the Drivers whose route area is closest to the given value.
+     * @param area The area to search near.
+     * @return The closest drivers, more than one if they tie, or an empty list if the list is empty.
+     */
+    public List<Driver> searchNearestArea(double area) {
+        if (base == null) {
+            return areaIndex.nearest(area);
+        }
+        List<Driver> earlier = base.areaIndex.nearest(area);
+        List<Driver> later = areaIndex.nearest(area);
+        if (earlier.isEmpty() || later.isEmpty()) {
+            return earlier.isEmpty() ? later : earlier;
+        }
+        double earlierDistance = Math.abs(earlier.get(0).getArea() - area);
+        double laterDistance = Math.abs(later.get(0).getArea() - area);
+        if (earlierDistance != laterDistance) {
+            return earlierDistance < laterDistance ? earlier : later;
+        }
+        return merge(earlier, later, Driver.BY_AREA);
+    }
+
+    /**
+     * Returns the Driver at the given percentile of route area, using the nearest-rank method.
+     * Answered from the area index without sorting or reordering the list.
+     * @param percentile The percentile, from 0 to 100.
+     * @return The driver at that percentile, or null if the list is empty.
+     */
+    public Driver searchByAreaPercentile(double percentile) {
+        if (base == null) {
+            return areaIndex.percentile(percentile);
+        }
+        return AreaIndex.percentile(base.areaIndex, areaIndex, percentile);
+    }
+
+    /**
+     * Returns one list of the drivers of two lists sorted by the same order, keeping that
+     * order. Drivers of the first list go before equal ones of the second.
+     */
+    private static List<Driver> merge(List<Driver> first, List<Driver> second, Comparator<Driver> order) {
+        if (first.isEmpty() || second.isEmpty()) {
+            return first.isEmpty() ? second : first;
+        }
+        List<Driver> merged = new ArrayList<>(first.size() + second.size());
+        int i = 0;
+        int j = 0;
+        while (i < first.size() && j < second.size()) {
+            merged.add(order.compare(second.get(j), first.get(i)) < 0 ? second.get(j++) : first.get(i++));
+        }
+        merged.addAll(first.subList(i, first.size()));
+        merged.addAll(second.subList(j, second.size()));
+        return merged;
+    }
+
+    private static List<Driver> concat(List<Driver> first, List<Driver> second) {
+        if (first.isEmpty() || second.isEmpty()) {
+            return first.isEmpty() ? second : first;
+        }
+        List<Driver> both = new ArrayList<>(first.size() + second.size());
+        both.addAll(first);
+        both.addAll(second);
+        return both;
+    }
+}
@@ -0,0 +1,128 @@
+package deliverytracker;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ConstructorParameters;
+
+/**
+ * A concurrent latency histogram with power-of-two buckets.
+ * Bucket i counts durations from 2^i up to 2^(i+1) nanoseconds, so percentiles are accurate
+ * to within a factor of two; recording is a few uncontended adds on any thread.
+ */
+public class LatencyHistogram {
+    private final LongAdder[] buckets = new LongAdder[64];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one duration.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long clamped = Math.max(1, nanos);
+        buckets[63 - Long.numberOfLeadingZeros(clamped)].increment();
+        count.increment();
+        totalNanos.add(clamped);
+        maxNanos.accumulate(clamped);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     * @return The count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns an upper bound for the duration at the given percentile.
+     * @param percentile The percentile, from 0 to 100.
+     * @return The upper end of the bucket holding that rank, capped at the largest duration, or 0 if empty.
+     */
+    public long percentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(maxNanos.get(), i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1);
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the current totals, for reporting.
+     * @return A snapshot of the histogram.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(count.sum(), totalNanos.sum(), maxNanos.get(), percentile(50), percentile(99));
+    }
+
+    /**
+     * Formats the histogram as one line of the end-of-run summary.
+     * @return Count, total and mean, median, 99th percentile and maximum latency.
+     */
+    @Override
+    public String toString() {
+        Snapshot snapshot = snapshot();
+        long mean = snapshot.getCount() == 0 ? 0 : snapshot.getTotalNanos() / snapshot.getCount();
+        return String.format("count %d, total %.3f ms, mean %d ns, p50 <= %d ns, p99 <= %d ns, max %d ns",
+                snapshot.getCount(), snapshot.getTotalNanos() / 1e6, mean,
+                snapshot.getMedianNanos(), snapshot.getP99Nanos(), snapshot.getMaxNanos());
+    }
+
+    /**
+     * The totals of a histogram at one point in time. Exposed through JMX as composite data.
+     */
+    public static class Snapshot {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long medianNanos;
+        private final long p99Nanos;
+
+        @ConstructorParameters({"count", "totalNanos", "maxNanos", "medianNanos", "p99Nanos"})
+        public Snapshot(long count, long totalNanos, long maxNanos, long medianNanos, long p99Nanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.medianNanos = medianNanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMedianNanos() {
+            return medianNanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+    }
+}
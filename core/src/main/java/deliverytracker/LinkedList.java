@@ -0,0 +1,423 @@
+package deliverytracker;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A linked list of payloads with name, prefix, area and spatial indexes.
+ * The list is unrolled: each Node holds a run of up to Node.CAPACITY consecutive payloads,
+ * so a traversal reads array slots instead of chasing one node per element, and the links
+ * cost two pointers per node instead of per payload. Only the tail node may have free slots.
+ * Sorts copy the payloads into one array, reorder it and write it back into the nodes, so
+ * they relink nothing.
+ * @param <T> The type of the payloads.
+ */
+public class LinkedList<T extends Comparable<T>> extends IndexedList<T> {
+    private Node<T> head; // First node in the list
+    private Node<T> tail; // Last node in the list; the only one that may have free slots
+    private int size; // Number of payloads, kept up to date by every add
+
+    /**
+     * Default constructor. Initializes an empty linked list.
+     */
+    public LinkedList() {
+        head = null;
+        tail = null;
+    }
+
+    /**
+     * Constructs a linked list with a single node.
+     * @param node The node to initialize the linked list with.
+     */
+    public LinkedList(Node<T> node) {
+        head = node;
+        tail = node;
+        size = node.getCount();
+        for (int i = 0; i < node.getCount(); i++) {
+            index(node.getPayload(i));
+        }
+    }
+
+    /**
+     * Constructs a copy of another linked list with the same payloads in the same order.
+     * The indexes and the sort state are copied rather than rebuilt, so this runs in O(n)
+     * without hashing a name or comparing an area. Later changes to either list do not
+     * affect the other.
+     * @param other The linked list to copy.
+     */
+    public LinkedList(LinkedList<T> other) {
+        this(other, false);
+    }
+
+    /**
+     * Constructs a copy of another linked list, either copying its indexes or sharing them.
+     * @param other The linked list to copy.
+     * @param shareIndexes Whether to share the other list's indexes instead of copying them.
+     */
+    private LinkedList(LinkedList<T> other, boolean shareIndexes) {
+        super(other, shareIndexes);
+        for (Node<T> current = other.head; current != null; current = current.getNext()) {
+            for (int i = 0; i < current.getCount(); i++) {
+                append(current.getPayload(i));
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of this list that has its own nodes but shares this list's indexes.
+     * The indexes do not depend on the order of the nodes, so either list can be sorted, and
+     * copying costs one reference per payload. Neither list can be added to afterwards, since
+     * an add would show up in the other's searches; merge the indexes first if the lists are
+     * searched from several threads.
+     * @return The copy, in the same order and with the same sort state.
+     */
+    public LinkedList<T> copyNodes() {
+        return new LinkedList<>(this, true);
+    }
+
+    /**
+     * Returns a copy of this read-only list with a batch of payloads added, without copying
+     * this list's indexes. The copy shares them with this list as its base and indexes only the
+     * batch, so it costs one reference per payload plus indexing the batch. A copy of such a
+     * copy shares the same base and also copies the payloads indexed since, so extend from a
+     * fresh list once that part grows large.
+     * @param batch The payloads to add, in the order they were added.
+     * @param order The order this list is in, which the batch is merged into as addAll merges
+     * a batch into a sorted list; null to add the batch as addAll does.
+     * @return The copy, which can be added to, sorted and made read-only.
+     * @throws IllegalStateException If this list is not read-only.
+     */
+    public LinkedList<T> extendedCopy(List<T> batch, Comparator<? super T> order) {
+        LinkedList<T> copy = new LinkedList<>();
+        copy.extendIndexes(this);
+        for (Node<T> current = head; current != null; current = current.getNext()) {
+            for (int i = 0; i < current.getCount(); i++) {
+                copy.append(current.getPayload(i));
+            }
+        }
+        if (order == null) {
+            copy.addAll(batch);
+        } else {
+            copy.merge(batch, order);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the head (first node) of the linked list.
+     * @return The head node, or null if the list is empty.
+     */
+    public Node<T> getHead() {
+        return head;
+    }
+
+    /**
+     * Returns an iterator over the payloads in list order.
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private Node<T> node = head;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return node != null;
+            }
+
+            @Override
+            public T next() {
+                if (node == null) {
+                    throw new NoSuchElementException();
+                }
+                T payload = node.getPayload(index++);
+                if (index == node.getCount()) {
+                    node = node.getNext();
+                    index = 0;
+                }
+                return payload;
+            }
+        };
+    }
+
+    /**
+     * Returns a string representation of the linked list.
+     * Each payload is represented on a new line.
+     * @return A string representation of the linked list.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        Node<T> current = head;
+        while (current != null) {
+            result.append(current.toString());// calls Node.java's toString method, not recursion 
+            current = current.getNext();
+        }
+        return result.toString();
+    }
+
+    /**
+     * Reverses the list, then restores the original order within each run of equal keys,
+     * so the result matches a stable sort in the opposite direction.
+     * @param comparator The comparator for the key the list is sorted by.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void reverse(Comparator<? super T> comparator) {
+        Object[] payloads = toArray();
+        reverse(payloads, 0, payloads.length);
+        int start = 0;
+        while (start < payloads.length) {
+            int end = start + 1;
+            while (end < payloads.length && comparator.compare((T) payloads[start], (T) payloads[end]) == 0) {
+                end++;
+            }
+            reverse(payloads, start, end);
+            start = end;
+        }
+        fill(payloads);
+    }
+
+    private static void reverse(Object[] payloads, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            Object swap = payloads[i];
+            payloads[i] = payloads[j];
+            payloads[j] = swap;
+        }
+    }
+
+    /**
+     * Sorts the linked list with a stable O(n log n) sort of its payloads.
+     * The payloads are sorted in one array and written back into the nodes in order.
+     * @param comparator The comparator that determines the order of the payloads.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super T> comparator) {
+        checkWritable();
+        forgetOrder();
+        if (size < 2) {
+            return; // If list is empty or has only one element, no sorting is needed
+        }
+        Object[] payloads = toArray();
+        Arrays.sort(payloads, (Comparator<Object>) comparator); // Stable
+        fill(payloads);
+    }
+
+    /**
+     * Sorts a list of drivers by extracting their keys into primitive arrays, radix sorting them,
+     * and writing the payloads back in the resulting order in one pass.
+     * @param key "name" or "area".
+     * @param descending Whether to sort in descending order.
+     */
+    @Override
+    protected void radixSort(String key, boolean descending) {
+        if (size < 2) {
+            return;
+        }
+        Object[] payloads = toArray();
+        Driver[] drivers = new Driver[payloads.length];
+        for (int i = 0; i < payloads.length; i++) {
+            drivers[i] = (Driver) payloads[i];
+        }
+        int[] sorted = "name".equals(key) ? RadixSort.byName(drivers, descending) : RadixSort.byArea(drivers, descending);
+        Object[] ordered = new Object[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            ordered[i] = payloads[sorted[i]];
+        }
+        fill(ordered);
+    }
+
+    /**
+     * Appends a payload to the tail node, starting a new node when it is full.
+     * @param data The data to append.
+     */
+    private void append(T data) {
+        if (tail == null || tail.isFull()) {
+            Node<T> newNode = new Node<>();
+            if (head == null) {
+                head = newNode;
+            } else {
+                tail.setNext(newNode);
+                newNode.setPrev(tail);
+            }
+            tail = newNode;
+        }
+        tail.add(data);
+        size++;
+    }
+
+    /**
+     * Copies the payloads into an array in list order.
+     * @return The payloads.
+     */
+    private Object[] toArray() {
+        Object[] payloads = new Object[size];
+        int position = 0;
+        for (Node<T> current = head; current != null; current = current.getNext()) {
+            current.copyTo(payloads, position);
+            position += current.getCount();
+        }
+        return payloads;
+    }
+
+    /**
+     * Writes payloads back into the nodes in order; there must be exactly size of them.
+     * @param payloads The payloads in their new order.
+     */
+    private void fill(Object[] payloads) {
+        int position = 0;
+        for (Node<T> current = head; current != null; current = current.getNext()) {
+            current.copyFrom(payloads, position);
+            position += current.getCount();
+        }
+    }
+
+    /**
+     * Normalizes a name into its index key.
+     * Folds each character the same way String.equalsIgnoreCase compares them.
+     * @param name The name to normalize.
+     * @return The trimmed, case-folded name.
+     */
+    static String nameKey(String name) {
+        String trimmed = name.trim();
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                char[] folded = trimmed.toCharArray();
+                for (int j = i; j < folded.length; j++) {
+                    folded[j] = foldCase(folded[j]);
+                }
+                return new String(folded);
+            }
+        }
+        return trimmed; // Already lower-case ASCII
+    }
+
+    /**
+     * Folds one character of a name the way nameKey does.
+     * @param c The character.
+     * @return The character's case-folded form.
+     */
+    static char foldCase(char c) {
+        return c < 0x80 && (c < 'A' || c > 'Z') ? c : Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Adds the given data to the end of the linked list.
+     * @param data The data to add to the linked list.
+     */
+    @Override
+    public void add(T data) {
+        checkIndexesOwned();
+        append(data);
+        forgetOrder();
+        index(data);
+    }
+
+    /**
+     * Adds a batch of data to the linked list.
+     * If the list is currently sorted by name or area, the batch is sorted on its own and merged in,
+     * costing O(n + m log m) instead of a full re-sort, and the list stays sorted; the result is the
+     * same as appending the batch and sorting again. Otherwise the batch is appended in order.
+     * @param batch The data to add.
+     */
+    public void addAll(List<T> batch) {
+        checkIndexesOwned();
+        Comparator<T> comparator = currentOrder();
+        if (comparator == null || head == null) {
+            for (T data : batch) {
+                add(data);
+            }
+            return;
+        }
+        merge(batch, comparator);
+    }
+
+    /**
+     * Adds a batch to a list sorted by the given order, sorting the batch on its own and merging
+     * it in. The sort state is left as it is.
+     * @param batch The data to add.
+     * @param comparator The order the list is sorted by.
+     */
+    private void merge(List<T> batch, Comparator<? super T> comparator) {
+        checkIndexesOwned();
+        @SuppressWarnings("unchecked")
+        T[] added = (T[]) batch.toArray(new Comparable<?>[0]);
+        Arrays.sort(added, comparator); // Stable, so equal keys keep their order in the batch
+        Object[] existing = toArray();
+        Object[] merged = new Object[existing.length + added.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < existing.length && j < added.length) {
+            // Existing payloads win ties, as they would in a stable sort of the appended list
+            @SuppressWarnings("unchecked")
+            T current = (T) existing[i];
+            merged[k++] = comparator.compare(added[j], current) < 0 ? added[j++] : existing[i++];
+        }
+        System.arraycopy(existing, i, merged, k, existing.length - i);
+        System.arraycopy(added, j, merged, k + existing.length - i, added.length - j);
+        for (T data : added) {
+            append(data);
+            index(data);
+        }
+        fill(merged);
+    }
+
+    /**
+     * Moves every payload of another linked list to the end of this one.
+     * The result is the same as adding the payloads one by one, but nothing is indexed again:
+     * the other list's indexes are merged into this list's. When this list is empty it takes
+     * over the other's nodes and indexes in O(1); when its tail node is full the other's nodes
+     * are linked on; otherwise the payloads are copied into new nodes in bulk. The other list
+     * must not be used afterwards.
+     * @param other The list to move the payloads of.
+     */
+    public void appendAll(LinkedList<T> other) {
+        checkIndexesOwned();
+        other.checkIndexesOwned();
+        forgetOrder();
+        indexAll(other);
+        if (other.head == null) {
+            return;
+        }
+        if (head == null) {
+            head = other.head;
+            tail = other.tail;
+        } else if (tail.isFull()) {
+            tail.setNext(other.head);
+            other.head.setPrev(tail);
+            tail = other.tail;
+        } else {
+            Object[] payloads = other.toArray();
+            int position = 0;
+            while (position < payloads.length) {
+                if (tail.isFull()) {
+                    Node<T> newNode = new Node<>();
+                    tail.setNext(newNode);
+                    newNode.setPrev(tail);
+                    tail = newNode;
+                }
+                position += tail.addFrom(payloads, position, payloads.length - position);
+            }
+        }
+        size += other.size;
+        other.head = null;
+        other.tail = null;
+        other.size = 0;
+    }
+
+    /**
+     * Returns the number of elements in the linked list, in constant time.
+     * @return The number of elements.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,446 @@
+/**
+ * This project updates the Fighter patrols program so it can be expanded for more than 20 drivers and additional delivery points. 
+ * Furthermore, it searches and sorts the data accordingly into linkedlists.
+ * @author Senay Gebru 
+ * Date:10/20/2023
+ */    
+package deliverytracker;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+public class Main {
+    public static void main(String[] args) throws IOException {
+        Scanner scanner = new Scanner(System.in);
+
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+        if (options.metrics) {
+            reportMetrics();
+        }
+        
+        // Prompting the user for file names that were not given as arguments.
+        String driverFilename = options.filenames.size() > 0 ? options.filenames.get(0)
+                : getFileName(scanner, "Enter the name of the file containing driver routes: ");
+        // A server takes its commands from its clients, so it needs no command file.
+        String commandsFilename = options.filenames.size() > 1 ? options.filenames.get(1)
+                : options.serveAddress != null ? null
+                : getFileName(scanner, "Enter the name of the file containing search and sort commands: ");
+        
+        LinkedList<Driver> driverList = new LinkedList<>();
+        
+        if (options.follow && options.serveAddress != null) {
+            serveFollowedDriverFile(driverFilename, options.serveAddress);
+            scanner.close();
+            return;
+        }
+        
+        if (options.follow) {
+            followDriverFile(driverFilename, commandsFilename, driverList, options.outputFilename);
+            scanner.close();
+            return;
+        }
+        
+        if (options.columnar) {
+            runColumnar(driverFilename, commandsFilename, options.outputFilename);
+            scanner.close();
+            return;
+        }
+        
+        if (options.externalSort) {
+            runExternalSort(driverFilename, commandsFilename, options.outputFilename, options.memoryMegabytes << 20);
+            scanner.close();
+            return;
+        }
+        
+        if (options.partitions > 0) {
+            runPartitioned(driverFilename, commandsFilename, options.outputFilename, options.partitions);
+            scanner.close();
+            return;
+        }
+        
+        // Populates the linked list with name of the drivers from the provided file.
+        if (options.snapshotFilename != null) {
+            readDriverFileWithSnapshot(driverFilename, options.snapshotFilename, driverList, options.parallel,
+                    options.snapshotGeometry);
+        } else if (options.parallel) {
+            readDriverFileParallel(driverFilename, driverList);
+        } else {
+            readDriverFile(driverFilename, driverList);
+        }
+        
+        if (options.serveAddress != null) {
+            serveDriverList(driverList, options.serveAddress);
+            scanner.close();
+            return;
+        }
+        
+        if (options.batch) {
+            // Run the command file as one plan and display the list through the same buffered writer.
+            try (Writer out = openOutput(options.outputFilename)) {
+                processCommandsFileBatched(commandsFilename, driverList, out);
+                displayDriverList(driverList, out);
+            }
+        } else {
+            // Process the commands from the provided command file.
+            processCommandsFile(commandsFilename, driverList);
+            
+            // Display the final driver list.
+            displayDriverList(driverList);
+        }
+        
+        scanner.close();
+    }
+
+    /**
+     * Publishes the metrics through JMX and prints their summary to standard error when the
+     * JVM exits, so long-running modes report too when they are stopped.
+     */
+    public static void reportMetrics() {
+        Metrics.registerMBean();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                Metrics.appendSummary(System.err);
+            } catch (IOException e) {
+                // Standard error does not throw
+            }
+        }, "metrics-summary"));
+    }
+
+    /**
+     * Prompt user for a filename.
+     * @param scanner Scanner object to read user input.
+     * @param prompt The message to display to the user.
+     * @return The entered filename.
+     */
+    public static String getFileName(Scanner scanner, String prompt) {
+        System.out.print(prompt);
+        return scanner.nextLine();
+    }
+
+    /**
+     * Reads drivers and their routes from a file and populates the provided linked list.
+     * The file is memory-mapped and parsed by RouteFileParser; a route is only added
+     * when its first and last coordinates match.
+     * @param filename The name of the file to read.
+     * @param driverList The linked list to populate with Driver objects.
+     */
+    public static void readDriverFile(String filename, IndexedList<Driver> driverList) throws IOException {
+        RouteFileParser.parse(filename, RouteFileParser.driverSink(driverList::add));
+    }
+
+    /**
+     * Reads drivers and their routes from a file on all available cores.
+     * The drivers are added in file order, so the list matches what readDriverFile produces.
+     * @param filename The name of the file to read.
+     * @param driverList The linked list to populate with Driver objects.
+     */
+    public static void readDriverFileParallel(String filename, LinkedList<Driver> driverList) throws IOException {
+        ParallelRouteReader.read(Paths.get(filename), Runtime.getRuntime().availableProcessors(), driverList);
+    }
+
+    /**
+     * Loads the drivers from a binary snapshot of the route file, falling back to parsing the
+     * route file when the snapshot is missing, stale or corrupt. After a fallback the snapshot
+     * is rewritten, so the next run starts from it.
+     * @param filename The name of the route file.
+     * @param snapshotFilename The name of the snapshot file.
+     * @param driverList The linked list to populate with Driver objects.
+     * @param parallel Whether to parse the route file on all cores when falling back.
+     * @param withGeometry Whether the snapshot keeps the route vertices; a snapshot written with the
+     * other setting is rewritten.
+     */
+    public static void readDriverFileWithSnapshot(String filename, String snapshotFilename, LinkedList<Driver> driverList,
+            boolean parallel, boolean withGeometry) throws IOException {
+        Path source = Paths.get(filename);
+        Path snapshot = Paths.get(snapshotFilename);
+        if (DriverSnapshot.read(snapshot, source, driverList, withGeometry)) {
+            return;
+        }
+        // Taken before parsing, so routes appended while parsing make the snapshot stale
+        long sourceSize = Files.size(source);
+        long sourceModified = Files.getLastModifiedTime(source).toMillis();
+        if (parallel) {
+            readDriverFileParallel(filename, driverList);
+        } else {
+            readDriverFile(filename, driverList);
+        }
+        DriverSnapshot.write(snapshot, sourceSize, sourceModified, driverList, withGeometry);
+    }
+
+    /**
+     * Reads the driver file, runs the command file and displays the list, then keeps following
+     * the driver file: routes appended later are added to the list and the command file's
+     * commands are re-evaluated against them. Runs until the process is stopped.
+     * @param driverFilename The name of the driver file to follow.
+     * @param commandsFilename The name of the command file.
+     * @param driverList The linked list to populate with Driver objects.
+     * @param outputFilename The name of the output file, or null for standard output.
+     */
+    public static void followDriverFile(String driverFilename, String commandsFilename, LinkedList<Driver> driverList,
+            String outputFilename) throws IOException {
+        CommandBatch batch;
+        try {
+            batch = CommandBatch.read(commandsFilename);
+        } catch (FileNotFoundException e) {
+            System.out.println("Error: Command file not found.");
+            return;
+        }
+        try (Writer out = openOutput(outputFilename)) {
+            RouteFileFollower follower = new RouteFileFollower(Paths.get(driverFilename), driverList, batch.getPlan(), out, 1000);
+            follower.load();
+            batch.execute(driverList, out);
+            displayDriverList(driverList, out);
+            out.flush();
+            follower.follow();
+        }
+    }
+
+    /**
+     * Serves queries on a local socket while following the driver file, until the process is
+     * stopped. Routes appended to the file are added on a thread of their own and show up in
+     * the answers as soon as they are read.
+     * @param driverFilename The name of the driver file to follow.
+     * @param address "unix:PATH" for a Unix domain socket, otherwise a TCP port on the loopback interface.
+     */
+    public static void serveFollowedDriverFile(String driverFilename, String address) throws IOException {
+        DriverRegistry registry = new DriverRegistry();
+        RouteFileFollower follower = new RouteFileFollower(Paths.get(driverFilename), registry, 1000);
+        follower.load();
+        Thread ingest = new Thread(() -> {
+            try {
+                follower.follow();
+            } catch (IOException e) {
+                System.err.println("Error: Stopped following " + driverFilename + ": " + e.getMessage());
+            }
+        }, "route-follower");
+        ingest.setDaemon(true);
+        try (QueryServer server = new QueryServer(registry, QueryServer.parseAddress(address))) {
+            System.out.println("Serving " + registry.size() + " drivers on " + server.getAddress() + " and following " + driverFilename);
+            ingest.start();
+            server.serve();
+        }
+    }
+
+    /**
+     * Serves queries against the driver list on a local socket until the process is stopped.
+     * @param driverList The linked list of drivers.
+     * @param address "unix:PATH" for a Unix domain socket, otherwise a TCP port on the loopback interface.
+     */
+    public static void serveDriverList(LinkedList<Driver> driverList, String address) throws IOException {
+        try (QueryServer server = new QueryServer(driverList, QueryServer.parseAddress(address))) {
+            System.out.println("Serving " + driverList.size() + " drivers on " + server.getAddress());
+            server.serve();
+        }
+    }
+
+    /**
+     * Reads the driver file into an off-heap columnar store, runs the command file against it
+     * as one batch and writes the final list, all through one buffered writer.
+     * @param driverFilename The name of the driver file.
+     * @param commandsFilename The name of the command file.
+     * @param outputFilename The name of the output file, or null for standard output.
+     */
+    public static void runColumnar(String driverFilename, String commandsFilename, String outputFilename) throws IOException {
+        try (ColumnarDriverStore store = new ColumnarDriverStore()) {
+            // The store keeps no geometry, so a geometry cache would only cost memory
+            new RouteFileParser(store, null).parse(Paths.get(driverFilename));
+            try (Writer out = openOutput(outputFilename)) {
+                try {
+                    CommandBatch.read(commandsFilename).execute(store, out);
+                } catch (FileNotFoundException e) {
+                    out.write("Error: Command file not found." + System.lineSeparator());
+                }
+                for (int position = 0; position < store.size(); position++) {
+                    store.appendDriver(store.handleAt(position), out);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts a driver file that may not fit in the heap and writes the sorted list, without
+     * building a LinkedList. Only the command file's sorts run; the list is written in the order
+     * they leave it in, as displayDriverList would print it.
+     * @param driverFilename The name of the driver file.
+     * @param commandsFilename The name of the command file.
+     * @param outputFilename The name of the output file, or null for standard output.
+     * @param memoryBudget The number of heap bytes the sort may hold drivers in.
+     */
+    public static void runExternalSort(String driverFilename, String commandsFilename, String outputFilename,
+            long memoryBudget) throws IOException {
+        List<Command> sorts = new ArrayList<>();
+        try (Writer out = openOutput(outputFilename)) {
+            try {
+                for (Command command : CommandBatch.read(commandsFilename).getPlan()) {
+                    if (command.getType() == Command.Type.SORT) {
+                        sorts.add(command);
+                    } else {
+                        System.err.println("Warning: --external-sort only runs sorts; skipping " + command);
+                    }
+                }
+            } catch (FileNotFoundException e) {
+                out.write("Error: Command file not found." + System.lineSeparator());
+            }
+            try (ExternalSorter sorter = new ExternalSorter(ExternalSorter.orderOf(sorts), memoryBudget)) {
+                sorter.read(Paths.get(driverFilename));
+                sorter.writeSorted(out);
+            }
+        }
+    }
+
+    /**
+     * Shards the driver file over worker processes, runs the command file against them as one
+     * batch and writes the final list, with the same output as --batch.
+     * @param driverFilename The name of the driver file.
+     * @param commandsFilename The name of the command file.
+     * @param outputFilename The name of the output file, or null for standard output.
+     * @param partitions The number of worker processes.
+     */
+    public static void runPartitioned(String driverFilename, String commandsFilename, String outputFilename,
+            int partitions) throws IOException {
+        try (PartitionCoordinator coordinator = new PartitionCoordinator(driverFilename, partitions);
+                Writer out = openOutput(outputFilename)) {
+            try {
+                CommandBatch.read(commandsFilename).execute(coordinator, out);
+            } catch (FileNotFoundException e) {
+                out.write("Error: Command file not found." + System.lineSeparator());
+            }
+            coordinator.display(out);
+        }
+    }
+
+    /**
+     * Processes the commands file to sort and search the driver list.
+     * @param filename The name of the command file.
+     * @param driverList The linked list of drivers.
+     */
+    public static void processCommandsFile(String filename, IndexedList<Driver> driverList) {
+        try {
+            Scanner fileScanner = new Scanner(new File(filename));
+            while (fileScanner.hasNextLine()) {
+                Command command = Command.parse(fileScanner.nextLine());
+                if (command != null) {
+                    command.execute(driverList, System.out);
+                }
+            }
+            fileScanner.close();
+        } catch (FileNotFoundException e) {
+            System.out.println("Error: Command file not found.");
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Invalid number format in commands.");
+        } catch (Exception e) {
+            System.out.println("Error: An unexpected error occurred while processing commands.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Processes the commands file as one batch, writing all results through the given writer.
+     * Redundant consecutive sorts are collapsed before anything runs, and lines with an invalid
+     * number are reported and skipped; see CommandBatch.
+     * @param filename The name of the command file.
+     * @param driverList The linked list of drivers.
+     * @param out Where to write the results.
+     */
+    public static void processCommandsFileBatched(String filename, IndexedList<Driver> driverList, Writer out) throws IOException {
+        try {
+            CommandBatch.read(filename).execute(driverList, out);
+        } catch (FileNotFoundException e) {
+            out.write("Error: Command file not found." + System.lineSeparator());
+        }
+    }
+
+    /**
+     * Opens a large buffered writer on the given file, or on standard output if there is none.
+     * @param filename The name of the output file, or null for standard output.
+     * @return The writer.
+     */
+    public static Writer openOutput(String filename) throws IOException {
+        OutputStream stream = filename == null ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(filename);
+        return new BufferedWriter(new OutputStreamWriter(stream), 1 << 16);
+    }
+
+    /**
+     * Displays the names and areas of all drivers in the linked list.
+     * @param driverList The linked list of drivers.
+     */
+    public static void displayDriverList(IndexedList<Driver> driverList) {
+        for (Driver driver : driverList) {
+            System.out.println(driver);
+        }
+    }
+
+    /**
+     * Writes the names and areas of all drivers in the linked list, one per line.
+     * @param driverList The linked list of drivers.
+     * @param out Where to write the list.
+     */
+    public static void displayDriverList(IndexedList<Driver> driverList, Appendable out) throws IOException {
+        String newline = System.lineSeparator();
+        for (Driver driver : driverList) {
+            out.append(driver.toString()).append(newline);
+        }
+    }
+
+    /**
+     * Represents a 2D point with x and y coordinates.
+     */
+    public static class Point {
+        private double x;
+        private double y;
+
+        public Point(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+    }
+
+    /**
+     * Calculates the area covered by a set of points.
+     * Assumes the points define a polygon.
+     * @param points The list of points.
+     * @return The calculated area.
+     */
+    public static double calculateArea(List<Point> points) {
+        int count = points.size();
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            Point point = points.get(i);
+            xs[i] = point.getX();
+            ys[i] = point.getY();
+        }
+        return calculateArea(xs, ys, count);
+    }
+
+    /**
+     * Calculates the area covered by a polygon stored as packed coordinate arrays.
+     * Allocates nothing; see PolygonArea for the vectorized path used by very large polygons.
+     * @param xs The x coordinates of the vertices.
+     * @param ys The y coordinates of the vertices.
+     * @param count The number of vertices.
+     * @return The calculated area.
+     */
+    public static double calculateArea(double[] xs, double[] ys, int count) {
+        return PolygonArea.area(xs, ys, count);
+    }
+}
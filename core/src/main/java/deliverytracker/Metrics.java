@@ -0,0 +1,119 @@
+package deliverytracker;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Counters and latency histograms for parsing, area calculation, sorting and searching.
+ *
+ * Instrumentation is switched on by the deliverytracker.metrics system property, which
+ * --metrics sets before anything is parsed. The switch is a static final field, so when it is
+ * off the JIT folds every instrumented branch away and the hot paths cost nothing extra.
+ */
+public final class Metrics {
+    /** Whether instrumentation is on; fixed for the life of the JVM. */
+    public static final boolean ENABLED = Boolean.getBoolean("deliverytracker.metrics");
+
+    static final LongAdder ROUTES_ACCEPTED = new LongAdder();
+    // Routes whose first and last points differ, or whose coordinates are malformed
+    static final LongAdder ROUTES_REJECTED = new LongAdder();
+    static final LongAdder BYTES_PARSED = new LongAdder();
+    static final LongAdder LOOKUP_MISSES = new LongAdder();
+    // Routes whose geometry and area were shared from an identical earlier route
+    static final LongAdder ROUTE_CACHE_HITS = new LongAdder();
+    static final LatencyHistogram PARSE = new LatencyHistogram();
+    static final LatencyHistogram AREA = new LatencyHistogram();
+    static final LatencyHistogram SORT = new LatencyHistogram();
+    static final LatencyHistogram SEARCH = new LatencyHistogram();
+
+    private static final String NEWLINE = System.lineSeparator();
+
+    private Metrics() {
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, if metrics are enabled.
+     */
+    public static void registerMBean() {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new StandardMBean(new View(), MetricsMXBean.class, true), new ObjectName("deliverytracker:type=Metrics"));
+        } catch (JMException e) {
+            System.err.println("Warning: could not register metrics with JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a summary of every counter and histogram.
+     * @param out Where to write the summary.
+     */
+    public static void appendSummary(Appendable out) throws IOException {
+        out.append("Metrics:").append(NEWLINE)
+                .append("routes accepted ").append(String.valueOf(ROUTES_ACCEPTED.sum()))
+                .append(", rejected ").append(String.valueOf(ROUTES_REJECTED.sum()))
+                .append(", bytes parsed ").append(String.valueOf(BYTES_PARSED.sum()))
+                .append(", route cache hits ").append(String.valueOf(ROUTE_CACHE_HITS.sum())).append(NEWLINE)
+                .append("lookup misses ").append(String.valueOf(LOOKUP_MISSES.sum())).append(NEWLINE)
+                .append("parse:  ").append(PARSE.toString()).append(NEWLINE)
+                .append("area:   ").append(AREA.toString()).append(NEWLINE)
+                .append("sort:   ").append(SORT.toString()).append(NEWLINE)
+                .append("search: ").append(SEARCH.toString()).append(NEWLINE);
+    }
+
+    /**
+     * The JMX view of the static counters.
+     */
+    private static class View implements MetricsMXBean {
+        @Override
+        public long getRoutesAccepted() {
+            return ROUTES_ACCEPTED.sum();
+        }
+
+        @Override
+        public long getRoutesRejected() {
+            return ROUTES_REJECTED.sum();
+        }
+
+        @Override
+        public long getBytesParsed() {
+            return BYTES_PARSED.sum();
+        }
+
+        @Override
+        public long getRouteCacheHits() {
+            return ROUTE_CACHE_HITS.sum();
+        }
+
+        @Override
+        public long getLookupMisses() {
+            return LOOKUP_MISSES.sum();
+        }
+
+        @Override
+        public LatencyHistogram.Snapshot getParseLatency() {
+            return PARSE.snapshot();
+        }
+
+        @Override
+        public LatencyHistogram.Snapshot getAreaLatency() {
+            return AREA.snapshot();
+        }
+
+        @Override
+        public LatencyHistogram.Snapshot getSortLatency() {
+            return SORT.snapshot();
+        }
+
+        @Override
+        public LatencyHistogram.Snapshot getSearchLatency() {
+            return SEARCH.snapshot();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package deliverytracker;
+
+/**
+ * The pipeline metrics as seen through JMX, under the name deliverytracker:type=Metrics.
+ */
+public interface MetricsMXBean {
+    long getRoutesAccepted();
+
+    long getRoutesRejected();
+
+    long getBytesParsed();
+
+    long getRouteCacheHits();
+
+    long getLookupMisses();
+
+    LatencyHistogram.Snapshot getParseLatency();
+
+    LatencyHistogram.Snapshot getAreaLatency();
+
+    LatencyHistogram.Snapshot getSortLatency();
+
+    LatencyHistogram.Snapshot getSearchLatency();
+}
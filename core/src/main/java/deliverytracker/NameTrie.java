@@ -0,0 +1,268 @@
+package deliverytracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A compact trie (radix tree) of drivers by name, for prefix searches.
+ * Names are keyed by LinkedList.nameKey, so searches ignore case and surrounding whitespace.
+ * Each edge holds a run of characters, and every node that no name ends at has at least two
+ * children, so a prefix search costs O(prefix length + results).
+ */
+public class NameTrie {
+    private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+    private final TrieNode root;
+
+    private static class TrieNode {
+        // The characters on the edge from the parent; never empty except at the root
+        private String label;
+        // Children sorted by the first character of their label
+        private TrieNode[] children = NO_CHILDREN;
+        // Drivers whose key ends here, in the order they were added; null if none
+        private List<Driver> drivers;
+
+        TrieNode(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Copies a node and everything below it.
+         */
+        TrieNode(TrieNode other) {
+            label = other.label;
+            if (other.children.length > 0) {
+                children = new TrieNode[other.children.length];
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = new TrieNode(other.children[i]);
+                }
+            }
+            if (other.drivers != null) {
+                drivers = new ArrayList<>(other.drivers);
+            }
+        }
+
+        /**
+         * Finds the slot of the child whose label starts with the given character.
+         * @return The slot, or -(insertion point) - 1 if there is none.
+         */
+        int find(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char c = children[middle].label.charAt(0);
+                if (c < first) {
+                    low = middle + 1;
+                } else if (c > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        void insertChild(int slot, TrieNode child) {
+            TrieNode[] grown = new TrieNode[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, slot);
+            grown[slot] = child;
+            System.arraycopy(children, slot, grown, slot + 1, children.length - slot);
+            children = grown;
+        }
+    }
+
+    /**
+     * Constructs an empty trie.
+     */
+    public NameTrie() {
+        root = new TrieNode("");
+    }
+
+    /**
+     * Constructs a copy of another trie.
+     * @param other The trie to copy.
+     */
+    public NameTrie(NameTrie other) {
+        root = new TrieNode(other.root);
+    }
+
+    /**
+     * Adds a driver under its current name.
+     * @param driver The driver to add.
+     */
+    public void add(Driver driver) {
+        String key = LinkedList.nameKey(driver.getName());
+        TrieNode node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int slot = node.find(key.charAt(i));
+            if (slot < 0) {
+                TrieNode leaf = new TrieNode(key.substring(i));
+                node.insertChild(-slot - 1, leaf);
+                node = leaf;
+                break;
+            }
+            TrieNode child = node.children[slot];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it
+                TrieNode middle = new TrieNode(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new TrieNode[] {child};
+                node.children[slot] = middle;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.drivers == null) {
+            node.drivers = new ArrayList<>(1);
+        }
+        node.drivers.add(driver);
+    }
+
+    /**
+     * Adds every driver of another trie after this trie's drivers, with the same result as adding
+     * them one by one. The tries are merged edge by edge, without folding or walking any name
+     * again; subtrees only one of them has are moved over as they are. The other trie must not be
+     * used afterwards.
+     * @param other The trie whose drivers to add.
+     */
+    public void addAll(NameTrie other) {
+        mergeInto(root, other.root);
+    }
+
+    /**
+     * Merges a node into another node that stands for the same key, keeping the target's
+     * drivers first.
+     */
+    private static void mergeInto(TrieNode target, TrieNode source) {
+        if (source.drivers != null) {
+            if (target.drivers == null) {
+                target.drivers = source.drivers;
+            } else {
+                target.drivers.addAll(source.drivers);
+            }
+        }
+        if (source.children.length == 0) {
+            return;
+        }
+        if (target.children.length == 0) {
+            target.children = source.children;
+            return;
+        }
+        // Both child arrays are sorted by first character, so merge them in one pass
+        TrieNode[] merged = new TrieNode[target.children.length + source.children.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < target.children.length && j < source.children.length) {
+            char a = target.children[i].label.charAt(0);
+            char b = source.children[j].label.charAt(0);
+            if (a < b) {
+                merged[k++] = target.children[i++];
+            } else if (a > b) {
+                merged[k++] = source.children[j++];
+            } else {
+                merged[k++] = mergeEdges(target.children[i++], source.children[j++]);
+            }
+        }
+        while (i < target.children.length) {
+            merged[k++] = target.children[i++];
+        }
+        while (j < source.children.length) {
+            merged[k++] = source.children[j++];
+        }
+        target.children = k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+
+    /**
+     * Merges two sibling edges whose labels start with the same character, keeping the
+     * target's drivers first.
+     * @return The node that replaces both.
+     */
+    private static TrieNode mergeEdges(TrieNode target, TrieNode source) {
+        int common = commonPrefix(target.label, source.label, 0);
+        if (common < target.label.length()) {
+            // Split the target's edge where the labels part, so the target covers only the common part
+            TrieNode middle = new TrieNode(target.label.substring(0, common));
+            target.label = target.label.substring(common);
+            middle.children = new TrieNode[] {target};
+            target = middle;
+        }
+        if (common == source.label.length()) {
+            mergeInto(target, source);
+        } else {
+            // The source continues below the target: merge it in as a child
+            source.label = source.label.substring(common);
+            TrieNode holder = new TrieNode("");
+            holder.children = new TrieNode[] {source};
+            mergeInto(target, holder);
+        }
+        return target;
+    }
+
+    /**
+     * Returns the first drivers whose name starts with the given text.
+     * Matches come in order of their case-folded names; drivers with the same name keep
+     * the order they were added in.
+     * @param prefix The text names must start with; case and surrounding whitespace are ignored.
+     * @param limit The largest number of drivers to return.
+     * @return Up to limit matching drivers.
+     */
+    public List<Driver> prefix(String prefix, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        String key = LinkedList.nameKey(prefix);
+        TrieNode node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int slot = node.find(key.charAt(i));
+            if (slot < 0) {
+                return Collections.emptyList();
+            }
+            TrieNode child = node.children[slot];
+            int common = commonPrefix(child.label, key, i);
+            if (i + common < key.length() && common < child.label.length()) {
+                return Collections.emptyList(); // The prefix leaves this edge
+            }
+            node = child;
+            i += common;
+        }
+        List<Driver> result = new ArrayList<>(Math.min(limit, 16));
+        collect(node, limit, result);
+        return result;
+    }
+
+    /**
+     * Adds the drivers at and below a node to the result in name order, stopping at the limit.
+     * A name sorts before every longer name it is a prefix of, so a node's own drivers come first.
+     */
+    private static void collect(TrieNode node, int limit, List<Driver> result) {
+        if (node.drivers != null) {
+            result.addAll(node.drivers.subList(0, Math.min(node.drivers.size(), limit - result.size())));
+        }
+        for (TrieNode child : node.children) {
+            if (result.size() >= limit) {
+                return;
+            }
+            collect(child, limit, result);
+        }
+    }
+
+    /**
+     * Returns how many characters a label shares with the key starting at the given position.
+     */
+    private static int commonPrefix(String label, String key, int from) {
+        int length = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+}
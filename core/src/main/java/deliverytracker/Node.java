@@ -0,0 +1,156 @@
+package deliverytracker;
+
+/**
+ * Represents a node in an unrolled doubly linked list.
+ * Each node holds a run of up to CAPACITY consecutive payloads in an array, so a traversal
+ * reads neighbouring array slots instead of following one pointer per element.
+ * The type parameter T must implement the Comparable interface to enable sorting.
+ * @param <T> The type of elements held in this node.
+ */
+public class Node<T extends Comparable<T>> {
+    // Payloads per node: 64 references fill a few cache lines
+    public static final int CAPACITY = 64;
+
+    // The data held by this node, in slots 0 to count - 1
+    private final Object[] payloads = new Object[CAPACITY];
+    private int count;
+    // Pointers to the next and previous nodes in the list
+    private Node<T> next;
+    private Node<T> prev;
+
+    /**
+     * Constructs an empty node.
+     * Initializes next and previous pointers as null.
+     */
+    public Node() {
+        this.next = null;
+        this.prev = null;
+    }
+
+    /**
+     * Constructs a node holding one payload.
+     * @param payload The data to store in this node.
+     */
+    public Node(T payload) {
+        this();
+        add(payload);
+    }
+
+    /**
+     * Returns the number of payloads held by this node.
+     * @return The count, from 0 to CAPACITY.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns whether this node has no free slot left.
+     * @return True if the node holds CAPACITY payloads.
+     */
+    public boolean isFull() {
+        return count == CAPACITY;
+    }
+
+    /**
+     * Returns one of the payloads held by this node.
+     * @param index The position within the node, from 0 to getCount() - 1.
+     * @return The payload.
+     */
+    @SuppressWarnings("unchecked")
+    public T getPayload(int index) {
+        if (index >= count) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (T) payloads[index];
+    }
+
+    /**
+     * Appends a payload to this node.
+     * @param payload The data to add.
+     * @throws IllegalStateException If the node is full.
+     */
+    public void add(T payload) {
+        if (isFull()) {
+            throw new IllegalStateException("The node is full");
+        }
+        payloads[count++] = payload;
+    }
+
+    /**
+     * Appends payloads from an array to this node, as many as fit.
+     * @param source The array to copy from.
+     * @param position Where the first payload to append is.
+     * @param length The number of payloads left in the array from that position.
+     * @return The number of payloads appended.
+     */
+    int addFrom(Object[] source, int position, int length) {
+        int copied = Math.min(CAPACITY - count, length);
+        System.arraycopy(source, position, payloads, count, copied);
+        count += copied;
+        return copied;
+    }
+
+    /**
+     * Copies this node's payloads into an array.
+     * @param target The array to copy into.
+     * @param position Where the first payload goes.
+     */
+    void copyTo(Object[] target, int position) {
+        System.arraycopy(payloads, 0, target, position, count);
+    }
+
+    /**
+     * Overwrites this node's payloads from an array, keeping the count.
+     * @param source The array to copy from.
+     * @param position Where this node's first payload is.
+     */
+    void copyFrom(Object[] source, int position) {
+        System.arraycopy(source, position, payloads, 0, count);
+    }
+
+    /**
+     * Returns the next node this node points to.
+     * @return The next node.
+     */
+    public Node<T> getNext() {
+        return next;
+    }
+
+    /**
+     * Sets the next node this node should point to.
+     * @param next The node to set as the next node.
+     */
+    public void setNext(Node<T> next) {
+        this.next = next;
+    }
+
+    /**
+     * Returns the previous node this node points to.
+     * @return The previous node.
+     */
+    public Node<T> getPrev() {
+        return prev;
+    }
+
+    /**
+     * Sets the previous node this node should point to.
+     * @param prev The node to set as the previous node.
+     */
+    public void setPrev(Node<T> prev) {
+        this.prev = prev;
+    }
+
+    /**
+     * Returns a string representation of this node's payloads, one per line.
+     * @return A string representation of the payloads.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            result.append(payloads[i]).append("\n");
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,144 @@
+package deliverytracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command line options for Main.
+ * Options may be followed by the driver and command file names; names that are not
+ * given are prompted for. --follow, --snapshot, --columnar, --external-sort and --partitions
+ * each load the drivers their own way, so at most one of them may be given.
+ */
+class Options {
+    static final String USAGE = "Usage: java -jar delivery-tracker.jar [--parallel] [--batch] [--output FILE]"
+            + " [--snapshot FILE [--snapshot-areas-only] | --follow | --columnar | --external-sort [--memory MB]"
+            + " | --partitions N] [--serve PORT|unix:PATH] [--route-cache N] [--metrics] [driver.txt [cmd.txt]]";
+    // Options that take the next argument as their value
+    private static final List<String> WITH_VALUES = Arrays.asList("--output", "--snapshot", "--memory", "--partitions",
+            "--route-cache", "--serve");
+
+    // Parse the driver file on all cores
+    boolean parallel;
+    // Run the command file as one plan with buffered output
+    boolean batch;
+    // File to write batch output to, or null for standard output
+    String outputFilename;
+    // Binary snapshot to load the drivers from, and to rebuild when it is stale
+    String snapshotFilename;
+    // Keep the route vertices in the snapshot, so covers works on drivers loaded from it
+    boolean snapshotGeometry = true;
+    // Keep following the driver file for appended routes after the command file has run
+    boolean follow;
+    // Address to serve queries on after loading the drivers ("unix:PATH" or a loopback TCP port), or null
+    String serveAddress;
+    // Keep the drivers in off-heap columns instead of a LinkedList of Driver objects
+    boolean columnar;
+    // Sort the driver file in runs spilled to disk instead of loading it into a LinkedList
+    boolean externalSort;
+    // Heap the external sort may hold drivers in, in megabytes
+    long memoryMegabytes = 256;
+    // Number of worker processes to shard the drivers over, or 0 to keep them in this JVM
+    int partitions;
+    // Collect metrics and print a summary to standard error at the end of the run
+    boolean metrics;
+    // Positional arguments: the driver file name, then the command file name
+    final List<String> filenames = new ArrayList<>();
+
+    /**
+     * Parses the command line.
+     * @param args The arguments passed to main.
+     * @return The parsed options.
+     * @throws IllegalArgumentException If an option is unknown, lacks its value, or cannot be
+     *         combined with another one.
+     */
+    static Options parse(String[] args) {
+        Options options = new Options();
+        try {
+            read(args, options);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage(), e);
+        }
+        options.checkModes();
+        if (options.filenames.size() > 2) {
+            throw new IllegalArgumentException("Too many file names: " + String.join(" ", options.filenames));
+        }
+        return options;
+    }
+
+    /**
+     * Sets the options each argument names, and collects the rest as file names.
+     */
+    private static void read(String[] args, Options options) {
+        for (int i = 0; i < args.length; i++) {
+            if ("--parallel".equals(args[i])) {
+                options.parallel = true;
+            } else if ("--batch".equals(args[i])) {
+                options.batch = true;
+            } else if ("--output".equals(args[i]) && i + 1 < args.length) {
+                options.batch = true;
+                options.outputFilename = args[++i];
+            } else if ("--snapshot".equals(args[i]) && i + 1 < args.length) {
+                options.snapshotFilename = args[++i];
+            } else if ("--snapshot-areas-only".equals(args[i])) {
+                options.snapshotGeometry = false;
+            } else if ("--follow".equals(args[i])) {
+                options.follow = true;
+            } else if ("--columnar".equals(args[i])) {
+                options.columnar = true;
+            } else if ("--external-sort".equals(args[i])) {
+                options.externalSort = true;
+            } else if ("--memory".equals(args[i]) && i + 1 < args.length) {
+                options.memoryMegabytes = Long.parseLong(args[++i]);
+            } else if ("--partitions".equals(args[i]) && i + 1 < args.length) {
+                options.partitions = Integer.parseInt(args[++i]);
+            } else if ("--metrics".equals(args[i])) {
+                // Must be set before Metrics is first used, since its switch is read once
+                System.setProperty("deliverytracker.metrics", "true");
+                options.metrics = true;
+            } else if ("--route-cache".equals(args[i]) && i + 1 < args.length) {
+                // Read once by GeometryCache, like the metrics switch
+                System.setProperty("deliverytracker.routeCache", String.valueOf(Integer.parseInt(args[++i])));
+            } else if ("--serve".equals(args[i]) && i + 1 < args.length) {
+                options.serveAddress = args[++i];
+            } else if (WITH_VALUES.contains(args[i])) {
+                throw new IllegalArgumentException(args[i] + " needs a value");
+            } else if (args[i].startsWith("--")) {
+                // Otherwise a mistyped option would be taken for the driver file
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            } else {
+                options.filenames.add(args[i]);
+            }
+        }
+    }
+
+    /**
+     * Rejects options that Main could not honour together, since it runs only one way of
+     * loading the drivers.
+     */
+    private void checkModes() {
+        List<String> modes = new ArrayList<>();
+        if (follow) {
+            modes.add("--follow");
+        }
+        if (snapshotFilename != null) {
+            modes.add("--snapshot");
+        }
+        if (columnar) {
+            modes.add("--columnar");
+        }
+        if (externalSort) {
+            modes.add("--external-sort");
+        }
+        if (partitions > 0) {
+            modes.add("--partitions");
+        }
+        if (modes.size() > 1) {
+            throw new IllegalArgumentException(String.join(" and ", modes) + " cannot be combined");
+        }
+        // A server answers from a LinkedList or, with --follow, from a registry
+        if (serveAddress != null && (columnar || externalSort || partitions > 0)) {
+            throw new IllegalArgumentException("--serve cannot be combined with " + modes.get(0));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package deliverytracker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Reads a driver route file on a fork-join pool.
+ * The file is split at line boundaries into chunks, and each chunk is parsed by its own
+ * RouteFileParser into its own LinkedList, which indexes its drivers as they arrive. The
+ * parsers share one thread-safe GeometryCache, so identical routes in different chunks share
+ * their geometry. Neighbouring chunks' lists are then joined pairwise up the task tree with
+ * LinkedList.appendAll, which merges the indexes instead of re-indexing the drivers, so the
+ * merging runs in parallel too. The drivers end up in the list in original file order, so the
+ * result is identical to a serial read.
+ */
+public class ParallelRouteReader {
+    // Chunks smaller than this are not worth a separate task
+    private static final long MIN_CHUNK_SIZE = 1 << 22;
+    // Chunks per worker, so uneven lines still balance across the pool
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Reads drivers from a route file in parallel and appends them to the list.
+     * @param path The file to read.
+     * @param parallelism The number of worker threads to use.
+     * @param driverList The linked list to populate with Driver objects.
+     * @return The number of rejected routes.
+     */
+    public static long read(Path path, int parallelism, LinkedList<Driver> driverList) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = splitAtLines(channel, parallelism);
+            GeometryCache cache = GeometryCache.DEFAULT_CAPACITY > 0
+                    ? new GeometryCache(GeometryCache.DEFAULT_CAPACITY, parallelism * CHUNKS_PER_THREAD) : null;
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                Chunk whole = pool.invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1, cache));
+                driverList.appendAll(whole.drivers);
+                return whole.rejected;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Splits the file into chunks that each start at the beginning of a line.
+     * @param channel The channel to read the file from.
+     * @param parallelism The number of worker threads that will parse the chunks.
+     * @return The chunk boundaries, starting at 0 and ending at the file size.
+     */
+    static long[] splitAtLines(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, size / ((long) parallelism * CHUNKS_PER_THREAD) + 1);
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long position = chunkSize;
+        while (position < size) {
+            long lineStart = nextLineStart(channel, position, buffer);
+            if (lineStart >= size) {
+                break;
+            }
+            bounds.add(lineStart);
+            position = lineStart + chunkSize;
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the start of the first line after the given offset.
+     * @param channel The channel to read the file from.
+     * @param position The offset to start scanning at.
+     * @param buffer A scratch buffer for reading.
+     * @return The offset just past the next line terminator, or the file size if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * The indexed drivers parsed from a run of chunks, in file order.
+     */
+    private static class Chunk {
+        private final LinkedList<Driver> drivers = new LinkedList<>();
+        private long rejected;
+    }
+
+    /**
+     * Parses a range of chunks, splitting in half until a single chunk is left, and joins the
+     * two halves' lists.
+     */
+    private static class ChunkTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+        private final GeometryCache cache;
+
+        ChunkTask(FileChannel channel, long[] bounds, int from, int to, GeometryCache cache) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.cache = cache;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                ChunkTask left = new ChunkTask(channel, bounds, from, middle, cache);
+                ChunkTask right = new ChunkTask(channel, bounds, middle, to, cache);
+                left.fork();
+                Chunk later = right.compute();
+                Chunk result = left.join();
+                result.drivers.appendAll(later.drivers);
+                result.rejected += later.rejected;
+                return result;
+            }
+            Chunk chunk = new Chunk();
+            RouteFileParser parser = new RouteFileParser(RouteFileParser.driverSink(chunk.drivers::add), cache);
+            try {
+                parser.parse(channel, bounds[from], bounds[to], true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            chunk.rejected = parser.getRejectedCount();
+            return chunk;
+        }
+    }
+}
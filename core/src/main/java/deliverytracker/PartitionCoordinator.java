@@ -0,0 +1,372 @@
+package deliverytracker;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import deliverytracker.PartitionWorker.ShardDriver;
+
+/**
+ * Runs commands against drivers spread over several PartitionWorker processes, so the fleet is
+ * not limited to the heap of one JVM.
+ *
+ * Drivers are sharded by a hash of their case-folded name, so a lookup asks only the shard that
+ * owns the name. Sorts run on every shard. Every other query runs on every shard, and each shard
+ * answers with the drivers that can be in the fleet's answer; the coordinator puts them in the
+ * order a single list would, which is file order wherever that list breaks ties, and writes the
+ * answer through Command.writeAnswer. The final list is a streaming k-way merge of the shards'
+ * sorted lists, so it is never held in the coordinator. Percentiles are found by a binary search
+ * over the area values that only counts drivers on the shards.
+ *
+ * The output is the same as running the commands against one LinkedList of the whole file.
+ */
+public class PartitionCoordinator implements Closeable {
+    private static final String NEWLINE = System.lineSeparator();
+    // How long a worker may take to exit once its connection is closed
+    private static final long EXIT_TIMEOUT_SECONDS = 10;
+    // Orders shard drivers by their position in the driver file
+    private static final Comparator<ShardDriver> BY_OFFSET = (a, b) -> Long.compare(a.offset, b.offset);
+
+    private final List<Process> workers = new ArrayList<>();
+    private final List<SocketChannel> connections = new ArrayList<>();
+    private final List<BufferedReader> readers = new ArrayList<>();
+    private final List<Writer> writers = new ArrayList<>();
+    // The sorts run so far, and the order they leave every shard's list in
+    private final List<Command> sorts = new ArrayList<>();
+    private Comparator<ShardDriver> listOrder = BY_OFFSET;
+    // Number of drivers on all shards
+    private long size;
+
+    /**
+     * Starts one worker process per shard and waits until every shard is loaded.
+     * The workers load their shards at the same time. They run on the same Java installation and
+     * class path as this JVM, with its JVM options.
+     * @param driverFilename The name of the driver file.
+     * @param shards The number of shards.
+     */
+    public PartitionCoordinator(String driverFilename, int shards) throws IOException {
+        if (shards < 1) {
+            throw new IllegalArgumentException("A partitioned run needs at least one shard, not " + shards);
+        }
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                workers.add(new ProcessBuilder(workerCommand(driverFilename, shard, shards))
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start());
+            }
+            for (int shard = 0; shard < shards; shard++) {
+                connections.add(connect(shard));
+            }
+            for (int shard = 0; shard < shards; shard++) {
+                send(shard, "size");
+            }
+            for (int shard = 0; shard < shards; shard++) {
+                size += Long.parseLong(readLine(shard));
+                readLine(shard); // The end of the answer
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of drivers on all shards.
+     * @return The number of drivers.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Runs one command against the whole fleet.
+     * @param command The command.
+     * @param out Where to write the command's output, the same as against a single list.
+     */
+    public void execute(Command command, Appendable out) throws IOException {
+        switch (command.getType()) {
+            case SORT:
+                for (int shard = 0; shard < workers.size(); shard++) {
+                    send(shard, "cmd " + command);
+                }
+                for (int shard = 0; shard < workers.size(); shard++) {
+                    readRecords(shard);
+                }
+                sorts.add(command);
+                listOrder = thenByOffset(ExternalSorter.orderOf(sorts));
+                return;
+            case LOOKUP:
+                int owner = PartitionWorker.shardOf(command.getName(), workers.size());
+                send(owner, "cmd " + command);
+                command.writeAnswer(readRecords(owner), out);
+                return;
+            case PERCENTILE:
+                command.writeAnswer(percentile(command.getLow()), out);
+                return;
+            default:
+                break;
+        }
+        for (int shard = 0; shard < workers.size(); shard++) {
+            send(shard, "cmd " + command);
+        }
+        List<ShardDriver> candidates = new ArrayList<>();
+        for (int shard = 0; shard < workers.size(); shard++) {
+            candidates.addAll(readRecords(shard));
+        }
+        List<? extends Driver> answer;
+        switch (command.getType()) {
+            case RANGE:
+                candidates.sort(thenByOffset(Driver.BY_AREA));
+                answer = candidates;
+                break;
+            case COVERS:
+                candidates.sort(BY_OFFSET);
+                answer = candidates;
+                break;
+            case NEAREST:
+                // The closest drivers of the fleet are among the closest of each shard
+                candidates.sort(BY_OFFSET);
+                AreaIndex index = new AreaIndex();
+                for (ShardDriver candidate : candidates) {
+                    index.add(candidate);
+                }
+                answer = index.nearest(command.getLow());
+                break;
+            case TOP:
+                // Ties go to the driver that comes first in the list, as in DriverSelection
+                Comparator<Driver> order = command.getComparator();
+                candidates.sort((a, b) -> {
+                    int compared = order.compare(a, b);
+                    return compared != 0 ? compared : listOrder.compare(a, b);
+                });
+                answer = candidates.subList(0, Math.max(0, Math.min((int) command.getLow(), candidates.size())));
+                break;
+            case PREFIX:
+                candidates.sort(thenByOffset(Comparator.comparing(driver -> LinkedList.nameKey(driver.getName()))));
+                answer = candidates.subList(0, Math.max(0, Math.min((int) command.getLow(), candidates.size())));
+                break;
+            default:
+                throw new IllegalStateException("Unknown command type " + command.getType());
+        }
+        command.writeAnswer(answer, out);
+    }
+
+    /**
+     * Writes the whole fleet in its current order, one driver per line, as
+     * Main.displayDriverList would. The shards stream their lists and are merged as they arrive.
+     * @param out Where to write the drivers.
+     */
+    public void display(Appendable out) throws IOException {
+        for (int shard = 0; shard < workers.size(); shard++) {
+            send(shard, "list");
+        }
+        PriorityQueue<ShardCursor> heap = new PriorityQueue<>(workers.size(), (a, b) -> listOrder.compare(a.current, b.current));
+        for (int shard = 0; shard < workers.size(); shard++) {
+            ShardCursor cursor = new ShardCursor(shard);
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        while (!heap.isEmpty()) {
+            ShardCursor smallest = heap.poll();
+            out.append(smallest.current.toString()).append(NEWLINE);
+            if (smallest.advance()) {
+                heap.add(smallest);
+            }
+        }
+    }
+
+    /**
+     * Closes the connections, which makes the workers exit, and waits for them.
+     */
+    @Override
+    public void close() throws IOException {
+        for (SocketChannel connection : connections) {
+            connection.close();
+        }
+        for (Process worker : workers) {
+            try {
+                if (!worker.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    worker.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                worker.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * The next unread driver of one shard's list.
+     */
+    private final class ShardCursor {
+        private final int shard;
+        private ShardDriver current;
+
+        ShardCursor(int shard) {
+            this.shard = shard;
+        }
+
+        /**
+         * Reads the next driver into current.
+         * @return False at the end of the shard's list.
+         */
+        boolean advance() throws IOException {
+            String line = readLine(shard);
+            current = line.isEmpty() ? null : parseRecord(line);
+            return current != null;
+        }
+    }
+
+    /**
+     * Finds the driver at a percentile of area with the nearest-rank method, like
+     * LinkedList.searchByAreaPercentile. The answer is the smallest area that at least rank
+     * drivers do not exceed, so it is found by bisecting the doubles in their sort order and
+     * asking every shard how many of its drivers are at most the middle value.
+     * @param percentile The percentile, from 0 to 100; values outside are clamped.
+     * @return A driver with the area at that rank, or an empty list if there are no drivers.
+     */
+    private List<Driver> percentile(double percentile) throws IOException {
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        double clamped = Math.max(0, Math.min(100, percentile));
+        long rank = Math.max(1, (long) Math.ceil(clamped / 100 * size));
+        if (count(Double.POSITIVE_INFINITY) < rank) {
+            // Only NaN areas rank this high
+            return Collections.singletonList(new Driver("", Double.NaN));
+        }
+        long low = RadixSort.areaKey(Double.NEGATIVE_INFINITY);
+        long high = RadixSort.areaKey(Double.POSITIVE_INFINITY);
+        while (Long.compareUnsigned(low, high) < 0) {
+            long middle = low + ((high - low) >>> 1);
+            if (count(RadixSort.areaOf(middle)) >= rank) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        // -0.0 counts the same as 0.0 but is never an area, so the search can stop on it
+        return Collections.singletonList(new Driver("", RadixSort.areaOf(low) + 0.0));
+    }
+
+    /**
+     * Counts the drivers on all shards whose area is at most the given value.
+     */
+    private long count(double max) throws IOException {
+        for (int shard = 0; shard < workers.size(); shard++) {
+            send(shard, "count " + max);
+        }
+        long count = 0;
+        for (int shard = 0; shard < workers.size(); shard++) {
+            count += Long.parseLong(readLine(shard));
+            readLine(shard);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the command line that starts a worker, forwarding this JVM's options and the
+     * system properties the options set, except a debugger agent, whose port would clash.
+     */
+    private static List<String> workerCommand(String driverFilename, int shard, int shards) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String option : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (!option.startsWith("-agentlib:jdwp")) {
+                command.add(option);
+            }
+        }
+        String routeCache = System.getProperty("deliverytracker.routeCache");
+        if (routeCache != null) {
+            command.add("-Ddeliverytracker.routeCache=" + routeCache);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(PartitionWorker.class.getName());
+        command.add(driverFilename);
+        command.add(String.valueOf(shard));
+        command.add(String.valueOf(shards));
+        return command;
+    }
+
+    /**
+     * Waits for a worker to announce its port and connects to it.
+     */
+    private SocketChannel connect(int shard) throws IOException {
+        BufferedReader announcement = new BufferedReader(new InputStreamReader(workers.get(shard).getInputStream(), StandardCharsets.UTF_8));
+        String line = announcement.readLine();
+        if (line == null || !line.startsWith("READY ")) {
+            throw new IOException("Partition worker " + shard + " exited before it was ready");
+        }
+        int port = Integer.parseInt(line.substring("READY ".length()).trim());
+        SocketChannel connection = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        readers.add(new BufferedReader(new InputStreamReader(Channels.newInputStream(connection), StandardCharsets.UTF_8), 1 << 16));
+        writers.add(new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(connection), StandardCharsets.UTF_8)));
+        return connection;
+    }
+
+    private void send(int shard, String request) throws IOException {
+        Writer writer = writers.get(shard);
+        writer.write(request);
+        writer.write(NEWLINE);
+        writer.flush();
+    }
+
+    private String readLine(int shard) throws IOException {
+        String line = readers.get(shard).readLine();
+        if (line == null) {
+            throw new IOException("Partition worker " + shard + " closed its connection");
+        }
+        return line;
+    }
+
+    /**
+     * Reads one answer of driver records, up to the empty line that ends it.
+     */
+    private List<ShardDriver> readRecords(int shard) throws IOException {
+        List<ShardDriver> drivers = new ArrayList<>();
+        String line;
+        while (!(line = readLine(shard)).isEmpty()) {
+            drivers.add(parseRecord(line));
+        }
+        return drivers;
+    }
+
+    /**
+     * Parses an "OFFSET\tAREA\tNAME" record.
+     */
+    private static ShardDriver parseRecord(String line) {
+        int first = line.indexOf('\t');
+        int second = line.indexOf('\t', first + 1);
+        return new ShardDriver(line.substring(second + 1), Double.parseDouble(line.substring(first + 1, second)), null,
+                Long.parseLong(line.substring(0, first)));
+    }
+
+    /**
+     * Extends an order so drivers it ranks equal keep their file order.
+     */
+    private static Comparator<ShardDriver> thenByOffset(Comparator<? super ShardDriver> order) {
+        return (a, b) -> {
+            int compared = order.compare(a, b);
+            return compared != 0 ? compared : BY_OFFSET.compare(a, b);
+        };
+    }
+}
@@ -0,0 +1,200 @@
+package deliverytracker;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * One shard of a partitioned run: a process that loads the drivers whose names hash to its
+ * shard and answers a PartitionCoordinator over a loopback socket.
+ *
+ * Once loaded, the worker binds an ephemeral loopback port, prints "READY PORT" on standard
+ * output and serves a single connection. Requests are lines of UTF-8 text:
+ * "cmd LINE" runs a command file line against the shard, "list" lists the shard in its current
+ * order, "count MAX" counts the drivers whose area is at most MAX and "size" counts them all.
+ * Drivers are answered one per line as "OFFSET\tAREA\tNAME", where OFFSET is the byte offset of
+ * the driver's line in the driver file, so the coordinator can restore file order across shards.
+ * Every answer ends with an empty line; a sort answers with just the empty line once it is done.
+ * The worker exits when the coordinator closes the connection.
+ */
+public class PartitionWorker {
+    private static final String NEWLINE = System.lineSeparator();
+
+    /**
+     * A driver that remembers where its route is in the driver file.
+     */
+    static final class ShardDriver extends Driver {
+        // Byte offset of the driver's line, which orders drivers from different shards by file order
+        final long offset;
+
+        ShardDriver(String name, double area, RouteGeometry geometry, long offset) {
+            super(name, area, geometry);
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Returns the shard that owns the drivers with the given name.
+     * Names that match ignoring case land on the same shard, so a lookup only asks one worker.
+     * @param name The driver's name.
+     * @param shards The number of shards.
+     * @return The shard, from 0 to shards - 1.
+     */
+    public static int shardOf(String name, int shards) {
+        return Math.floorMod(LinkedList.nameKey(name).hashCode(), shards);
+    }
+
+    /**
+     * Loads one shard and serves it.
+     * @param args The driver file name, the shard number and the number of shards.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: PartitionWorker DRIVERFILE SHARD SHARDS");
+            System.exit(2);
+        }
+        LinkedList<Driver> driverList = load(Paths.get(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            System.out.println("READY " + ((InetSocketAddress) server.getLocalAddress()).getPort());
+            System.out.flush();
+            try (SocketChannel connection = server.accept()) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(connection), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(connection), StandardCharsets.UTF_8), 1 << 16);
+                String line;
+                while ((line = in.readLine()) != null) {
+                    answer(driverList, line, out);
+                    out.write(NEWLINE);
+                    out.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the drivers of one shard from the driver file, in file order.
+     * Lines of other shards are skipped before their coordinates are parsed.
+     * @param driverFile The driver file.
+     * @param shard The shard to load.
+     * @param shards The number of shards.
+     * @return The shard's drivers, each a ShardDriver.
+     */
+    static LinkedList<Driver> load(Path driverFile, int shard, int shards) throws IOException {
+        LinkedList<Driver> driverList = new LinkedList<>();
+        ShardSink sink = new ShardSink(driverList);
+        sink.parser = new RouteFileParser(sink);
+        sink.parser.setNameFilter(name -> shardOf(name, shards) == shard);
+        sink.parser.parse(driverFile);
+        driverList.mergeIndexes();
+        return driverList;
+    }
+
+    /**
+     * Adds each accepted route to the list with the offset of its line.
+     */
+    private static final class ShardSink implements RouteFileParser.RouteSink {
+        private final LinkedList<Driver> driverList;
+        private RouteFileParser parser;
+
+        ShardSink(LinkedList<Driver> driverList) {
+            this.driverList = driverList;
+        }
+
+        @Override
+        public void accept(String name, double area) {
+            driverList.add(new ShardDriver(name, area, null, parser.getLineOffset()));
+        }
+
+        @Override
+        public void accept(String name, double area, double[] xs, double[] ys, int count) {
+            driverList.add(new ShardDriver(name, area, new RouteGeometry(xs, ys, count), parser.getLineOffset()));
+        }
+
+        @Override
+        public void accept(String name, double area, RouteGeometry geometry) {
+            driverList.add(new ShardDriver(name, area, geometry, parser.getLineOffset()));
+        }
+    }
+
+    /**
+     * Answers one request, without the empty line that ends it.
+     * @param driverList The shard's drivers.
+     * @param request The request line.
+     * @param out Where to write the answer.
+     */
+    static void answer(LinkedList<Driver> driverList, String request, Writer out) throws IOException {
+        if ("list".equals(request)) {
+            for (Driver driver : driverList) {
+                appendRecord(driver, out);
+            }
+        } else if ("size".equals(request)) {
+            out.append(String.valueOf(driverList.size())).append(NEWLINE);
+        } else if (request.startsWith("count ")) {
+            double max = Double.parseDouble(request.substring("count ".length()));
+            out.append(String.valueOf(driverList.countByAreaRange(Double.NEGATIVE_INFINITY, max))).append(NEWLINE);
+        } else if (request.startsWith("cmd ")) {
+            Command command = Command.parse(request.substring("cmd ".length()));
+            if (command == null) {
+                throw new IOException("Invalid command: " + request);
+            }
+            if (command.getType() == Command.Type.SORT) {
+                command.execute(driverList, out); // A sort writes nothing
+            } else {
+                appendRecords(find(driverList, command), out);
+            }
+        } else {
+            throw new IOException("Unknown request: " + request);
+        }
+    }
+
+    /**
+     * Runs a query against the shard and returns every driver the coordinator needs to answer
+     * it for the whole fleet: the shard's own answer, which for top, prefix and nearest holds
+     * every driver of the shard that can be in the fleet's answer.
+     * @param driverList The shard's drivers.
+     * @param command The query.
+     * @return The shard's matches, in the order the query lists them.
+     */
+    private static List<Driver> find(LinkedList<Driver> driverList, Command command) throws IOException {
+        switch (command.getType()) {
+            case LOOKUP:
+                return driverList.searchAllByName(command.getName());
+            case RANGE:
+                return driverList.searchByAreaRange(command.getLow(), command.getHigh());
+            case NEAREST:
+                return driverList.searchNearestArea(command.getLow());
+            case TOP:
+                return DriverSelection.top(driverList, (int) command.getLow(), command.getComparator());
+            case PREFIX:
+                return driverList.searchByPrefix(command.getName(), (int) command.getLow());
+            case COVERS:
+                return driverList.searchCovering(command.getLow(), command.getHigh());
+            default:
+                throw new IOException("A worker does not answer " + command.getType() + " commands");
+        }
+    }
+
+    private static void appendRecords(List<Driver> drivers, Writer out) throws IOException {
+        for (Driver driver : drivers) {
+            appendRecord(driver, out);
+        }
+    }
+
+    private static void appendRecord(Driver driver, Writer out) throws IOException {
+        out.append(String.valueOf(((ShardDriver) driver).offset)).append('\t')
+                .append(String.valueOf(driver.getArea())).append('\t')
+                .append(driver.getName()).append(NEWLINE);
+    }
+}
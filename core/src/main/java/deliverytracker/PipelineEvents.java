@@ -0,0 +1,70 @@
+package deliverytracker;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder events for each phase of the pipeline.
+ * They are only created when metrics are enabled; record them with
+ * -XX:StartFlightRecording together with --metrics.
+ */
+final class PipelineEvents {
+    private PipelineEvents() {
+    }
+
+    @Name("deliverytracker.Parse")
+    @Label("Parse Routes")
+    @Category("Delivery Tracker")
+    @Description("Parsing a byte range of a route file")
+    static class Parse extends Event {
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Routes Accepted")
+        long accepted;
+
+        @Label("Routes Rejected")
+        long rejected;
+    }
+
+    @Name("deliverytracker.Area")
+    @Label("Route Area")
+    @Category("Delivery Tracker")
+    @Description("Computing the area of one route")
+    static class Area extends Event {
+        @Label("Vertices")
+        int vertices;
+
+        @Label("Vectorized")
+        boolean vectorized;
+    }
+
+    @Name("deliverytracker.Sort")
+    @Label("Sort Drivers")
+    @Category("Delivery Tracker")
+    @Description("Sorting the driver list by a key")
+    static class Sort extends Event {
+        @Label("Key")
+        String key;
+
+        @Label("Order")
+        String order;
+    }
+
+    @Name("deliverytracker.Search")
+    @Label("Search Drivers")
+    @Category("Delivery Tracker")
+    @Description("Running one lookup or area query")
+    static class Search extends Event {
+        @Label("Command")
+        String command;
+
+        @Label("Found")
+        boolean found;
+    }
+}
@@ -0,0 +1,64 @@
+package deliverytracker;
+
+/**
+ * Computes polygon areas with the shoelace formula over packed primitive coordinates.
+ * Vertices are stored as parallel x and y arrays, so the kernel walks two flat arrays
+ * and allocates nothing. Very large polygons use a vectorized kernel with compensated
+ * summation when the jdk.incubator.vector module is added to the JVM.
+ */
+public class PolygonArea {
+    // Polygons with at least this many vertices use the vectorized kernel
+    static final int VECTOR_THRESHOLD = 1024;
+    // Whether the JVM was started with --add-modules jdk.incubator.vector
+    private static final boolean VECTOR_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /**
+     * Calculates the area enclosed by a polygon.
+     * Uses the shoelace formula in trapezoid form: each edge from vertex i - 1 to vertex i adds
+     * (x[i - 1] + x[i]) * (y[i - 1] - y[i]). The closing edge from the last vertex back to the
+     * first is added first, then the other edges in vertex order, and the area is half the
+     * absolute value of the sum. Polygons of at least VECTOR_THRESHOLD vertices are summed per
+     * lane by VectorShoelace instead, which may differ in the last bits.
+     * @param xs The x coordinates of the vertices.
+     * @param ys The y coordinates of the vertices.
+     * @param count The number of vertices.
+     * @return The calculated area.
+     */
+    public static double area(double[] xs, double[] ys, int count) {
+        if (!Metrics.ENABLED) {
+            return compute(xs, ys, count);
+        }
+        PipelineEvents.Area event = new PipelineEvents.Area();
+        event.begin();
+        long start = System.nanoTime();
+        double area = compute(xs, ys, count);
+        Metrics.AREA.record(System.nanoTime() - start);
+        event.vertices = count;
+        event.vectorized = count >= VECTOR_THRESHOLD && VECTOR_AVAILABLE;
+        event.commit();
+        return area;
+    }
+
+    private static double compute(double[] xs, double[] ys, int count) {
+        if (count >= VECTOR_THRESHOLD && VECTOR_AVAILABLE) {
+            return VectorShoelace.area(xs, ys, count);
+        }
+        if (count == 0) {
+            return 0.0;
+        }
+        double area = (xs[count - 1] + xs[0]) * (ys[count - 1] - ys[0]);
+        for (int i = 1; i < count; i++) {
+            area += (xs[i - 1] + xs[i]) * (ys[i - 1] - ys[i]);
+        }
+        return 0.5 * Math.abs(area);
+    }
+
+    /**
+     * Returns whether polygons above the vector threshold use the vectorized kernel.
+     * @return True if the jdk.incubator.vector module is available.
+     */
+    public static boolean isVectorized() {
+        return VECTOR_AVAILABLE;
+    }
+}
@@ -0,0 +1,261 @@
+package deliverytracker;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the command file grammar over a local socket, so the drivers are loaded once and
+ * queried by many clients.
+ *
+ * Each client sends one command per line and gets back the command's output followed by an
+ * empty line. The drivers are kept in a DriverRegistry, so drivers can be added while clients
+ * query them. Lookups go straight to the registry. The other queries run against the
+ * registry's read-only view in the current order, which the registry builds once per order
+ * and number of drivers, so readers never wait for a sort and never see a half-sorted list.
+ * Sorts are shared: a sort only publishes the sorts so far through a volatile field, and from
+ * then on every client's queries use the view in the order they leave the list in. As in the
+ * command file, a sort is stable, so it keeps the order of an earlier sort on the other key
+ * among its ties.
+ *
+ * Connections get a virtual thread each when the runtime has them. The build targets Java 17,
+ * which does not, so the executor is looked up by reflection and on Java 17 every connection
+ * gets a pooled platform thread instead.
+ */
+public class QueryServer implements Closeable {
+    private static final String NEWLINE = System.lineSeparator();
+    // Connections waiting to be accepted
+    private static final int BACKLOG = 1024;
+    // File type bits of a unix:mode attribute, and the type of a socket
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFSOCK = 0140000;
+
+    private final ServerSocketChannel channel;
+    private final SocketAddress address;
+    private final ExecutorService connections;
+    // The drivers being served
+    private final DriverRegistry registry;
+    // The sorts clients asked for, oldest first, with only the last sort on each key; replaced as a whole
+    private volatile List<Command> sorts = List.of();
+
+    /**
+     * Binds a server to the given address.
+     * @param driverList The drivers to serve. The server keeps them in a registry of its own.
+     * @param address A loopback TCP address or a Unix domain socket address.
+     */
+    public QueryServer(LinkedList<Driver> driverList, SocketAddress address) throws IOException {
+        this(registryOf(driverList), address);
+    }
+
+    /**
+     * Binds a server to the given address.
+     * @param registry The drivers to serve; drivers added to it later are served too.
+     * @param address A loopback TCP address or a Unix domain socket address.
+     */
+    public QueryServer(DriverRegistry registry, SocketAddress address) throws IOException {
+        this.registry = registry;
+        if (address instanceof UnixDomainSocketAddress) {
+            removeStaleSocket(((UnixDomainSocketAddress) address).getPath());
+            channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            channel = ServerSocketChannel.open();
+        }
+        channel.bind(address, BACKLOG);
+        this.address = channel.getLocalAddress();
+        connections = newConnectionExecutor();
+    }
+
+    private static DriverRegistry registryOf(LinkedList<Driver> driverList) {
+        DriverRegistry registry = new DriverRegistry();
+        for (Driver driver : driverList) {
+            registry.add(driver);
+        }
+        return registry;
+    }
+
+    /**
+     * Deletes a socket file left behind by an earlier run, which would make the bind fail.
+     * Anything else at the path is left alone.
+     * @param path The path the server is about to bind.
+     * @throws IOException If the path exists and is not a socket file.
+     */
+    private static void removeStaleSocket(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        boolean socket;
+        try {
+            int mode = (Integer) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+            socket = (mode & S_IFMT) == S_IFSOCK;
+        } catch (UnsupportedOperationException e) {
+            // No unix attributes: a socket is neither a file, a directory nor a link
+            socket = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther();
+        }
+        if (!socket) {
+            throw new IOException(path + " already exists and is not a socket; refusing to replace it");
+        }
+        Files.delete(path);
+    }
+
+    /**
+     * Parses a server address given on the command line.
+     * @param text "unix:PATH" for a Unix domain socket, otherwise a TCP port on the loopback interface.
+     * @return The socket address.
+     * @throws NumberFormatException If the port is not a number.
+     */
+    public static SocketAddress parseAddress(String text) {
+        if (text.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(Paths.get(text.substring("unix:".length())));
+        }
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(text));
+    }
+
+    /**
+     * Returns the address the server is bound to, with the actual port if port 0 was requested.
+     * @return The bound address.
+     */
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Accepts connections until the server is closed, handing each to its own thread.
+     */
+    public void serve() throws IOException {
+        try {
+            while (true) {
+                SocketChannel client = channel.accept();
+                connections.execute(() -> handle(client));
+            }
+        } catch (AsynchronousCloseException e) {
+            // Closed by close()
+        }
+    }
+
+    /**
+     * Stops accepting connections and interrupts the open ones.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        connections.shutdownNow();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    /**
+     * Answers one client's commands until it disconnects.
+     * Output is flushed only once no further command is already waiting, so a client that
+     * pipelines its commands gets its answers in few writes.
+     * @param client The connected client.
+     */
+    private void handle(SocketChannel client) {
+        try (SocketChannel connection = client) {
+            if (!(address instanceof UnixDomainSocketAddress)) {
+                connection.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(connection), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(connection), StandardCharsets.UTF_8), 1 << 16);
+            String line;
+            while ((line = in.readLine()) != null) {
+                answer(line, out);
+                out.append(NEWLINE);
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // The client went away; nothing to answer
+        }
+    }
+
+    /**
+     * Runs one command line and writes its output.
+     * @param line The command line.
+     * @param out Where to write the output.
+     */
+    void answer(String line, Writer out) throws IOException {
+        Command command;
+        try {
+            command = Command.parse(line);
+        } catch (NumberFormatException e) {
+            out.append("Error: Invalid number format in commands.").append(NEWLINE);
+            return;
+        }
+        if (command == null) {
+            return;
+        }
+        if (command.getType() == Command.Type.SORT) {
+            addSort(command);
+        } else if (command.getType() == Command.Type.LOOKUP) {
+            command.writeAnswer(registry.searchAllByName(command.getName()), out);
+        } else {
+            command.execute(currentView(), out);
+        }
+    }
+
+    /**
+     * Publishes a sort after the earlier ones. An earlier sort on the same key is dropped, since
+     * the new one overrides it, so at most one sort per key is kept.
+     * @param sort The sort command; a radix sort gives the same order.
+     */
+    private synchronized void addSort(Command sort) {
+        List<Command> updated = new ArrayList<>(sorts);
+        updated.removeIf(earlier -> earlier.getKey().equals(sort.getKey()));
+        updated.add(sort);
+        sorts = List.copyOf(updated);
+    }
+
+    /**
+     * Returns the registry's read-only view of the drivers in the order of the sorts so far.
+     * @return The view.
+     */
+    private LinkedList<Driver> currentView() {
+        return registry.sorted(sorts);
+    }
+
+    /**
+     * Creates the executor that runs one task per connection.
+     * Uses a virtual thread per connection when the runtime has them (Java 21 and later), found
+     * by reflection since the build targets Java 17, and otherwise a cached pool of daemon
+     * platform threads.
+     * @return The executor.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "query-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
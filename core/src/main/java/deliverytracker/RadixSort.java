@@ -0,0 +1,311 @@
+package deliverytracker;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts drivers by a key held in a primitive long, with a least-significant-digit radix sort.
+ * No comparator runs on the key itself, so there are no virtual calls per comparison.
+ *
+ * An area key is the IEEE-754 bit pattern with the sign bit flipped for positive values and all
+ * bits flipped for negative ones, which orders longs exactly as Double.compare orders doubles.
+ * A name key packs the characters after the prefix all names share: eight of them as bytes when
+ * every name is Latin-1, otherwise four UTF-16 chars. Names only shorter keys can tell apart
+ * end up next to each other, and a fixup pass sorts each such run with the name comparator.
+ *
+ * The sort is stable in both directions, so it returns the same order as LinkedList's merge sort.
+ * Above PARALLEL_THRESHOLD drivers, key extraction, every digit pass and the fixup run in
+ * chunks on the common fork-join pool.
+ */
+public class RadixSort {
+    // Lists smaller than this are sorted on the calling thread
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Runs of equal name keys up to this length are fixed up by insertion sort
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    /**
+     * Returns the order that sorts the drivers by area.
+     * @param drivers The drivers, in their current order.
+     * @param descending Whether to sort in descending order; ties keep their current order either way.
+     * @return The positions of the drivers in sorted order.
+     */
+    public static int[] byArea(Driver[] drivers, boolean descending) {
+        int n = drivers.length;
+        long[] keys = new long[n];
+        forEachChunk(n, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                long key = areaKey(drivers[i].getArea());
+                keys[i] = descending ? ~key : key;
+            }
+        });
+        return sort(keys);
+    }
+
+    /**
+     * Returns the order that sorts the drivers by name, as String.compareTo orders them.
+     * @param drivers The drivers, in their current order.
+     * @param descending Whether to sort in descending order; ties keep their current order either way.
+     * @return The positions of the drivers in sorted order.
+     */
+    public static int[] byName(Driver[] drivers, boolean descending) {
+        int n = drivers.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        String first = drivers[0].getName();
+        int shared = first.length();
+        // Later names only ever shorten the shared prefix, so the first name's characters
+        // stand in for everyone else's in the part the prefix gives up
+        boolean latin1 = true;
+        for (int c = 0; latin1 && c < first.length(); c++) {
+            latin1 = first.charAt(c) < 0x100;
+        }
+        for (Driver driver : drivers) {
+            String name = driver.getName();
+            shared = Math.min(shared, name.length());
+            int i = 0;
+            while (i < shared && name.charAt(i) == first.charAt(i)) {
+                i++;
+            }
+            shared = i;
+            for (int c = shared; latin1 && c < name.length(); c++) {
+                latin1 = name.charAt(c) < 0x100;
+            }
+        }
+        int offset = shared;
+        boolean bytes = latin1;
+        long[] keys = new long[n];
+        forEachChunk(n, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                long key = nameKey(drivers[i].getName(), offset, bytes);
+                keys[i] = descending ? ~key : key;
+            }
+        });
+        int[] order = sort(keys);
+
+        // Sort each run of equal keys by the full name; sort() left the keys in sorted order
+        Comparator<Driver> comparator = descending ? Driver.BY_NAME.reversed() : Driver.BY_NAME;
+        forEachChunk(n, (from, to) -> {
+            // Runs belong to the chunk they start in
+            int start = from;
+            while (start > 0 && start < n && keys[start] == keys[start - 1]) {
+                start++;
+            }
+            while (start < to) {
+                int end = start + 1;
+                while (end < n && keys[end] == keys[start]) {
+                    end++;
+                }
+                if (end - start > 1) {
+                    sortRun(order, start, end, drivers, comparator);
+                }
+                start = end;
+            }
+        });
+        return order;
+    }
+
+    /**
+     * Maps a double to a long with the same order as Double.compare.
+     */
+    static long areaKey(double area) {
+        long bits = Double.doubleToLongBits(area);
+        return bits < 0 ? ~bits : bits | Long.MIN_VALUE;
+    }
+
+    /**
+     * Maps a key made by areaKey back to its double.
+     */
+    static double areaOf(long key) {
+        return Double.longBitsToDouble(key < 0 ? key & Long.MAX_VALUE : ~key);
+    }
+
+    /**
+     * Packs the characters of a name from the given offset into an unsigned long, padding short names with zeros.
+     */
+    private static long nameKey(String name, int offset, boolean bytes) {
+        int width = bytes ? 8 : 16;
+        int count = 64 / width;
+        long key = 0;
+        for (int i = 0; i < count; i++) {
+            int c = offset + i < name.length() ? name.charAt(offset + i) : 0;
+            key = key << width | c;
+        }
+        return key;
+    }
+
+    /**
+     * Sorts the keys as unsigned longs, moving each key's original position along with it.
+     * @param keys The keys; sorted in place.
+     * @return The original positions in sorted order.
+     */
+    private static int[] sort(long[] keys) {
+        int n = keys.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int chunks = n < PARALLEL_THRESHOLD ? 1 : Math.max(1, Math.min(n / (PARALLEL_THRESHOLD / 4),
+                ForkJoinPool.getCommonPoolParallelism() * 4));
+        int chunkSize = (n + chunks - 1) / chunks;
+        long[] keyBuffer = new long[n];
+        int[] orderBuffer = new int[n];
+        long[] sourceKeys = keys;
+        int[] sourceOrder = order;
+        for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+            if (pass(sourceKeys, sourceOrder, keyBuffer, orderBuffer, shift, chunks, chunkSize)) {
+                long[] swapKeys = sourceKeys;
+                sourceKeys = keyBuffer;
+                keyBuffer = swapKeys;
+                int[] swapOrder = sourceOrder;
+                sourceOrder = orderBuffer;
+                orderBuffer = swapOrder;
+            }
+        }
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, 0, keys, 0, n);
+            System.arraycopy(sourceOrder, 0, order, 0, n);
+        }
+        return order;
+    }
+
+    /**
+     * Scatters the keys by one digit into the buffers. Each chunk counts its own digits and
+     * then writes to its own slots of every bucket, so chunks run independently and the pass
+     * stays stable.
+     * @return False if every key has the same digit, in which case nothing was moved.
+     */
+    private static boolean pass(long[] keys, int[] order, long[] keysOut, int[] orderOut,
+            int shift, int chunks, int chunkSize) {
+        int n = keys.length;
+        int[][] counts = new int[chunks][RADIX];
+        forEachChunk(chunks, chunkSize, n, (chunk, from, to) -> {
+            int[] count = counts[chunk];
+            for (int i = from; i < to; i++) {
+                count[(int) (keys[i] >>> shift) & (RADIX - 1)]++;
+            }
+        });
+        int offset = 0;
+        for (int digit = 0; digit < RADIX; digit++) {
+            int total = 0;
+            for (int[] count : counts) {
+                total += count[digit];
+            }
+            if (total == n) {
+                return false; // This digit does not tell any keys apart
+            }
+            for (int[] count : counts) {
+                int c = count[digit];
+                count[digit] = offset;
+                offset += c;
+            }
+        }
+        forEachChunk(chunks, chunkSize, n, (chunk, from, to) -> {
+            int[] next = counts[chunk];
+            for (int i = from; i < to; i++) {
+                int slot = next[(int) (keys[i] >>> shift) & (RADIX - 1)]++;
+                keysOut[slot] = keys[i];
+                orderOut[slot] = order[i];
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Stably sorts order[start, end) by the drivers the positions refer to.
+     */
+    private static void sortRun(int[] order, int start, int end, Driver[] drivers, Comparator<Driver> comparator) {
+        if (end - start <= INSERTION_SORT_THRESHOLD) {
+            for (int i = start + 1; i < end; i++) {
+                int position = order[i];
+                int j = i - 1;
+                while (j >= start && comparator.compare(drivers[order[j]], drivers[position]) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = position;
+            }
+            return;
+        }
+        Integer[] run = new Integer[end - start];
+        for (int i = start; i < end; i++) {
+            run[i - start] = order[i];
+        }
+        Arrays.sort(run, (a, b) -> comparator.compare(drivers[a], drivers[b])); // Stable
+        for (int i = start; i < end; i++) {
+            order[i] = run[i - start];
+        }
+    }
+
+    /**
+     * A body that processes positions from (inclusive) to to (exclusive) of one chunk.
+     */
+    private interface ChunkBody {
+        void run(int chunk, int from, int to);
+    }
+
+    /**
+     * A body that processes positions from (inclusive) to to (exclusive).
+     */
+    private interface RangeBody {
+        void run(int from, int to);
+    }
+
+    /**
+     * Runs the body over n positions, split into chunks on the common pool when n is large.
+     */
+    private static void forEachChunk(int n, RangeBody body) {
+        if (n < PARALLEL_THRESHOLD) {
+            body.run(0, n);
+            return;
+        }
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * 4;
+        int chunkSize = (n + chunks - 1) / chunks;
+        forEachChunk(chunks, chunkSize, n, (chunk, from, to) -> body.run(from, to));
+    }
+
+    private static void forEachChunk(int chunks, int chunkSize, int n, ChunkBody body) {
+        if (chunks == 1) {
+            body.run(0, 0, n);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, chunkSize, n, body));
+    }
+
+    /**
+     * Runs a range of chunks, splitting it in half until one chunk is left.
+     */
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int firstChunk;
+        private final int lastChunk;
+        private final int chunkSize;
+        private final int n;
+        private final ChunkBody body;
+
+        ChunkTask(int firstChunk, int lastChunk, int chunkSize, int n, ChunkBody body) {
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+            this.chunkSize = chunkSize;
+            this.n = n;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastChunk - firstChunk == 1) {
+                int from = (int) Math.min(n, (long) firstChunk * chunkSize);
+                int to = (int) Math.min(n, (long) from + chunkSize);
+                body.run(firstChunk, from, to);
+                return;
+            }
+            int middle = (firstChunk + lastChunk) >>> 1;
+            invokeAll(new ChunkTask(firstChunk, middle, chunkSize, n, body),
+                    new ChunkTask(middle, lastChunk, chunkSize, n, body));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package deliverytracker;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Follows a driver route file that other processes keep appending to.
+ * Only the bytes appended since the last read are parsed; the new drivers are added to the
+ * list, which keeps its indexes and any current sort, and the standing commands are
+ * re-evaluated against the new drivers. The first load reads the whole file, including a last
+ * line without a line terminator, as readDriverFile does; after that, a trailing line without
+ * a line terminator is treated as still being written and is picked up once it is complete.
+ * One parser, and so one geometry cache, is kept for the life of the follower, so routes
+ * repeated across appends keep sharing their geometry.
+ * A follower can also feed a DriverRegistry instead of a list, for a QueryServer whose clients
+ * query the drivers while they are added; it then has no standing commands.
+ */
+public class RouteFileFollower {
+    private final Path path;
+    // The list new drivers go to, or null when they go to a registry
+    private final LinkedList<Driver> driverList;
+    // Takes each read's drivers, in file order
+    private final Consumer<List<Driver>> target;
+    private final List<Command> standingCommands;
+    private final Writer out;
+    private final long pollMillis;
+    // Parses every read, handing its drivers to the appended list
+    private final RouteFileParser parser;
+    // Drivers accepted by the read in progress
+    private List<Driver> appended = new ArrayList<>();
+    // Offset just past the last complete line that has been parsed
+    private long offset;
+
+    /**
+     * Constructs a follower for a driver file.
+     * @param path The driver file to follow.
+     * @param driverList The linked list to add new drivers to.
+     * @param standingCommands The commands to re-evaluate whenever drivers are added.
+     * @param out Where to write the output of the standing commands.
+     * @param pollMillis How long to wait for a change notification before checking the file anyway.
+     */
+    public RouteFileFollower(Path path, LinkedList<Driver> driverList, List<Command> standingCommands, Writer out, long pollMillis) {
+        this.path = path;
+        this.driverList = driverList;
+        this.target = driverList::addAll;
+        this.standingCommands = standingCommands;
+        this.out = out;
+        this.pollMillis = pollMillis;
+        parser = new RouteFileParser(RouteFileParser.driverSink(driver -> appended.add(driver)));
+    }
+
+    /**
+     * Constructs a follower that adds the drivers to a registry.
+     * @param path The driver file to follow.
+     * @param registry The registry to add new drivers to.
+     * @param pollMillis How long to wait for a change notification before checking the file anyway.
+     */
+    public RouteFileFollower(Path path, DriverRegistry registry, long pollMillis) {
+        this.path = path;
+        this.driverList = null;
+        this.target = registry::addAll;
+        this.standingCommands = List.of();
+        this.out = null;
+        this.pollMillis = pollMillis;
+        parser = new RouteFileParser(RouteFileParser.driverSink(driver -> appended.add(driver)));
+    }
+
+    /**
+     * Reads the whole file as it is now into the list, including a last line without a line terminator.
+     * @return The number of drivers added.
+     */
+    public int load() throws IOException {
+        List<Driver> added = readAppended(true);
+        target.accept(added);
+        return added.size();
+    }
+
+    /**
+     * Watches the file until the current thread is interrupted, applying each append as it arrives.
+     */
+    public void follow() throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            while (!Thread.currentThread().isInterrupted()) {
+                // Check on every notification, and on a timer in case notifications are missed or coalesced
+                WatchKey key = watcher.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                poll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Applies whatever has been appended to the file since the last read.
+     * @return The number of drivers added.
+     */
+    public int poll() throws IOException {
+        List<Driver> added = readAppended(false);
+        if (added.isEmpty()) {
+            return 0;
+        }
+        target.accept(added);
+        if (standingCommands.isEmpty()) {
+            return added.size();
+        }
+        LinkedList<Driver> delta = new LinkedList<>();
+        for (Driver driver : added) {
+            delta.add(driver);
+        }
+        for (Command command : standingCommands) {
+            command.executeIncrementally(driverList, delta, out);
+        }
+        out.flush();
+        return added.size();
+    }
+
+    /**
+     * Parses the lines appended since the last read.
+     * @param endOfInput Whether a last line without a line terminator is complete.
+     * @return The accepted drivers, in file order.
+     */
+    private List<Driver> readAppended(boolean endOfInput) throws IOException {
+        List<Driver> added = new ArrayList<>();
+        appended = added;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < offset) {
+                // The file was truncated or replaced; drivers already read stay in the list
+                System.err.println("Warning: " + path + " shrank; following from its new end.");
+                offset = size;
+            }
+            if (size > offset) {
+                offset = parser.parse(channel, offset, size, endOfInput);
+            }
+        }
+        return added;
+    }
+}
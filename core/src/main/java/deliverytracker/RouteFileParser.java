@@ -0,0 +1,493 @@
+package deliverytracker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Parses driver route files straight from a memory-mapped FileChannel.
+ * Each line holds a driver name followed by x,y vertex pairs separated by spaces or commas.
+ * Coordinates are parsed from the mapped bytes without creating a String per token
+ * and packed into reusable primitive arrays for PolygonArea, so no points are allocated.
+ * A route is only accepted when its first and last points match; lines whose coordinates
+ * are malformed or unpaired are rejected as well.
+ */
+public class RouteFileParser {
+    /**
+     * Receives each route accepted by the parser.
+     */
+    public interface RouteSink {
+        /**
+         * Called once per accepted route, in file order.
+         * @param name The driver's name.
+         * @param area The area of the driver's route.
+         */
+        void accept(String name, double area);
+
+        /**
+         * Called once per accepted route, in file order, with the route's vertices.
+         * The arrays are reused for the next route, so a sink that keeps the vertices must copy them.
+         * By default the vertices are dropped and accept(name, area) is called.
+         * @param name The driver's name.
+         * @param area The area of the driver's route.
+         * @param xs The x coordinates of the vertices.
+         * @param ys The y coordinates of the vertices.
+         * @param count The number of vertices.
+         */
+        default void accept(String name, double area, double[] xs, double[] ys, int count) {
+            accept(name, area);
+        }
+
+        /**
+         * Called once per accepted route, in file order, when the parser has a geometry cache.
+         * The geometry may be shared with other drivers that have the same route.
+         * By default the vertices are copied out and accept(name, area, xs, ys, count) is called,
+         * so a sink that only keeps vertices through that method still gets them.
+         * @param name The driver's name.
+         * @param area The area of the driver's route.
+         * @param geometry The route's vertices.
+         */
+        default void accept(String name, double area, RouteGeometry geometry) {
+            int count = geometry.getVertexCount();
+            double[] xs = new double[count];
+            double[] ys = new double[count];
+            for (int i = 0; i < count; i++) {
+                xs[i] = geometry.getX(i);
+                ys[i] = geometry.getY(i);
+            }
+            accept(name, area, xs, ys, count);
+        }
+    }
+
+    /**
+     * Returns a sink that turns each accepted route into a Driver that keeps its geometry.
+     * @param target The receiver of the drivers.
+     * @return The sink.
+     */
+    public static RouteSink driverSink(Consumer<Driver> target) {
+        return new RouteSink() {
+            @Override
+            public void accept(String name, double area) {
+                target.accept(new Driver(name, area));
+            }
+
+            @Override
+            public void accept(String name, double area, double[] xs, double[] ys, int count) {
+                target.accept(new Driver(name, area, new RouteGeometry(xs, ys, count)));
+            }
+
+            @Override
+            public void accept(String name, double area, RouteGeometry geometry) {
+                target.accept(new Driver(name, area, geometry));
+            }
+        };
+    }
+
+    // Bytes mapped at a time; a window is grown when a single line does not fit
+    private static final int DEFAULT_WINDOW = 1 << 26;
+    // Largest mantissa that converts to a double exactly
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    // Powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final RouteSink sink;
+    private final int window;
+    // Shares the geometry and area of repeated routes, or null to treat every route as new
+    private final GeometryCache cache;
+    private final Charset charset = Charset.defaultCharset();
+    // Reused for driver names and for tokens that need the slow number path
+    private byte[] scratch = new byte[64];
+    // Reused vertex columns for the line being parsed
+    private double[] xs = new double[64];
+    private double[] ys = new double[64];
+    // Position just past the last parsed number and its value
+    private int cursor;
+    private double number;
+    // Number of lines with coordinates that were not accepted as routes
+    private long rejected;
+    // Number of routes handed to the sink
+    private long accepted;
+    // Names whose routes are parsed, or null for every name
+    private Predicate<String> nameFilter;
+    // File offset of the mapped buffer being parsed, and of the line being parsed
+    private long bufferOffset;
+    private long lineOffset;
+
+    /**
+     * Constructs a parser that hands accepted routes to the given sink.
+     * Repeated routes share their geometry through a cache of GeometryCache.DEFAULT_CAPACITY routes.
+     * @param sink The receiver of accepted routes.
+     */
+    public RouteFileParser(RouteSink sink) {
+        this(sink, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructs a parser that hands accepted routes to the given sink.
+     * @param sink The receiver of accepted routes.
+     * @param cache The cache to share repeated routes through, or null to treat every route as new.
+     */
+    public RouteFileParser(RouteSink sink, GeometryCache cache) {
+        this(sink, DEFAULT_WINDOW, cache);
+    }
+
+    /**
+     * Constructs a parser that maps the file in windows of the given size.
+     * @param sink The receiver of accepted routes.
+     * @param window The number of bytes to map at a time.
+     */
+    RouteFileParser(RouteSink sink, int window) {
+        this(sink, window, GeometryCache.DEFAULT_CAPACITY > 0 ? new GeometryCache(GeometryCache.DEFAULT_CAPACITY) : null);
+    }
+
+    private RouteFileParser(RouteSink sink, int window, GeometryCache cache) {
+        this.sink = sink;
+        this.window = window;
+        this.cache = cache;
+    }
+
+    /**
+     * Restricts the parser to the routes of some drivers. Lines whose name the filter rejects are
+     * skipped before their coordinates are parsed and count as neither accepted nor rejected.
+     * @param filter The names to keep, or null to keep every name.
+     */
+    public void setNameFilter(Predicate<String> filter) {
+        nameFilter = filter;
+    }
+
+    /**
+     * Returns the file offset of the line whose route was last handed to the sink.
+     * A sink can call it from accept to learn where its route is in the file.
+     * @return The offset of the first byte of the line.
+     */
+    public long getLineOffset() {
+        return lineOffset;
+    }
+
+    /**
+     * Parses a whole route file.
+     * @param filename The name of the file to read.
+     * @param sink The receiver of accepted routes.
+     * @return The number of rejected routes.
+     */
+    public static long parse(String filename, RouteSink sink) throws IOException {
+        RouteFileParser parser = new RouteFileParser(sink);
+        parser.parse(Paths.get(filename));
+        return parser.getRejectedCount();
+    }
+
+    /**
+     * Parses a whole route file.
+     * @param path The file to read.
+     */
+    public void parse(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            parse(channel, 0, channel.size(), true);
+        }
+    }
+
+    /**
+     * Parses the lines in a byte range of a route file.
+     * @param channel The channel to map the file from.
+     * @param from The offset of the first byte of the first line.
+     * @param to The offset just past the last byte to parse.
+     * @param endOfInput Whether a final line without a line terminator is complete.
+     * @return The offset just past the last line that was parsed.
+     */
+    public long parse(FileChannel channel, long from, long to, boolean endOfInput) throws IOException {
+        if (!Metrics.ENABLED) {
+            return parseRange(channel, from, to, endOfInput);
+        }
+        PipelineEvents.Parse event = new PipelineEvents.Parse();
+        event.begin();
+        long start = System.nanoTime();
+        long acceptedBefore = accepted;
+        long rejectedBefore = rejected;
+        long end = parseRange(channel, from, to, endOfInput);
+        Metrics.PARSE.record(System.nanoTime() - start);
+        event.bytes = end - from;
+        event.accepted = accepted - acceptedBefore;
+        event.rejected = rejected - rejectedBefore;
+        event.commit();
+        Metrics.BYTES_PARSED.add(event.bytes);
+        Metrics.ROUTES_ACCEPTED.add(event.accepted);
+        Metrics.ROUTES_REJECTED.add(event.rejected);
+        return end;
+    }
+
+    private long parseRange(FileChannel channel, long from, long to, boolean endOfInput) throws IOException {
+        long position = from;
+        int size = window;
+        while (position < to) {
+            long length = Math.min(size, to - position);
+            boolean last = position + length == to;
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int limit = (int) length;
+            int end = last && endOfInput ? limit : lastLineEnd(buffer, limit);
+            if (end == 0) {
+                if (last) {
+                    break; // An incomplete trailing line is left for the caller
+                }
+                if (size == Integer.MAX_VALUE) {
+                    throw new IOException("Line at offset " + position + " is longer than " + size + " bytes");
+                }
+                size = (int) Math.min(Integer.MAX_VALUE, 2L * size);
+                continue;
+            }
+            bufferOffset = position;
+            parseLines(buffer, 0, end);
+            position += end;
+            size = window;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the number of lines with coordinates that were rejected so far.
+     * @return The rejected route count.
+     */
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * Finds the end of the last complete line in a buffer.
+     * @param buffer The mapped bytes.
+     * @param limit The number of valid bytes in the buffer.
+     * @return The index just past the last line terminator, or 0 if there is none.
+     */
+    private static int lastLineEnd(ByteBuffer buffer, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (isLineEnd(buffer.get(i))) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parses every line in a range of a buffer.
+     * @param buffer The mapped bytes.
+     * @param start The index of the first byte of the first line.
+     * @param end The index just past the last byte.
+     */
+    void parseLines(ByteBuffer buffer, int start, int end) {
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && !isLineEnd(buffer.get(lineEnd))) {
+                lineEnd++;
+            }
+            if (lineEnd > lineStart) {
+                parseLine(buffer, lineStart, lineEnd);
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Parses one line and passes it to the sink if its route is closed.
+     * @param buffer The mapped bytes.
+     * @param start The index of the first byte of the line.
+     * @param end The index just past the last byte of the line.
+     */
+    private void parseLine(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        while (i < end && !isDelimiter(buffer.get(i))) {
+            i++;
+        }
+        int nameEnd = i;
+        String name = null;
+        if (nameFilter != null) {
+            name = decode(buffer, start, nameEnd);
+            if (!nameFilter.test(name)) {
+                return;
+            }
+        }
+
+        int count = 0;
+        while ((i = skipDelimiters(buffer, i, end)) < end) {
+            if (!parseNumber(buffer, i, end)) {
+                rejected++;
+                return;
+            }
+            double x = number;
+            i = skipDelimiters(buffer, cursor, end);
+            if (i == end || !parseNumber(buffer, i, end)) {
+                rejected++; // An x without a matching y
+                return;
+            }
+            i = cursor;
+            if (count == xs.length) {
+                xs = Arrays.copyOf(xs, 2 * count);
+                ys = Arrays.copyOf(ys, 2 * count);
+            }
+            xs[count] = x;
+            ys[count] = number;
+            count++;
+        }
+        if (count == 0) {
+            return; // A name without a route is skipped
+        }
+        // Check if the first and last coordinates match
+        if (xs[0] == xs[count - 1] && ys[0] == ys[count - 1]) {
+            if (name == null) {
+                name = decode(buffer, start, nameEnd);
+            }
+            lineOffset = bufferOffset + start;
+            if (cache != null) {
+                GeometryCache.Route route = cache.intern(xs, ys, count);
+                sink.accept(name, route.getArea(), route.getGeometry());
+            } else {
+                sink.accept(name, PolygonArea.area(xs, ys, count), xs, ys, count);
+            }
+            accepted++;
+        } else {
+            rejected++;
+        }
+    }
+
+    /**
+     * Parses the number token starting at the given index into the number field.
+     * Plain decimals are converted in place; anything else goes through Double.parseDouble.
+     * @param buffer The mapped bytes.
+     * @param start The index of the first byte of the token.
+     * @param end The index just past the last byte of the line.
+     * @return Whether the token is a valid number.
+     */
+    private boolean parseNumber(ByteBuffer buffer, int start, int end) {
+        int tokenEnd = start;
+        while (tokenEnd < end && !isDelimiter(buffer.get(tokenEnd))) {
+            tokenEnd++;
+        }
+        cursor = tokenEnd;
+
+        int i = start;
+        boolean negative = false;
+        byte b = buffer.get(i);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean exact = true;
+        boolean fraction = false;
+        for (; i < tokenEnd; i++) {
+            b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                digits = true;
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    exponent--;
+                }
+                if (mantissa > MAX_EXACT_MANTISSA) {
+                    exact = false;
+                    break;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (exact && digits && i < tokenEnd && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < tokenEnd && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negativeExponent = buffer.get(i) == '-';
+                i++;
+            }
+            int value = 0;
+            int exponentStart = i;
+            while (i < tokenEnd && buffer.get(i) >= '0' && buffer.get(i) <= '9' && value < 1000) {
+                value = value * 10 + (buffer.get(i) - '0');
+                i++;
+            }
+            exact = i > exponentStart;
+            exponent += negativeExponent ? -value : value;
+        }
+        if (exact && digits && i == tokenEnd && exponent >= -22 && exponent <= 22) {
+            double value = mantissa;
+            if (exponent > 0) {
+                value *= POWERS_OF_TEN[exponent];
+            } else if (exponent < 0) {
+                value /= POWERS_OF_TEN[-exponent];
+            }
+            number = negative ? -value : value;
+            return true;
+        }
+        return parseSlow(buffer, start, tokenEnd);
+    }
+
+    /**
+     * Parses a token with Double.parseDouble, for forms the in-place path does not handle.
+     * @param buffer The mapped bytes.
+     * @param start The index of the first byte of the token.
+     * @param end The index just past the last byte of the token.
+     * @return Whether the token is a valid number.
+     */
+    private boolean parseSlow(ByteBuffer buffer, int start, int end) {
+        try {
+            number = Double.parseDouble(copy(buffer, start, end, StandardCharsets.ISO_8859_1));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Decodes a driver name from the buffer.
+     * @param buffer The mapped bytes.
+     * @param start The index of the first byte of the name.
+     * @param end The index just past the last byte of the name.
+     * @return The decoded name.
+     */
+    private String decode(ByteBuffer buffer, int start, int end) {
+        return copy(buffer, start, end, charset);
+    }
+
+    /**
+     * Copies a range of the buffer into the scratch array and decodes it.
+     * @param buffer The mapped bytes.
+     * @param start The index of the first byte.
+     * @param end The index just past the last byte.
+     * @param decoder The charset to decode with.
+     * @return The decoded text.
+     */
+    private String copy(ByteBuffer buffer, int start, int end, Charset decoder) {
+        int length = end - start;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, 2 * scratch.length)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, decoder);
+    }
+
+    private static int skipDelimiters(ByteBuffer buffer, int i, int end) {
+        while (i < end && isDelimiter(buffer.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ' ' || b == ',';
+    }
+
+    private static boolean isLineEnd(byte b) {
+        return b == '\n' || b == '\r';
+    }
+}
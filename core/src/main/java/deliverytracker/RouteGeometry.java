@@ -0,0 +1,121 @@
+package deliverytracker;
+
+/**
+ * The vertices of a route polygon and their bounding box.
+ * Coordinates are packed into one array as x0, y0, x1, y1, ... so a route costs one array
+ * however many vertices it has. Instances are immutable.
+ */
+public final class RouteGeometry {
+    private final double[] coordinates;
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    /**
+     * Constructs a geometry from a copy of the given vertices.
+     * @param xs The x coordinates of the vertices.
+     * @param ys The y coordinates of the vertices.
+     * @param count The number of vertices.
+     */
+    public RouteGeometry(double[] xs, double[] ys, int count) {
+        this(pack(xs, ys, count));
+    }
+
+    /**
+     * Constructs a geometry that takes ownership of packed coordinates.
+     * @param coordinates The vertices as x0, y0, x1, y1, ...
+     */
+    RouteGeometry(double[] coordinates) {
+        this.coordinates = coordinates;
+        double lowX = Double.POSITIVE_INFINITY;
+        double lowY = Double.POSITIVE_INFINITY;
+        double highX = Double.NEGATIVE_INFINITY;
+        double highY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < coordinates.length; i += 2) {
+            lowX = Math.min(lowX, coordinates[i]);
+            highX = Math.max(highX, coordinates[i]);
+            lowY = Math.min(lowY, coordinates[i + 1]);
+            highY = Math.max(highY, coordinates[i + 1]);
+        }
+        minX = lowX;
+        minY = lowY;
+        maxX = highX;
+        maxY = highY;
+    }
+
+    private static double[] pack(double[] xs, double[] ys, int count) {
+        double[] packed = new double[2 * count];
+        for (int i = 0; i < count; i++) {
+            packed[2 * i] = xs[i];
+            packed[2 * i + 1] = ys[i];
+        }
+        return packed;
+    }
+
+    /**
+     * Returns the number of vertices.
+     * @return The vertex count, including the closing vertex.
+     */
+    public int getVertexCount() {
+        return coordinates.length / 2;
+    }
+
+    public double getX(int vertex) {
+        return coordinates[2 * vertex];
+    }
+
+    public double getY(int vertex) {
+        return coordinates[2 * vertex + 1];
+    }
+
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Returns whether the polygon contains a point, using the even-odd rule.
+     * Points exactly on an edge may fall on either side.
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     * @return True if the point lies inside the route.
+     */
+    public boolean contains(double x, double y) {
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return false;
+        }
+        boolean inside = false;
+        int last = coordinates.length - 2;
+        for (int i = 0, j = last; i <= last; j = i, i += 2) {
+            double xi = coordinates[i];
+            double yi = coordinates[i + 1];
+            double xj = coordinates[j];
+            double yj = coordinates[j + 1];
+            // Count the edges a ray from the point towards +x crosses
+            if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Returns the packed coordinates, for writing to a snapshot. Callers must not modify them.
+     * @return The vertices as x0, y0, x1, y1, ...
+     */
+    double[] coordinates() {
+        return coordinates;
+    }
+}
@@ -0,0 +1,246 @@
+package deliverytracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An R-tree over the bounding boxes of route polygons, answering which routes cover a point.
+ *
+ * The tree is bulk-loaded with Sort-Tile-Recursive packing: the boxes are cut into vertical
+ * slices by center x, each slice is sorted by center y, and runs of NODE_CAPACITY boxes become
+ * the nodes of the next level up, until a single level of at most NODE_CAPACITY nodes is left.
+ * A query descends only into nodes whose box holds the point, then runs the exact
+ * point-in-polygon test on the routes it reaches. Like AreaIndex, routes added after a build
+ * are held back and the tree is rebuilt on the next query.
+ */
+public class SpatialIndex {
+    private static final int NODE_CAPACITY = 16;
+
+    // Drivers that have a geometry, in the order they were added
+    private final List<Driver> drivers;
+    // The current tree, or null if drivers were added since it was built; shared by copies
+    private Tree tree;
+
+    /**
+     * A packed STR tree. Level 0 holds the routes; each higher level holds nodes whose children
+     * are a contiguous run of the level below.
+     */
+    private static final class Tree {
+        // boxes[level][4 * i ...] is minX, minY, maxX, maxY of item i at that level
+        final double[][] boxes;
+        // firstChild[level][i] is the first child of node i in level - 1; unused at level 0
+        final int[][] firstChild;
+        final int[][] childEnd;
+        // Routes at level 0 and their positions in add order
+        final Driver[] routes;
+        final int[] positions;
+
+        Tree(double[][] boxes, int[][] firstChild, int[][] childEnd, Driver[] routes, int[] positions) {
+            this.boxes = boxes;
+            this.firstChild = firstChild;
+            this.childEnd = childEnd;
+            this.routes = routes;
+            this.positions = positions;
+        }
+    }
+
+    /**
+     * Constructs an empty index.
+     */
+    public SpatialIndex() {
+        drivers = new ArrayList<>();
+    }
+
+    /**
+     * Constructs a copy of another index. The built tree is immutable, so it is shared.
+     * @param other The index to copy.
+     */
+    public SpatialIndex(SpatialIndex other) {
+        drivers = new ArrayList<>(other.drivers);
+        tree = other.tree;
+    }
+
+    /**
+     * Adds a driver to the index if it has a route geometry.
+     * @param driver The driver to add.
+     */
+    public void add(Driver driver) {
+        if (driver.getGeometry() != null) {
+            drivers.add(driver);
+            tree = null;
+        }
+    }
+
+    /**
+     * Adds every driver of another index after this index's drivers, as if they had been added
+     * one by one. The tree is rebuilt on the next query, unless this index was empty.
+     * @param other The index whose drivers to add.
+     */
+    public void addAll(SpatialIndex other) {
+        if (other.drivers.isEmpty()) {
+            return;
+        }
+        tree = drivers.isEmpty() ? other.tree : null;
+        drivers.addAll(other.drivers);
+    }
+
+    /**
+     * Returns every driver whose route contains the given point.
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     * @return The covering drivers in the order they were added.
+     */
+    public List<Driver> covering(double x, double y) {
+        build();
+        Tree current = tree;
+        int top = current.boxes.length - 1;
+        if (current.routes.length == 0) {
+            return Collections.emptyList();
+        }
+        int[] hits = new int[4];
+        int hitCount = 0;
+        // Stack of (level, index) pairs still to visit
+        int[] stack = new int[2 * NODE_CAPACITY * (top + 1) + 2];
+        int depth = 0;
+        for (int i = current.boxes[top].length / 4 - 1; i >= 0; i--) {
+            stack[depth++] = top;
+            stack[depth++] = i;
+        }
+        while (depth > 0) {
+            int index = stack[--depth];
+            int level = stack[--depth];
+            double[] box = current.boxes[level];
+            if (x < box[4 * index] || y < box[4 * index + 1] || x > box[4 * index + 2] || y > box[4 * index + 3]) {
+                continue;
+            }
+            if (level == 0) {
+                if (current.routes[index].getGeometry().contains(x, y)) {
+                    if (hitCount == hits.length) {
+                        hits = Arrays.copyOf(hits, 2 * hitCount);
+                    }
+                    hits[hitCount++] = index;
+                }
+                continue;
+            }
+            for (int child = current.childEnd[level][index] - 1; child >= current.firstChild[level][index]; child--) {
+                stack[depth++] = level - 1;
+                stack[depth++] = child;
+            }
+        }
+        int[] positions = new int[hitCount];
+        for (int i = 0; i < hitCount; i++) {
+            positions[i] = current.positions[hits[i]];
+        }
+        Arrays.sort(positions);
+        List<Driver> result = new ArrayList<>(hitCount);
+        for (int position : positions) {
+            result.add(drivers.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Builds the tree if drivers were added since the last build, so later queries only read.
+     */
+    public void build() {
+        if (tree != null) {
+            return;
+        }
+        int count = drivers.size();
+        double[] boxes = new double[4 * count];
+        for (int i = 0; i < count; i++) {
+            RouteGeometry geometry = drivers.get(i).getGeometry();
+            boxes[4 * i] = geometry.getMinX();
+            boxes[4 * i + 1] = geometry.getMinY();
+            boxes[4 * i + 2] = geometry.getMaxX();
+            boxes[4 * i + 3] = geometry.getMaxY();
+        }
+        List<double[]> levelBoxes = new ArrayList<>();
+        List<int[]> levelFirst = new ArrayList<>();
+        List<int[]> levelEnd = new ArrayList<>();
+
+        // Level 0: the routes themselves, in STR order
+        int[] order = strOrder(boxes, count);
+        Driver[] routes = new Driver[count];
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            routes[i] = drivers.get(order[i]);
+            positions[i] = order[i];
+        }
+        boxes = permute(boxes, order);
+        levelBoxes.add(boxes);
+        levelFirst.add(null);
+        levelEnd.add(null);
+
+        // Each higher level packs runs of the level below into nodes, then orders the nodes
+        while (count > NODE_CAPACITY) {
+            int parents = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            double[] parentBoxes = new double[4 * parents];
+            int[] first = new int[parents];
+            int[] end = new int[parents];
+            for (int p = 0; p < parents; p++) {
+                first[p] = p * NODE_CAPACITY;
+                end[p] = Math.min(count, first[p] + NODE_CAPACITY);
+                parentBoxes[4 * p] = Double.POSITIVE_INFINITY;
+                parentBoxes[4 * p + 1] = Double.POSITIVE_INFINITY;
+                parentBoxes[4 * p + 2] = Double.NEGATIVE_INFINITY;
+                parentBoxes[4 * p + 3] = Double.NEGATIVE_INFINITY;
+                for (int c = first[p]; c < end[p]; c++) {
+                    parentBoxes[4 * p] = Math.min(parentBoxes[4 * p], boxes[4 * c]);
+                    parentBoxes[4 * p + 1] = Math.min(parentBoxes[4 * p + 1], boxes[4 * c + 1]);
+                    parentBoxes[4 * p + 2] = Math.max(parentBoxes[4 * p + 2], boxes[4 * c + 2]);
+                    parentBoxes[4 * p + 3] = Math.max(parentBoxes[4 * p + 3], boxes[4 * c + 3]);
+                }
+            }
+            int[] parentOrder = strOrder(parentBoxes, parents);
+            boxes = permute(parentBoxes, parentOrder);
+            int[] orderedFirst = new int[parents];
+            int[] orderedEnd = new int[parents];
+            for (int p = 0; p < parents; p++) {
+                orderedFirst[p] = first[parentOrder[p]];
+                orderedEnd[p] = end[parentOrder[p]];
+            }
+            levelBoxes.add(boxes);
+            levelFirst.add(orderedFirst);
+            levelEnd.add(orderedEnd);
+            count = parents;
+        }
+        tree = new Tree(levelBoxes.toArray(new double[0][]), levelFirst.toArray(new int[0][]),
+                levelEnd.toArray(new int[0][]), routes, positions);
+    }
+
+    /**
+     * Orders boxes for Sort-Tile-Recursive packing: by center x into vertical slices of
+     * whole nodes, then by center y within each slice.
+     * @return The box indices in packing order.
+     */
+    private static int[] strOrder(double[] boxes, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(boxes[4 * a] + boxes[4 * a + 2], boxes[4 * b] + boxes[4 * b + 2]));
+        int nodes = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int slices = (int) Math.ceil(Math.sqrt(nodes));
+        int sliceSize = slices * NODE_CAPACITY;
+        for (int from = 0; from < count; from += sliceSize) {
+            Arrays.sort(order, from, Math.min(count, from + sliceSize),
+                    (a, b) -> Double.compare(boxes[4 * a + 1] + boxes[4 * a + 3], boxes[4 * b + 1] + boxes[4 * b + 3]));
+        }
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    private static double[] permute(double[] boxes, int[] order) {
+        double[] result = new double[boxes.length];
+        for (int i = 0; i < order.length; i++) {
+            System.arraycopy(boxes, 4 * order[i], result, 4 * i, 4);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package deliverytracker;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Shoelace kernel on the incubating Vector API with Kahan-compensated summation.
+ * Each lane keeps its own running sum and compensation, and the lanes are combined
+ * with compensation as well, so the result stays stable for polygons with many vertices.
+ * Only loaded by PolygonArea when the jdk.incubator.vector module is present.
+ */
+final class VectorShoelace {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorShoelace() {
+    }
+
+    /**
+     * Calculates the area enclosed by a polygon.
+     * @param xs The x coordinates of the vertices.
+     * @param ys The y coordinates of the vertices.
+     * @param count The number of vertices.
+     * @return The calculated area.
+     */
+    static double area(double[] xs, double[] ys, int count) {
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        DoubleVector compensation = DoubleVector.zero(SPECIES);
+        int lanes = SPECIES.length();
+        int i = 1;
+        for (; i + lanes <= count; i += lanes) {
+            DoubleVector prevX = DoubleVector.fromArray(SPECIES, xs, i - 1);
+            DoubleVector prevY = DoubleVector.fromArray(SPECIES, ys, i - 1);
+            DoubleVector x = DoubleVector.fromArray(SPECIES, xs, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, ys, i);
+            DoubleVector term = prevX.add(x).mul(prevY.sub(y)).sub(compensation);
+            DoubleVector next = sum.add(term);
+            compensation = next.sub(sum).sub(term);
+            sum = next;
+        }
+
+        // Fold the lanes, the remaining edges and the closing edge into one compensated sum
+        double total = 0.0;
+        double c = 0.0;
+        for (int lane = 0; lane < lanes; lane++) {
+            double term = sum.lane(lane) - c;
+            double next = total + term;
+            c = (next - total) - term;
+            total = next;
+            term = -compensation.lane(lane) - c;
+            next = total + term;
+            c = (next - total) - term;
+            total = next;
+        }
+        for (; i <= count; i++) {
+            int current = i == count ? 0 : i;
+            int previous = i == count ? count - 1 : i - 1;
+            double term = (xs[previous] + xs[current]) * (ys[previous] - ys[current]) - c;
+            double next = total + term;
+            c = (next - total) - term;
+            total = next;
+        }
+        return 0.5 * Math.abs(total);
+    }
+}
@@ -0,0 +1,99 @@
+package deliverytracker;
+
+import static deliverytracker.LinkedListTest.assertSameOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class AreaIndexTest {
+    @Test
+    void rangesMatchAScanInAreaOrder() {
+        List<Driver> drivers = LinkedListTest.drivers(2000, 30);
+        AreaIndex index = new AreaIndex();
+        // Queries between adds merge the pending drivers in stages
+        for (int i = 0; i < drivers.size(); i++) {
+            index.add(drivers.get(i));
+            if (i % 300 == 0) {
+                index.range(0, 1);
+            }
+        }
+        double[][] ranges = {{0, 0}, {2.5, 2.5}, {1.1, 3.9}, {-5, 0.25}, {12, 100}, {4, 3}, {20, 30}};
+        for (double[] range : ranges) {
+            List<Driver> expected = scan(drivers, range[0], range[1]);
+            assertSameOrder(expected, index.range(range[0], range[1]));
+            assertEquals(expected.size(), index.count(range[0], range[1]));
+        }
+    }
+
+    @Test
+    void nearestReturnsEveryTieOnBothSides() {
+        AreaIndex index = new AreaIndex();
+        Driver low = new Driver("low", 2);
+        Driver lowToo = new Driver("lowToo", 2);
+        Driver high = new Driver("high", 4);
+        Driver far = new Driver("far", 10);
+        for (Driver driver : List.of(high, low, far, lowToo)) {
+            index.add(driver);
+        }
+        assertSameOrder(List.of(low, lowToo, high), index.nearest(3));
+        assertSameOrder(List.of(low, lowToo), index.nearest(2.9));
+        assertSameOrder(List.of(high), index.nearest(4));
+        assertSameOrder(List.of(low, lowToo), index.nearest(-1));
+        assertSameOrder(List.of(far), index.nearest(50));
+        assertTrue(new AreaIndex().nearest(3).isEmpty());
+    }
+
+    @Test
+    void nearestMatchesAScan() {
+        List<Driver> drivers = LinkedListTest.drivers(1000, 31);
+        AreaIndex index = new AreaIndex();
+        drivers.forEach(index::add);
+        for (double area = -1; area < 14; area += 0.37) {
+            double best = Double.POSITIVE_INFINITY;
+            for (Driver driver : drivers) {
+                best = Math.min(best, Math.abs(driver.getArea() - area));
+            }
+            List<Driver> expected = new ArrayList<>();
+            for (Driver driver : drivers) {
+                if (Math.abs(driver.getArea() - area) == best) {
+                    expected.add(driver);
+                }
+            }
+            expected.sort(Driver.BY_AREA);
+            assertSameOrder(expected, index.nearest(area));
+        }
+    }
+
+    @Test
+    void addAllMatchesAddingOneByOne() {
+        List<Driver> drivers = LinkedListTest.drivers(1500, 32);
+        AreaIndex added = new AreaIndex();
+        drivers.forEach(added::add);
+        AreaIndex first = new AreaIndex();
+        AreaIndex second = new AreaIndex();
+        drivers.subList(0, 600).forEach(first::add);
+        drivers.subList(600, drivers.size()).forEach(second::add);
+        first.addAll(second);
+
+        assertEquals(drivers.size(), first.size());
+        assertSameOrder(added.range(-1, 100), first.range(-1, 100));
+    }
+
+    /**
+     * Returns the drivers in the range, sorted stably by area as the index keeps them.
+     */
+    private static List<Driver> scan(List<Driver> drivers, double min, double max) {
+        List<Driver> result = new ArrayList<>();
+        for (Driver driver : drivers) {
+            if (driver.getArea() >= min && driver.getArea() <= max) {
+                result.add(driver);
+            }
+        }
+        result.sort(Driver.BY_AREA);
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ColumnarDriverStoreTest {
+    private static final String[] COMMANDS = {
+        "driver12", "DRIVER40 ", "nobody", "range 2 4", "range 5 5", "nearest 3.3", "nearest -5", "top 7 area dsc",
+        "top 9 name asc", "percentile 50 area", "percentile 99.5 area", "prefix Driver1 12", "prefix driver", "prefix zz",
+        "sort area dsc", "top 5 name dsc", "driver7", "sort name asc", "range 1 1.5", "sort name dsc", "sort area asc",
+        "zoë", "ZOË", "prefix É", "élodie"
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void commandsAnswerLikeALinkedList() throws IOException {
+        List<Driver> drivers = LinkedListTest.drivers(3000, 60);
+        // Names that need UTF-16, and names that only match when case is folded
+        drivers.add(new Driver("Zoë", 4.5));
+        drivers.add(new Driver("Élodie", 2.0));
+        drivers.add(new Driver("北京", 3.0));
+        drivers.add(new Driver("élodie", 2.0));
+        assertSameAnswers(drivers, COMMANDS);
+    }
+
+    @Test
+    void driversAddedAfterQueriesAreFound() throws IOException {
+        List<Driver> drivers = LinkedListTest.drivers(500, 61);
+        ColumnarDriverStore store = new ColumnarDriverStore();
+        LinkedList<Driver> list = new LinkedList<>();
+        for (Driver driver : drivers.subList(0, 250)) {
+            store.add(driver.getName(), driver.getArea());
+            list.add(driver);
+        }
+        StringBuilder expected = new StringBuilder();
+        StringBuilder actual = new StringBuilder();
+        for (String line : new String[] {"sort area asc", "range 1 3", "driver3", "prefix driver1 5"}) {
+            Command.parse(line).execute(list, expected);
+            Command.parse(line).execute(store, actual);
+        }
+        for (Driver driver : drivers.subList(250, drivers.size())) {
+            store.add(driver.getName(), driver.getArea());
+            list.add(driver);
+        }
+        for (String line : new String[] {"range 1 3", "driver3", "prefix driver1 5", "nearest 7", "sort name dsc"}) {
+            Command.parse(line).execute(list, expected);
+            Command.parse(line).execute(store, actual);
+        }
+        Main.displayDriverList(list, expected);
+        appendStore(store, actual);
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void queriesBetweenAddsThatGrowTheStoreAnswerLikeALinkedList() throws IOException {
+        List<Driver> drivers = LinkedListTest.drivers(5000, 63);
+        LinkedList<Driver> list = new LinkedList<>();
+        StringBuilder expected = new StringBuilder();
+        StringBuilder actual = new StringBuilder();
+        try (ColumnarDriverStore store = new ColumnarDriverStore()) {
+            // The sorted columns and the sort's scratch column are reused, and reallocated as the store grows
+            for (int batch = 0; batch < 10; batch++) {
+                for (Driver driver : drivers.subList(batch * 500, (batch + 1) * 500)) {
+                    store.add(driver.getName(), driver.getArea());
+                    list.add(driver);
+                }
+                String sort = batch % 2 == 0 ? "sort area dsc" : "sort name asc";
+                for (String line : new String[] {"range 2 3", "prefix driver1" + batch + " 5", sort, "percentile 25 area"}) {
+                    Command.parse(line).execute(list, expected);
+                    Command.parse(line).execute(store, actual);
+                }
+            }
+            Main.displayDriverList(list, expected);
+            appendStore(store, actual);
+            store.close(); // A second close does nothing
+        }
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void anEmptyStoreAnswersNothing() throws IOException {
+        assertSameAnswers(new ArrayList<>(), "driver1", "range 0 10", "nearest 1", "top 3 area asc", "percentile 50 area",
+                "prefix d", "sort name asc");
+    }
+
+    @Test
+    void theColumnarModeWritesWhatBatchModeWrites() throws IOException {
+        Path routes = directory.resolve("routes.txt");
+        RouteFiles.write(routes, 4000, 62);
+        Path commands = directory.resolve("commands.txt");
+        Files.write(commands, List.of(COMMANDS));
+        Path batch = directory.resolve("batch.txt");
+        Path columnar = directory.resolve("columnar.txt");
+
+        // What --output and --columnar --output run; Main.main itself would close System.in
+        LinkedList<Driver> driverList = new LinkedList<>();
+        Main.readDriverFile(routes.toString(), driverList);
+        try (Writer out = Main.openOutput(batch.toString())) {
+            Main.processCommandsFileBatched(commands.toString(), driverList, out);
+            Main.displayDriverList(driverList, out);
+        }
+        Main.runColumnar(routes.toString(), commands.toString(), columnar.toString());
+        List<String> expected = Files.readAllLines(batch);
+        assertTrue(expected.size() > 4000);
+        assertEquals(expected, Files.readAllLines(columnar));
+    }
+
+    /**
+     * Runs the commands against a LinkedList and a store holding the same drivers, and compares
+     * the output, final list included.
+     */
+    private static void assertSameAnswers(List<Driver> drivers, String... lines) throws IOException {
+        ColumnarDriverStore store = new ColumnarDriverStore();
+        LinkedList<Driver> list = new LinkedList<>();
+        for (Driver driver : drivers) {
+            store.add(driver.getName(), driver.getArea());
+            list.add(driver);
+        }
+        assertEquals(list.size(), store.size());
+        StringBuilder expected = new StringBuilder();
+        StringBuilder actual = new StringBuilder();
+        for (String line : lines) {
+            expected.append("> ").append(line).append('\n');
+            actual.append("> ").append(line).append('\n');
+            Command.parse(line).execute(list, expected);
+            Command.parse(line).execute(store, actual);
+        }
+        Main.displayDriverList(list, expected);
+        appendStore(store, actual);
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    private static void appendStore(ColumnarDriverStore store, Appendable out) throws IOException {
+        for (int position = 0; position < store.size(); position++) {
+            store.appendDriver(store.handleAt(position), out);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CommandBatchTest {
+    private static List<Command> parse(String... lines) {
+        List<Command> commands = new ArrayList<>();
+        for (String line : lines) {
+            commands.add(Command.parse(line));
+        }
+        return commands;
+    }
+
+    private static List<String> collapse(String... lines) {
+        List<String> result = new ArrayList<>();
+        for (Command command : CommandBatch.collapseSorts(parse(lines))) {
+            result.add(command.toString());
+        }
+        return result;
+    }
+
+    private static List<String> strings(String... lines) {
+        List<String> result = new ArrayList<>();
+        for (Command command : parse(lines)) {
+            result.add(command.toString());
+        }
+        return result;
+    }
+
+    @Test
+    void aSortOnTheSameKeyReplacesTheEarlierOne() {
+        assertEquals(strings("sort area dsc"), collapse("sort area asc", "sort area dsc"));
+        assertEquals(strings("sort name asc", "sort area dsc"), collapse("sort name dsc", "sort name asc", "sort area asc", "sort area dsc"));
+    }
+
+    @Test
+    void aSortOnAnotherKeyIsKeptToBreakTies() {
+        assertEquals(strings("sort name asc", "sort area dsc"), collapse("sort name asc", "sort area dsc"));
+    }
+
+    @Test
+    void orderDependentCommandsKeepTheSortsBeforeThem() {
+        assertEquals(strings("sort area asc", "top 3 area asc", "sort area dsc"),
+                collapse("sort area asc", "top 3 area asc", "sort area dsc"));
+        // Lookups and ranges answer from the indexes, so they do not see the order
+        assertEquals(strings("alice", "range 1 2", "sort name dsc"),
+                collapse("sort name asc", "alice", "range 1 2", "sort name dsc"));
+    }
+
+    @Test
+    void collapsingDoesNotChangeTheOutput() throws IOException {
+        String[] lines = {"sort area asc", "sort name dsc", "driver3", "sort name asc", "sort area dsc", "top 5 name asc",
+            "sort area asc", "range 2 5", "sort area dsc", "prefix Driver 4", "sort name dsc"};
+        List<Driver> drivers = LinkedListTest.drivers(200, 9);
+
+        LinkedList<Driver> plain = new LinkedList<>();
+        LinkedList<Driver> batched = new LinkedList<>();
+        for (Driver driver : drivers) {
+            plain.add(driver);
+            batched.add(driver);
+        }
+        StringBuilder expected = new StringBuilder();
+        for (Command command : parse(lines)) {
+            command.execute(plain, expected);
+        }
+        Main.displayDriverList(plain, expected);
+        StringBuilder actual = new StringBuilder();
+        for (Command command : CommandBatch.collapseSorts(parse(lines))) {
+            command.execute(batched, actual);
+        }
+        Main.displayDriverList(batched, actual);
+        assertEquals(expected.toString(), actual.toString());
+    }
+}
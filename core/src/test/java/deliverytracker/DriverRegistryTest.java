@@ -0,0 +1,202 @@
+package deliverytracker;
+
+import static deliverytracker.LinkedListTest.assertSameOrder;
+import static deliverytracker.LinkedListTest.contents;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class DriverRegistryTest {
+    @Test
+    void viewsMatchASortedLinkedList() {
+        List<Driver> drivers = LinkedListTest.drivers(500, 21);
+        DriverRegistry registry = new DriverRegistry();
+        registry.addAll(drivers);
+
+        assertSameOrder(drivers, contents(registry.snapshot()));
+        for (String order : new String[] {"asc", "dsc"}) {
+            LinkedList<Driver> byArea = new LinkedList<>();
+            drivers.forEach(byArea::add);
+            byArea.sortByArea(order);
+            assertSameOrder(contents(byArea), contents(registry.sortedByArea(order)));
+            LinkedList<Driver> byName = new LinkedList<>();
+            drivers.forEach(byName::add);
+            byName.sortByName(order);
+            assertSameOrder(contents(byName), contents(registry.sortedByName(order)));
+        }
+        assertSameOrder(registry.snapshot().searchAllByName("driver7"), registry.searchAllByName("DRIVER7"));
+    }
+
+    @Test
+    void sortedViewsFollowASequenceOfSorts() throws IOException {
+        List<Driver> drivers = LinkedListTest.drivers(700, 25);
+        DriverRegistry registry = new DriverRegistry();
+        registry.addAll(drivers.subList(0, 600));
+        LinkedList<Driver> list = new LinkedList<>();
+        drivers.subList(0, 600).forEach(list::add);
+        List<Command> sorts = new ArrayList<>();
+        String[] lines = {"sort name dsc", "sort area asc", "sort area dsc", "sort name asc", "sort name dsc", "sort area asc"};
+        for (int i = 0; i < lines.length; i++) {
+            Command sort = Command.parse(lines[i]);
+            sorts.add(sort);
+            sort.execute(list, new StringBuilder());
+            assertSameOrder(contents(list), contents(registry.sorted(sorts)));
+            if (i == 2) {
+                // Later drivers are ordered as if the sorts so far had run after they arrived
+                registry.addAll(drivers.subList(600, 700));
+                list = new LinkedList<>();
+                drivers.forEach(list::add);
+                for (Command earlier : sorts) {
+                    earlier.execute(list, new StringBuilder());
+                }
+                assertSameOrder(contents(list), contents(registry.sorted(sorts)));
+            }
+        }
+        assertSameOrder(contents(registry.snapshot()), contents(registry.sorted(List.of())));
+    }
+
+    @Test
+    void viewsAreCachedUntilDriversAreAdded() {
+        DriverRegistry registry = new DriverRegistry();
+        registry.addAll(LinkedListTest.drivers(100, 22));
+        LinkedList<Driver> view = registry.sortedByArea("asc");
+        assertSame(view, registry.sortedByArea("asc"));
+
+        Driver late = new Driver("late", 1000);
+        registry.add(late);
+        LinkedList<Driver> updated = registry.sortedByArea("asc");
+        assertEquals(101, updated.size());
+        assertSame(late, contents(updated).get(100));
+        // The old view still holds what it held
+        assertEquals(100, view.size());
+    }
+
+    @Test
+    void extendedViewsAnswerLikeAFreshList() throws IOException {
+        List<Driver> drivers = LinkedListTest.drivers(4000, 24);
+        String[] lines = {"driver12", "range 2 4", "range 0 20", "nearest 3.3", "nearest 20", "percentile 0 area",
+            "percentile 37.5 area", "percentile 50 area", "percentile 100 area", "prefix driver1 15", "prefix driver 2000",
+            "top 9 area dsc", "top 4 name asc"};
+        DriverRegistry registry = new DriverRegistry();
+        LinkedList<Driver> reference = new LinkedList<>();
+        int added = 0;
+        // Batches small next to the registry, so most views extend the last one and a few are built again
+        for (int batch = 1; added < drivers.size(); batch += 3) {
+            List<Driver> next = drivers.subList(added, Math.min(drivers.size(), added + batch));
+            registry.addAll(next);
+            next.forEach(reference::add);
+            added += next.size();
+
+            StringBuilder expected = new StringBuilder();
+            StringBuilder actual = new StringBuilder();
+            for (String line : lines) {
+                Command.parse(line).execute(reference, expected);
+                Command.parse(line).execute(registry.snapshot(), actual);
+            }
+            assertEquals(expected.toString(), actual.toString(), added + " drivers");
+            for (String order : new String[] {"asc", "dsc"}) {
+                LinkedList<Driver> byArea = new LinkedList<>(reference);
+                byArea.sortByArea(order);
+                assertSameOrder(contents(byArea), contents(registry.sortedByArea(order)));
+            }
+            LinkedList<Driver> byName = new LinkedList<>(reference);
+            byName.sortByName("dsc");
+            LinkedList<Driver> view = registry.sortedByName("dsc");
+            assertSameOrder(contents(byName), contents(view));
+            assertEquals(reference.searchByPrefix("driver2", 50), view.searchByPrefix("driver2", 50));
+        }
+    }
+
+    @Test
+    void viewsAreReadOnly() {
+        DriverRegistry registry = new DriverRegistry();
+        registry.addAll(LinkedListTest.drivers(50, 23));
+        LinkedList<Driver> view = registry.sortedByName("asc");
+        assertTrue(view.isReadOnly());
+        assertThrows(UnsupportedOperationException.class, () -> view.add(new Driver("extra", 1)));
+        assertThrows(UnsupportedOperationException.class, () -> view.sortByArea("asc"));
+        assertThrows(UnsupportedOperationException.class, () -> view.sort(Driver.BY_AREA));
+        assertThrows(UnsupportedOperationException.class, () -> registry.snapshot().addAll(List.of(new Driver("extra", 1))));
+        assertThrows(UnsupportedOperationException.class, () -> registry.searchAllByName("driver1").clear());
+    }
+
+    @Test
+    void concurrentAddsLookupsAndViewsAgree() throws InterruptedException {
+        int writers = 4;
+        int perWriter = 20000;
+        DriverRegistry registry = new DriverRegistry();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < perWriter; i++) {
+                    registry.add(new Driver("w" + writer + "-" + i, (i * 7919) % 1000));
+                    if (i % 1000 == 0 && registry.searchByName("w" + writer + "-" + i) == null) {
+                        failures.add("w" + writer + "-" + i + " not found after its add");
+                    }
+                }
+            }));
+        }
+        Thread reader = new Thread(() -> {
+            awaitQuietly(start);
+            while (writing.get()) {
+                int before = registry.size();
+                List<Driver> view = contents(registry.sortedByArea("asc"));
+                if (view.size() < before) {
+                    failures.add("a view missed drivers counted before it was asked for");
+                }
+                for (int i = 1; i < view.size(); i++) {
+                    if (view.get(i - 1).getArea() > view.get(i).getArea()) {
+                        failures.add("a view is out of order");
+                        break;
+                    }
+                }
+                // A driver in a view is found by name
+                if (!view.isEmpty() && registry.searchAllByName(view.get(view.size() / 2).getName()).isEmpty()) {
+                    failures.add("a driver in a view is not found by name");
+                }
+            }
+        });
+        threads.forEach(Thread::start);
+        reader.start();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writing.set(false);
+        reader.join();
+
+        assertTrue(failures.isEmpty(), () -> failures.peek());
+        assertEquals(writers * perWriter, registry.size());
+        assertEquals(writers * perWriter, registry.sortedByArea("dsc").size());
+        for (int w = 0; w < writers; w++) {
+            for (int i = 0; i < perWriter; i += 97) {
+                assertFalse(registry.searchAllByName("W" + w + "-" + i).isEmpty());
+            }
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
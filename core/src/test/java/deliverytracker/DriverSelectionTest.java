@@ -0,0 +1,76 @@
+package deliverytracker;
+
+import static deliverytracker.LinkedListTest.assertSameOrder;
+import static deliverytracker.LinkedListTest.contents;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DriverSelectionTest {
+    @Test
+    void topMatchesTheHeadOfAStableSort() {
+        List<Driver> drivers = LinkedListTest.drivers(3000, 40);
+        LinkedList<Driver> list = new LinkedList<>();
+        drivers.forEach(list::add);
+        List<Comparator<Driver>> orders = List.of(Driver.BY_AREA, Driver.BY_AREA.reversed(), Driver.BY_NAME,
+                Driver.BY_NAME.reversed());
+        for (Comparator<Driver> order : orders) {
+            List<Driver> sorted = new ArrayList<>(drivers);
+            sorted.sort(order); // Stable, so ties keep list order
+            for (int k : new int[] {1, 7, 100, 3000, 5000}) {
+                assertSameOrder(sorted.subList(0, Math.min(k, sorted.size())), DriverSelection.top(list, k, order));
+            }
+        }
+        assertSameOrder(contents(list), drivers);
+    }
+
+    @Test
+    void topOfNothingIsEmpty() {
+        LinkedList<Driver> list = new LinkedList<>();
+        assertTrue(DriverSelection.top(list, 5, Driver.BY_AREA).isEmpty());
+        list.add(new Driver("solo", 1));
+        assertTrue(DriverSelection.top(list, 0, Driver.BY_AREA).isEmpty());
+        assertTrue(DriverSelection.top(list, -1, Driver.BY_AREA).isEmpty());
+    }
+
+    @Test
+    void percentileUsesTheNearestRank() {
+        LinkedList<Driver> list = new LinkedList<>();
+        assertNull(list.searchByAreaPercentile(50));
+        List<Driver> drivers = new ArrayList<>();
+        // Added out of order: areas 1 to 10
+        for (int area : new int[] {7, 3, 10, 1, 5, 9, 2, 8, 4, 6}) {
+            Driver driver = new Driver("d" + area, area);
+            drivers.add(driver);
+            list.add(driver);
+        }
+        assertEquals(1, list.searchByAreaPercentile(0).getArea());
+        assertEquals(1, list.searchByAreaPercentile(10).getArea());
+        assertEquals(2, list.searchByAreaPercentile(10.1).getArea());
+        assertEquals(5, list.searchByAreaPercentile(50).getArea());
+        assertEquals(9, list.searchByAreaPercentile(90).getArea());
+        assertEquals(10, list.searchByAreaPercentile(100).getArea());
+        // Out-of-range percentiles are clamped
+        assertEquals(1, list.searchByAreaPercentile(-20).getArea());
+        assertEquals(10, list.searchByAreaPercentile(250).getArea());
+        // Answered from the index, so the list keeps its order
+        assertSameOrder(drivers, contents(list));
+    }
+
+    @Test
+    void percentileTiesGoToTheFirstDriverAdded() {
+        LinkedList<Driver> list = new LinkedList<>();
+        Driver first = new Driver("first", 3);
+        list.add(new Driver("small", 1));
+        list.add(first);
+        list.add(new Driver("second", 3));
+        assertSame(first, list.searchByAreaPercentile(50));
+    }
+}
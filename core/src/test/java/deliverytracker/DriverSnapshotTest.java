@@ -0,0 +1,141 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DriverSnapshotTest {
+    @TempDir
+    Path directory;
+
+    private Path source;
+    private Path snapshot;
+    private LinkedList<Driver> parsed;
+
+    @BeforeEach
+    void writeSnapshot() throws IOException {
+        source = directory.resolve("routes.txt");
+        snapshot = directory.resolve("routes.snapshot");
+        RouteFiles.write(source, 2000, 10);
+        parsed = new LinkedList<>();
+        Main.readDriverFile(source.toString(), parsed);
+        // Drivers without geometry are written with a vertex count of 0
+        parsed.add(new Driver("Zoë", 12.5));
+        DriverSnapshot.write(snapshot, Files.size(source), Files.getLastModifiedTime(source).toMillis(), parsed);
+    }
+
+    @Test
+    void aSnapshotReadsBackTheSameDrivers() throws IOException {
+        LinkedList<Driver> loaded = new LinkedList<>();
+        assertTrue(DriverSnapshot.read(snapshot, source, loaded));
+
+        List<Driver> expected = LinkedListTest.contents(parsed);
+        List<Driver> actual = LinkedListTest.contents(loaded);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Driver want = expected.get(i);
+            Driver got = actual.get(i);
+            assertEquals(want.getName(), got.getName());
+            assertEquals(Double.doubleToRawLongBits(want.getArea()), Double.doubleToRawLongBits(got.getArea()));
+            if (want.getGeometry() == null) {
+                assertNull(got.getGeometry());
+            } else {
+                assertArrayEquals(want.getGeometry().coordinates(), got.getGeometry().coordinates());
+            }
+        }
+        assertEquals(parsed.searchAllByName("driver5").size(), loaded.searchAllByName("Driver5").size());
+    }
+
+    @Test
+    void aCorruptBodyIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(snapshot, bytes);
+        assertRejected();
+    }
+
+    @Test
+    void aCorruptHeaderFieldIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[12] ^= 0x01; // The driver count
+        Files.write(snapshot, bytes);
+        assertRejected();
+    }
+
+    @Test
+    void aTruncatedSnapshotIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 3));
+        assertRejected();
+    }
+
+    @Test
+    void aSnapshotOfAnOlderRouteFileIsNotUsed() throws IOException {
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 1000));
+        assertRejected();
+    }
+
+    @Test
+    void aMissingSnapshotIsNotUsed() throws IOException {
+        Files.delete(snapshot);
+        assertRejected();
+    }
+
+    @Test
+    void theFallbackRewritesTheSnapshot() throws IOException {
+        Files.write(snapshot, new byte[] {1, 2, 3});
+        LinkedList<Driver> loaded = new LinkedList<>();
+        Main.readDriverFileWithSnapshot(source.toString(), snapshot.toString(), loaded, false, true);
+        assertEquals(parsed.size() - 1, loaded.size());
+        assertTrue(DriverSnapshot.read(snapshot, source, new LinkedList<>()));
+    }
+
+    @Test
+    void aSnapshotWithoutGeometryReadsBackNamesAndAreas() throws IOException {
+        Path areasOnly = directory.resolve("areas.snapshot");
+        DriverSnapshot.write(areasOnly, Files.size(source), Files.getLastModifiedTime(source).toMillis(), parsed, false);
+        assertTrue(Files.size(areasOnly) < Files.size(snapshot));
+        // Asking for the other geometry setting rejects the snapshot, so it gets rewritten
+        assertFalse(DriverSnapshot.read(areasOnly, source, new LinkedList<>(), true));
+        assertFalse(DriverSnapshot.read(snapshot, source, new LinkedList<>(), false));
+
+        LinkedList<Driver> loaded = new LinkedList<>();
+        assertTrue(DriverSnapshot.read(areasOnly, source, loaded, false));
+        List<Driver> expected = LinkedListTest.contents(parsed);
+        List<Driver> actual = LinkedListTest.contents(loaded);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(Double.doubleToRawLongBits(expected.get(i).getArea()), Double.doubleToRawLongBits(actual.get(i).getArea()));
+            assertNull(actual.get(i).getGeometry());
+        }
+    }
+
+    @Test
+    void theFallbackRewritesASnapshotWithTheOtherGeometrySetting() throws IOException {
+        LinkedList<Driver> loaded = new LinkedList<>();
+        Main.readDriverFileWithSnapshot(source.toString(), snapshot.toString(), loaded, false, false);
+        assertEquals(parsed.size() - 1, loaded.size());
+        assertTrue(DriverSnapshot.read(snapshot, source, new LinkedList<>(), false));
+        assertFalse(DriverSnapshot.read(snapshot, source, new LinkedList<>(), true));
+    }
+
+    private void assertRejected() throws IOException {
+        LinkedList<Driver> loaded = new LinkedList<>();
+        assertFalse(DriverSnapshot.read(snapshot, source, loaded));
+        assertEquals(0, loaded.size(), "Nothing is added from a rejected snapshot");
+    }
+}
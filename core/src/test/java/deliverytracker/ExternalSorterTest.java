@@ -0,0 +1,72 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExternalSorterTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Sorts the route file with the external sorter and in a LinkedList, and compares the lists
+     * as displayDriverList writes them.
+     */
+    private void assertSortsLikeALinkedList(Path file, long memoryBudget, boolean spills, String... sortLines) throws IOException {
+        List<Command> sorts = new ArrayList<>();
+        for (String line : sortLines) {
+            sorts.add(Command.parse(line));
+        }
+
+        LinkedList<Driver> driverList = new LinkedList<>();
+        Main.readDriverFile(file.toString(), driverList);
+        StringBuilder expected = new StringBuilder();
+        for (Command sort : sorts) {
+            sort.execute(driverList, expected);
+        }
+        Main.displayDriverList(driverList, expected);
+
+        StringBuilder actual = new StringBuilder();
+        try (ExternalSorter sorter = new ExternalSorter(ExternalSorter.orderOf(sorts), memoryBudget)) {
+            sorter.read(file);
+            assertEquals(spills, sorter.getRunCount() > 0);
+            sorter.writeSorted(actual);
+        }
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void spilledRunsMergeIntoTheInMemoryOrder() throws IOException {
+        Path file = directory.resolve("routes.txt");
+        RouteFiles.write(file, 30_000, 11);
+        // The smallest budget: many runs, merged in several passes
+        assertSortsLikeALinkedList(file, 0, true, "sort area dsc");
+        assertSortsLikeALinkedList(file, 0, true, "sort name asc");
+    }
+
+    @Test
+    void earlierSortsOnOtherKeysBreakTies() throws IOException {
+        Path file = directory.resolve("routes.txt");
+        RouteFiles.write(file, 30_000, 12);
+        assertSortsLikeALinkedList(file, 0, true, "sort area asc", "sort name dsc");
+        assertSortsLikeALinkedList(file, 0, true, "sort name asc", "sort area dsc", "sort area asc");
+    }
+
+    @Test
+    void aFleetThatFitsIsSortedWithoutSpilling() throws IOException {
+        Path file = directory.resolve("routes.txt");
+        RouteFiles.write(file, 1000, 13);
+        assertSortsLikeALinkedList(file, 64L << 20, false, "sort name dsc", "sort area asc");
+    }
+
+    @Test
+    void theOrderOfNoSortsIsFileOrder() {
+        assertEquals(0, ExternalSorter.orderOf(List.of()).compare(new Driver("b", 2), new Driver("a", 1)));
+    }
+}
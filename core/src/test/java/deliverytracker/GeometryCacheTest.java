@@ -0,0 +1,133 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+class GeometryCacheTest {
+    private static final double[] SQUARE_XS = {0, 2, 2, 0, 0};
+    private static final double[] SQUARE_YS = {0, 0, 2, 2, 0};
+
+    @Test
+    void identicalRoutesShareOneGeometry() {
+        GeometryCache cache = new GeometryCache(16);
+        GeometryCache.Route first = cache.intern(SQUARE_XS, SQUARE_YS, 5);
+        GeometryCache.Route again = cache.intern(SQUARE_XS.clone(), SQUARE_YS.clone(), 5);
+
+        assertSame(first, again);
+        assertEquals(4.0, first.getArea());
+        assertEquals(5, first.getGeometry().getVertexCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void negativeZeroIsTheSameVertex() {
+        GeometryCache cache = new GeometryCache(16);
+        GeometryCache.Route route = cache.intern(SQUARE_XS, SQUARE_YS, 5);
+        assertSame(route, cache.intern(new double[] {-0.0, 2, 2, -0.0, -0.0}, SQUARE_YS, 5));
+    }
+
+    @Test
+    void differentRoutesDoNotShare() {
+        GeometryCache cache = new GeometryCache(16);
+        GeometryCache.Route square = cache.intern(SQUARE_XS, SQUARE_YS, 5);
+        // The same vertices but fewer of them is another route
+        GeometryCache.Route open = cache.intern(SQUARE_XS, SQUARE_YS, 4);
+        GeometryCache.Route moved = cache.intern(new double[] {0, 2, 2, 0, 0}, new double[] {0, 0, 3, 3, 0}, 5);
+
+        assertNotSame(square, open);
+        assertNotSame(square, moved);
+        assertEquals(6.0, moved.getArea());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void theLeastRecentlyUsedRouteIsEvicted() {
+        GeometryCache cache = new GeometryCache(2);
+        GeometryCache.Route a = cache.intern(xs(1), ys(1), 5);
+        GeometryCache.Route b = cache.intern(xs(2), ys(2), 5);
+        cache.intern(xs(1), ys(1), 5); // a is now the most recently used
+        cache.intern(xs(3), ys(3), 5);
+
+        assertEquals(2, cache.size());
+        assertSame(a, cache.intern(xs(1), ys(1), 5));
+        assertNotSame(b, cache.intern(xs(2), ys(2), 5));
+    }
+
+    @Test
+    void aSegmentedCacheStaysWithinItsCapacity() {
+        GeometryCache cache = new GeometryCache(64, 8);
+        for (int i = 0; i < 1000; i++) {
+            cache.intern(xs(i), ys(i), 5);
+        }
+        assertTrue(cache.size() <= 64, () -> cache.size() + " routes cached");
+        assertTrue(cache.size() > 0);
+    }
+
+    @Test
+    void threadsInterningTheSameRoutesShareThem() throws InterruptedException {
+        GeometryCache cache = new GeometryCache(1024, 8);
+        int threads = 8;
+        int routes = 200;
+        GeometryCache.Route[][] seen = new GeometryCache.Route[threads][routes];
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int round = 0; round < 20; round++) {
+                        for (int i = 0; i < routes; i++) {
+                            // Each thread walks the routes from a different place
+                            int route = (i + thread * 25) % routes;
+                            GeometryCache.Route interned = cache.intern(xs(route), ys(route), 5);
+                            if (seen[thread][route] != null && seen[thread][route] != interned) {
+                                failures.add(new AssertionError("route " + route + " was cached twice"));
+                            }
+                            seen[thread][route] = interned;
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> String.valueOf(failures.peek()));
+        assertEquals(routes, cache.size());
+        for (int i = 0; i < routes; i++) {
+            for (int t = 1; t < threads; t++) {
+                assertSame(seen[0][i], seen[t][i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the x coordinates of a closed square whose size depends on the given number.
+     */
+    private static double[] xs(int number) {
+        return new double[] {0, number + 1, number + 1, 0, 0};
+    }
+
+    /**
+     * Returns the y coordinates of the square xs describes.
+     */
+    private static double[] ys(int number) {
+        return new double[] {0, 0, number + 1, number + 1, 0};
+    }
+}
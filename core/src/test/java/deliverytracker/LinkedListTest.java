@@ -0,0 +1,263 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LinkedListTest {
+    /**
+     * Returns drivers with many repeated names and areas, so sorts have ties to keep in order.
+     */
+    static List<Driver> drivers(int count, long seed) {
+        Random random = new Random(seed);
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            drivers.add(new Driver("driver" + random.nextInt(count / 4 + 1), random.nextInt(50) / 4.0));
+        }
+        return drivers;
+    }
+
+    static List<Driver> contents(IndexedList<Driver> list) {
+        List<Driver> result = new ArrayList<>();
+        for (Driver driver : list) {
+            result.add(driver);
+        }
+        return result;
+    }
+
+    private static LinkedList<Driver> listOf(List<Driver> drivers) {
+        LinkedList<Driver> list = new LinkedList<>();
+        for (Driver driver : drivers) {
+            list.add(driver);
+        }
+        return list;
+    }
+
+    /**
+     * Asserts that two lists hold the same driver objects in the same order.
+     */
+    static void assertSameOrder(List<Driver> expected, List<Driver> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i), "at position " + i);
+        }
+    }
+
+    @Test
+    void sortIsStable() {
+        List<Driver> drivers = drivers(1000, 1);
+        LinkedList<Driver> list = listOf(drivers);
+
+        list.sortByArea("asc");
+        List<Driver> expected = new ArrayList<>(drivers);
+        expected.sort(Driver.BY_AREA); // List.sort is stable
+        assertSameOrder(expected, contents(list));
+
+        list.sortByName("dsc");
+        expected.sort(Driver.BY_NAME.reversed());
+        assertSameOrder(expected, contents(list));
+    }
+
+    @Test
+    void sortKeepsPrevLinksAndFullNodes() {
+        // Several full nodes and a partial one
+        LinkedList<Driver> list = listOf(drivers(5 * Node.CAPACITY + 17, 2));
+        list.sortByName("asc");
+        Node<Driver> last = null;
+        int count = 0;
+        for (Node<Driver> current = list.getHead(); current != null; current = current.getNext()) {
+            assertSame(last, current.getPrev());
+            if (current.getNext() != null) {
+                assertTrue(current.isFull());
+            }
+            last = current;
+            count += current.getCount();
+        }
+        assertEquals(list.size(), count);
+        assertEquals(17, last.getCount());
+    }
+
+    @Test
+    void aCopyHasItsOwnNodes() {
+        List<Driver> drivers = drivers(3 * Node.CAPACITY, 7);
+        LinkedList<Driver> list = listOf(drivers);
+        LinkedList<Driver> copy = new LinkedList<>(list);
+        copy.sortByArea("asc");
+        copy.add(new Driver("late", 1));
+        assertSameOrder(drivers, contents(list));
+        assertEquals(drivers.size() + 1, copy.size());
+        assertNull(list.searchByName("late"));
+    }
+
+    @Test
+    void flippingTheOrderMatchesAStableSort() {
+        List<Driver> drivers = drivers(1000, 3);
+        for (String key : new String[] {"name", "area"}) {
+            Comparator<Driver> comparator = "name".equals(key) ? Driver.BY_NAME : Driver.BY_AREA;
+            LinkedList<Driver> flipped = listOf(drivers);
+            sort(flipped, key, "asc");
+            sort(flipped, key, "dsc");
+            List<Driver> expected = new ArrayList<>(drivers);
+            expected.sort(comparator.reversed());
+            assertSameOrder(expected, contents(flipped));
+            assertTrue(flipped.isSortedBy(key, "dsc"));
+
+            // And back again: equal keys are still in file order
+            sort(flipped, key, "asc");
+            expected = new ArrayList<>(drivers);
+            expected.sort(comparator);
+            assertSameOrder(expected, contents(flipped));
+        }
+    }
+
+    @Test
+    void radixSortMatchesMergeSort() {
+        List<Driver> drivers = drivers(5000, 4);
+        drivers.add(new Driver("Émile", -3.5));
+        drivers.add(new Driver("", 0.0));
+        drivers.add(new Driver("driver", -0.0));
+        drivers.add(new Driver("zed", Double.MAX_VALUE));
+        for (String key : new String[] {"name", "area"}) {
+            for (String order : new String[] {"asc", "dsc"}) {
+                LinkedList<Driver> merged = listOf(drivers);
+                LinkedList<Driver> radix = listOf(drivers);
+                sort(merged, key, order);
+                if ("name".equals(key)) {
+                    radix.radixSortByName(order);
+                } else {
+                    radix.radixSortByArea(order);
+                }
+                assertSameOrder(contents(merged), contents(radix));
+                assertTrue(radix.isSortedBy(key, order));
+            }
+        }
+    }
+
+    @Test
+    void addAllToASortedListMatchesAppendingAndSorting() {
+        List<Driver> drivers = drivers(600, 5);
+        LinkedList<Driver> merged = listOf(drivers.subList(0, 400));
+        merged.sortByArea("dsc");
+        merged.addAll(drivers.subList(400, 600));
+        LinkedList<Driver> sorted = listOf(drivers);
+        sorted.sortByArea("dsc");
+        assertSameOrder(contents(sorted), contents(merged));
+        assertTrue(merged.isSortedBy("area", "dsc"));
+    }
+
+    @Test
+    void nameLookupsIgnoreCaseAndSurroundingWhitespace() {
+        LinkedList<Driver> list = new LinkedList<>();
+        Driver first = new Driver("Alice", 1);
+        Driver second = new Driver("alice", 2);
+        Driver other = new Driver("Bob", 3);
+        Driver german = new Driver("STRASSE", 4);
+        list.add(first);
+        list.add(other);
+        list.add(second);
+        list.add(german);
+
+        assertSame(first, list.searchByName("ALICE"));
+        assertSame(first, list.searchByName("  alice "));
+        assertSameOrder(List.of(first, second), list.searchAllByName("aLiCe"));
+        assertSame(german, list.searchByName("strasse"));
+        assertNull(list.searchByName("carol"));
+        assertTrue(list.searchAllByName("carol").isEmpty());
+
+        // The index does not depend on the order of the nodes
+        list.sortByName("dsc");
+        assertSameOrder(List.of(first, second), list.searchAllByName("ALICE"));
+    }
+
+    @Test
+    void nameKeyFoldsLikeEqualsIgnoreCase() {
+        String[] names = {"Alice", "ALICE", "Ǆemal", "ǅemal", "ǆemal", "İstanbul", "ıstanbul", "ΣΊΣΥΦΟΣ", "σίσυφος"};
+        for (String a : names) {
+            for (String b : names) {
+                assertEquals(a.equalsIgnoreCase(b), LinkedList.nameKey(a).equals(LinkedList.nameKey(b)), a + " vs " + b);
+            }
+        }
+    }
+
+    @Test
+    void prefixSearchMatchesCaseInsensitively() {
+        LinkedList<Driver> list = listOf(List.of(new Driver("Anna", 1), new Driver("annabel", 2), new Driver("Bob", 3)));
+        List<String> names = new ArrayList<>();
+        for (Driver driver : list.searchByPrefix("ANN", 10)) {
+            names.add(driver.getName());
+        }
+        assertEquals(List.of("Anna", "annabel"), names);
+        assertEquals(1, list.searchByPrefix("ann", 1).size());
+    }
+
+    @Test
+    void copyNodesSharesTheIndexesButNotTheOrder() {
+        List<Driver> drivers = drivers(100, 6);
+        LinkedList<Driver> list = listOf(drivers);
+        LinkedList<Driver> copy = list.copyNodes();
+        copy.sortByArea("dsc");
+        assertSameOrder(drivers, contents(list));
+        assertSame(list.searchByName("driver3"), copy.searchByName("driver3"));
+        assertThrows(IllegalStateException.class, () -> copy.add(new Driver("late", 1)));
+        assertThrows(IllegalStateException.class, () -> list.add(new Driver("late", 1)));
+    }
+
+    @Test
+    void appendAllMatchesAddingOneByOne() {
+        List<Driver> drivers = drivers(1000, 8);
+        // Cut where the first list's tail node is partial, and where it is full
+        for (int cut : new int[] {0, 300, 2 * Node.CAPACITY}) {
+            LinkedList<Driver> added = listOf(drivers);
+            LinkedList<Driver> appended = listOf(drivers.subList(0, cut));
+            appended.appendAll(listOf(drivers.subList(cut, drivers.size())));
+
+            assertSameOrder(drivers, contents(appended));
+            assertEquals(drivers.size(), appended.size());
+            assertSameOrder(added.searchAllByName("driver42"), appended.searchAllByName("DRIVER42"));
+            assertSameOrder(added.searchByAreaRange(3, 5), appended.searchByAreaRange(3, 5));
+            assertSameOrder(added.searchNearestArea(6.1), appended.searchNearestArea(6.1));
+            assertSameOrder(added.searchByPrefix("driver1", 100), appended.searchByPrefix("driver1", 100));
+            assertSameOrder(added.searchByPrefix("d", 1000), appended.searchByPrefix("d", 1000));
+            // Still an ordinary list afterwards
+            appended.add(new Driver("late", 1));
+            assertEquals(drivers.size() + 1, contents(appended).size());
+            assertEquals(1, appended.searchAllByName("late").size());
+        }
+    }
+
+    @Test
+    void appendAllMergesTriesThatSplitTheSameEdge() {
+        LinkedList<Driver> first = listOf(List.of(new Driver("carla", 1), new Driver("carl", 2), new Driver("bo", 3)));
+        LinkedList<Driver> second = listOf(List.of(new Driver("car", 4), new Driver("carlos", 5), new Driver("carla", 6),
+                new Driver("Bob", 7)));
+        LinkedList<Driver> expected = new LinkedList<>();
+        for (Driver driver : contents(first)) {
+            expected.add(driver);
+        }
+        for (Driver driver : contents(second)) {
+            expected.add(driver);
+        }
+        first.appendAll(second);
+        for (String prefix : new String[] {"", "b", "bo", "c", "car", "carl", "carla", "carlo", "x"}) {
+            assertSameOrder(expected.searchByPrefix(prefix, 10), first.searchByPrefix(prefix, 10));
+        }
+        assertSameOrder(expected.searchAllByName("carla"), first.searchAllByName("carla"));
+    }
+
+    private static void sort(IndexedList<Driver> list, String key, String order) {
+        if ("name".equals(key)) {
+            list.sortByName(order);
+        } else {
+            list.sortByArea(order);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MetricsTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void histogramPercentilesAreBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(50));
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100); // Bucket 64..127
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5000); // Bucket 4096..8191
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(127, histogram.percentile(50));
+        assertEquals(127, histogram.percentile(90));
+        // Capped at the largest duration recorded rather than the bucket's end
+        assertEquals(5000, histogram.percentile(91));
+        assertEquals(5000, histogram.percentile(100));
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(90 * 100 + 10 * 5000, snapshot.getTotalNanos());
+        assertEquals(5000, snapshot.getMaxNanos());
+        assertEquals(127, snapshot.getMedianNanos());
+        assertEquals(5000, snapshot.getP99Nanos());
+    }
+
+    @Test
+    void nonPositiveDurationsCountAsOneNanosecond() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(-5);
+        assertEquals(2, histogram.getCount());
+        assertEquals(1, histogram.percentile(100));
+        assertEquals(2, histogram.snapshot().getTotalNanos());
+    }
+
+    @Test
+    void recordsFromManyThreadsAreAllCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 1; i <= 10000; i++) {
+                    histogram.record(i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, histogram.getCount());
+        assertEquals(10000, histogram.snapshot().getMaxNanos());
+    }
+
+    @Test
+    void withoutTheSwitchNothingIsCounted() throws IOException {
+        assumeFalse(Metrics.ENABLED, "metrics are switched on for this JVM");
+        Path file = directory.resolve("routes.txt");
+        RouteFiles.write(file, 500, 15);
+        LinkedList<Driver> driverList = new LinkedList<>();
+        Main.readDriverFile(file.toString(), driverList);
+        driverList.sortByArea("asc");
+        Command.parse("nobody").execute(driverList, new StringBuilder());
+
+        assertEquals(0, Metrics.ROUTES_ACCEPTED.sum());
+        assertEquals(0, Metrics.PARSE.getCount());
+        assertEquals(0, Metrics.SORT.getCount());
+        assertEquals(0, Metrics.SEARCH.getCount());
+        assertEquals(0, Metrics.LOOKUP_MISSES.sum());
+    }
+
+    @Test
+    void theSummaryCountsARun() throws IOException, InterruptedException {
+        Path routes = directory.resolve("routes.txt");
+        int closed = RouteFiles.write(routes, 2000, 16);
+        Path commands = directory.resolve("commands.txt");
+        Files.write(commands, List.of("nobody", "range 1 2", "sort area asc", "nearest 5"));
+        Path errors = directory.resolve("errors.txt");
+
+        // The switch is read once per JVM, so the run gets its own
+        List<String> command = List.of(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), Main.class.getName(),
+                "--metrics", "--output", directory.resolve("output.txt").toString(), routes.toString(), commands.toString());
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(errors.toFile())
+                .start();
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS), "The run did not finish");
+        String summary = new String(Files.readAllBytes(errors), StandardCharsets.UTF_8);
+        assertEquals(0, process.exitValue(), summary);
+
+        assertTrue(summary.contains("routes accepted " + closed + ", rejected " + (2000 - closed)), summary);
+        assertTrue(summary.contains("lookup misses 1"), summary);
+        assertTrue(summary.contains("search: count 3,"), summary);
+        assertTrue(summary.contains("sort:   count 1,"), summary);
+        assertTrue(summary.contains("area:   count " + closed + ","), summary);
+    }
+}
@@ -0,0 +1,161 @@
+package deliverytracker;
+
+import static deliverytracker.LinkedListTest.assertSameOrder;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class NameTrieTest {
+    // Prefixes that end inside edges, at nodes, past the last name and off to the side
+    private static final String[] PREFIXES = {
+        "", "d", "dr", "dri", "driv", "drive", "driver", "drivers", "driverz", "drivez", "dx", "x", "a", "ab", "abc",
+        "abcd", "abcde", "abd", "b", "ba", "bab", "abab", "aaaa"
+    };
+
+    @Test
+    void edgesSplitAtEveryPlaceANameLeavesThem() {
+        // Each name leaves the edges the earlier names made at a different place
+        List<Driver> drivers = named("driver", "drive", "drivers", "dr", "dx", "driverz", "d", "drivel");
+        NameTrie trie = trieOf(drivers);
+        for (String prefix : PREFIXES) {
+            assertSameOrder(scan(drivers, prefix, Integer.MAX_VALUE), trie.prefix(prefix, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void prefixesMatchAScanInNameOrder() {
+        List<Driver> drivers = randomDrivers(new Random(80), 3000);
+        NameTrie trie = trieOf(drivers);
+        for (String prefix : PREFIXES) {
+            for (int limit : new int[] {1, 3, 50, Integer.MAX_VALUE}) {
+                assertSameOrder(scan(drivers, prefix, limit), trie.prefix(prefix, limit));
+            }
+        }
+    }
+
+    @Test
+    void addAllMatchesAddingOneByOne() {
+        Random random = new Random(81);
+        for (int round = 0; round < 50; round++) {
+            // Small alphabets and short names, so the tries share edges, split them and nest in each other
+            List<Driver> first = randomDrivers(random, random.nextInt(40));
+            List<Driver> second = randomDrivers(random, random.nextInt(40));
+            NameTrie merged = trieOf(first);
+            merged.addAll(trieOf(second));
+
+            List<Driver> all = new ArrayList<>(first);
+            all.addAll(second);
+            NameTrie added = trieOf(all);
+            for (String prefix : PREFIXES) {
+                assertSameOrder(added.prefix(prefix, Integer.MAX_VALUE), merged.prefix(prefix, Integer.MAX_VALUE));
+                assertSameOrder(scan(all, prefix, Integer.MAX_VALUE), merged.prefix(prefix, Integer.MAX_VALUE));
+            }
+        }
+    }
+
+    @Test
+    void addAllSplitsAndNestsOverlappingEdges() {
+        // The source's edges are shorter, longer and partly shared with the target's
+        List<Driver> target = named("abc", "abcde", "ba", "b");
+        List<Driver> source = named("abd", "ab", "abcdef", "abc", "bab", "c", "");
+        NameTrie trie = trieOf(target);
+        trie.addAll(trieOf(source));
+
+        List<Driver> all = new ArrayList<>(target);
+        all.addAll(source);
+        for (String prefix : PREFIXES) {
+            assertSameOrder(scan(all, prefix, Integer.MAX_VALUE), trie.prefix(prefix, Integer.MAX_VALUE));
+        }
+        assertSameOrder(List.of(all.get(0), all.get(7)), trie.prefix("abc", 2));
+    }
+
+    @Test
+    void driversWithTheSameNameKeepTheOrderTheyWereAddedIn() {
+        List<Driver> drivers = named("same", "other", "same", "Same ", "same");
+        NameTrie trie = trieOf(drivers);
+        assertSameOrder(List.of(drivers.get(0), drivers.get(2), drivers.get(3), drivers.get(4)), trie.prefix("same", 10));
+
+        NameTrie more = trieOf(named("same"));
+        more.addAll(trie);
+        List<Driver> found = more.prefix("same", 10);
+        assertSameOrder(List.of(drivers.get(0), drivers.get(2), drivers.get(3), drivers.get(4)), found.subList(1, 5));
+    }
+
+    @Test
+    void caseAndSurroundingWhitespaceAreIgnored() {
+        List<Driver> drivers = named("Zoë", "ZOË", " zoëlle", "Élodie", "élan", "Driver1", "北京");
+        NameTrie trie = trieOf(drivers);
+        assertSameOrder(List.of(drivers.get(0), drivers.get(1), drivers.get(2)), trie.prefix("zoë", 10));
+        assertSameOrder(List.of(drivers.get(0), drivers.get(1), drivers.get(2)), trie.prefix(" ZOË ", 10));
+        assertSameOrder(List.of(drivers.get(4), drivers.get(3)), trie.prefix("É", 10));
+        assertSameOrder(List.of(drivers.get(5)), trie.prefix("DRIVER", 10));
+        assertSameOrder(List.of(drivers.get(6)), trie.prefix("北", 10));
+    }
+
+    @Test
+    void theLimitCutsTheResults() {
+        List<Driver> drivers = named("a", "a", "a", "ab", "abc", "b");
+        NameTrie trie = trieOf(drivers);
+        assertTrue(trie.prefix("a", 0).isEmpty());
+        assertTrue(trie.prefix("a", -1).isEmpty());
+        // Inside one name's drivers, and between a node and its children
+        assertSameOrder(drivers.subList(0, 2), trie.prefix("a", 2));
+        assertSameOrder(drivers.subList(0, 4), trie.prefix("a", 4));
+        assertSameOrder(drivers.subList(0, 5), trie.prefix("", 5));
+        assertSameOrder(drivers, trie.prefix("", 6));
+        assertTrue(new NameTrie().prefix("", 10).isEmpty());
+    }
+
+    /**
+     * Returns the drivers whose folded name starts with the folded prefix, in name order and
+     * then add order, up to the limit.
+     */
+    private static List<Driver> scan(List<Driver> drivers, String prefix, int limit) {
+        String key = LinkedList.nameKey(prefix);
+        List<Driver> result = new ArrayList<>();
+        for (Driver driver : drivers) {
+            if (LinkedList.nameKey(driver.getName()).startsWith(key)) {
+                result.add(driver);
+            }
+        }
+        // List.sort is stable, so equal names keep the order they were added in
+        result.sort(Comparator.comparing(driver -> LinkedList.nameKey(driver.getName())));
+        return result.subList(0, Math.min(limit, result.size()));
+    }
+
+    private static NameTrie trieOf(List<Driver> drivers) {
+        NameTrie trie = new NameTrie();
+        drivers.forEach(trie::add);
+        return trie;
+    }
+
+    private static List<Driver> named(String... names) {
+        List<Driver> drivers = new ArrayList<>();
+        for (String name : names) {
+            drivers.add(new Driver(name, drivers.size()));
+        }
+        return drivers;
+    }
+
+    /**
+     * Returns drivers with short names over a few letters, mixing case, plus some names that
+     * share a long stem.
+     */
+    private static List<Driver> randomDrivers(Random random, int count) {
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder(random.nextInt(4) == 0 ? "drive" : "");
+            int length = random.nextInt(5);
+            for (int j = 0; j < length; j++) {
+                name.append("abcdrsAB".charAt(random.nextInt(8)));
+            }
+            drivers.add(new Driver(name.toString(), i));
+        }
+        return drivers;
+    }
+}
@@ -0,0 +1,75 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class OptionsTest {
+    @Test
+    void optionsAndFileNamesAreParsed() {
+        Options options = Options.parse(new String[] {"--parallel", "--snapshot", "drivers.snap", "--snapshot-areas-only",
+            "--output", "out.txt", "--serve", "unix:/tmp/query.sock", "driver.txt", "cmd.txt"});
+        assertTrue(options.parallel);
+        assertTrue(options.batch);
+        assertEquals("out.txt", options.outputFilename);
+        assertEquals("drivers.snap", options.snapshotFilename);
+        assertFalse(options.snapshotGeometry);
+        assertEquals("unix:/tmp/query.sock", options.serveAddress);
+        assertEquals(List.of("driver.txt", "cmd.txt"), options.filenames);
+
+        Options sorting = Options.parse(new String[] {"--external-sort", "--memory", "64", "driver.txt"});
+        assertTrue(sorting.externalSort);
+        assertEquals(64, sorting.memoryMegabytes);
+        assertEquals(List.of("driver.txt"), sorting.filenames);
+        assertNull(sorting.serveAddress);
+    }
+
+    @Test
+    void aFollowedFileCanBeServed() {
+        Options options = Options.parse(new String[] {"--follow", "--serve", "0", "driver.txt"});
+        assertTrue(options.follow);
+        assertEquals("0", options.serveAddress);
+    }
+
+    @Test
+    void waysOfLoadingTheDriversCannotBeCombined() {
+        String[][] conflicts = {
+            {"--external-sort", "--columnar"},
+            {"--columnar", "--partitions", "4"},
+            {"--partitions", "2", "--follow"},
+            {"--follow", "--snapshot", "drivers.snap"},
+            {"--snapshot", "drivers.snap", "--external-sort"},
+            {"--columnar", "--serve", "0"},
+            {"--serve", "0", "--external-sort"},
+            {"--partitions", "3", "--serve", "0"},
+        };
+        for (String[] args : conflicts) {
+            assertThrows(IllegalArgumentException.class, () -> Options.parse(args), String.join(" ", args));
+        }
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Options.parse(new String[] {"--follow", "--columnar", "driver.txt"}));
+        assertEquals("--follow and --columnar cannot be combined", e.getMessage());
+    }
+
+    @Test
+    void unknownOptionsAreNotTakenForFileNames() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Options.parse(new String[] {"--paralel", "driver.txt", "cmd.txt"}));
+        assertEquals("Unknown option --paralel", e.getMessage());
+    }
+
+    @Test
+    void badValuesAreRejected() {
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                () -> Options.parse(new String[] {"driver.txt", "cmd.txt", "--output"}));
+        assertEquals("--output needs a value", missing.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Options.parse(new String[] {"--partitions", "many"}));
+        assertThrows(IllegalArgumentException.class, () -> Options.parse(new String[] {"a.txt", "b.txt", "c.txt"}));
+    }
+}
@@ -0,0 +1,111 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelRouteReaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void parallelIngestMatchesSerialIngest() throws IOException {
+        Path file = directory.resolve("routes.txt");
+        // Large enough to be split into several chunks
+        int closed = RouteFiles.write(file, 250_000, 7);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertTrue(ParallelRouteReader.splitAtLines(channel, 4).length > 2, "The file should be split");
+        }
+
+        LinkedList<Driver> serial = new LinkedList<>();
+        Main.readDriverFile(file.toString(), serial);
+        LinkedList<Driver> parallel = new LinkedList<>();
+        long rejected = ParallelRouteReader.read(file, 4, parallel);
+
+        assertEquals(closed, serial.size());
+        assertEquals(250_000 - closed, rejected);
+        List<Driver> expected = LinkedListTest.contents(serial);
+        List<Driver> actual = LinkedListTest.contents(parallel);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getArea(), actual.get(i).getArea());
+        }
+        assertEquals(serial.searchAllByName("driver17").size(), parallel.searchAllByName("DRIVER17").size());
+    }
+
+    @Test
+    void theMergedIndexesAnswerLikeASerialRead() throws IOException {
+        Path file = directory.resolve("routes.txt");
+        RouteFiles.write(file, 250_000, 9);
+        LinkedList<Driver> serial = new LinkedList<>();
+        Main.readDriverFile(file.toString(), serial);
+        LinkedList<Driver> parallel = new LinkedList<>();
+        ParallelRouteReader.read(file, 4, parallel);
+
+        assertSameRoutes(serial.searchAllByName("Driver123"), parallel.searchAllByName("driver123"));
+        assertSameRoutes(serial.searchByAreaRange(20, 21), parallel.searchByAreaRange(20, 21));
+        assertSameRoutes(serial.searchNearestArea(33.3), parallel.searchNearestArea(33.3));
+        assertSameRoutes(serial.searchByPrefix("driver77", 50), parallel.searchByPrefix("DRIVER77", 50));
+        assertSameRoutes(serial.searchCovering(0.5, 0.5), parallel.searchCovering(0.5, 0.5));
+        assertEquals(serial.searchByAreaPercentile(90).getArea(), parallel.searchByAreaPercentile(90).getArea());
+    }
+
+    @Test
+    void identicalRoutesInDifferentChunksShareTheirGeometry() throws IOException {
+        Path file = directory.resolve("routes.txt");
+        int lines = 250_000;
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < lines; i++) {
+                out.write("driver" + i + " 0,0 " + (1 + i % 5) + ",0 " + (1 + i % 5) + ",1 0,1 0,0\n");
+            }
+        }
+        LinkedList<Driver> parallel = new LinkedList<>();
+        ParallelRouteReader.read(file, 4, parallel);
+        Set<RouteGeometry> geometries = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Driver driver : parallel) {
+            geometries.add(driver.getGeometry());
+        }
+        assertEquals(lines, parallel.size());
+        assertEquals(5, geometries.size());
+    }
+
+    /**
+     * Asserts that two answers list the same routes, by name and area, in the same order.
+     */
+    private static void assertSameRoutes(List<Driver> expected, List<Driver> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString(), "at position " + i);
+        }
+    }
+
+    @Test
+    void chunksStartAtTheBeginningOfALine() throws IOException {
+        Path file = directory.resolve("routes.txt");
+        RouteFiles.write(file, 250_000, 8);
+        byte[] bytes = Files.readAllBytes(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = ParallelRouteReader.splitAtLines(channel, 8);
+            assertEquals(0, bounds[0]);
+            assertEquals(bytes.length, bounds[bounds.length - 1]);
+            for (int i = 1; i < bounds.length - 1; i++) {
+                assertTrue(bounds[i] > bounds[i - 1]);
+                assertEquals('\n', bytes[(int) bounds[i] - 1], "Chunk " + i + " starts mid-line");
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PartitionCoordinatorTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void shardedAnswersMatchASingleList() throws IOException {
+        Path file = directory.resolve("routes.txt");
+        RouteFiles.write(file, 5000, 14);
+        String[] lines = {
+            "driver12", "DRIVER40", "nobody", "range 10 20", "nearest 33.3", "top 7 area dsc", "percentile 50 area",
+            "percentile 99.5 area", "prefix Driver1 12", "prefix DRIVER2", "covers 0,0",
+            "sort area dsc", "top 5 name asc", "driver7", "sort name asc", "range 1 1.5", "nearest -5"
+        };
+
+        LinkedList<Driver> driverList = new LinkedList<>();
+        Main.readDriverFile(file.toString(), driverList);
+        StringBuilder expected = new StringBuilder();
+        for (String line : lines) {
+            Command.parse(line).execute(driverList, expected);
+        }
+        Main.displayDriverList(driverList, expected);
+
+        StringBuilder actual = new StringBuilder();
+        try (PartitionCoordinator coordinator = new PartitionCoordinator(file.toString(), 3)) {
+            assertEquals(driverList.size(), coordinator.size());
+            for (String line : lines) {
+                coordinator.execute(Command.parse(line), actual);
+            }
+            coordinator.display(actual);
+        }
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void aRunNeedsAShard() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionCoordinator("routes.txt", 0));
+    }
+}
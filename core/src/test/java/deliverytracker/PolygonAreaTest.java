@@ -0,0 +1,113 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PolygonAreaTest {
+    @Test
+    void theTestsRunTheVectorKernel() {
+        // The surefire configuration adds the module; without it the large polygons below
+        // would only check the scalar kernel against itself
+        assertTrue(PolygonArea.isVectorized(), "run the tests with --add-modules jdk.incubator.vector");
+    }
+
+    @Test
+    void simplePolygonsHaveTheirAreas() {
+        assertEquals(4.0, PolygonArea.area(new double[] {0, 2, 2, 0, 0}, new double[] {0, 0, 2, 2, 0}, 5));
+        // Counterclockwise and without repeating the first vertex
+        assertEquals(6.0, PolygonArea.area(new double[] {0, 0, 4}, new double[] {0, 3, 0}, 3));
+        assertEquals(0.0, PolygonArea.area(new double[0], new double[0], 0));
+        // Only the first count vertices are used
+        assertEquals(4.0, PolygonArea.area(new double[] {0, 2, 2, 0, 9, 9}, new double[] {0, 0, 2, 2, 9, 9}, 4));
+    }
+
+    @Test
+    void smallPolygonsMatchTheScalarShoelaceExactly() {
+        Random random = new Random(80);
+        for (int count : new int[] {1, 2, 3, 7, 64, 511, PolygonArea.VECTOR_THRESHOLD - 1}) {
+            double[][] polygon = star(random, count);
+            assertEquals(shoelace(polygon[0], polygon[1], count), PolygonArea.area(polygon[0], polygon[1], count), count + " vertices");
+        }
+    }
+
+    @Test
+    void largePolygonsMatchTheScalarShoelace() {
+        Random random = new Random(81);
+        // Counts that leave every possible remainder of edges after the full vectors
+        for (int count = PolygonArea.VECTOR_THRESHOLD; count <= PolygonArea.VECTOR_THRESHOLD + 9; count++) {
+            double[][] polygon = star(random, count);
+            double expected = shoelace(polygon[0], polygon[1], count);
+            assertEquals(expected, PolygonArea.area(polygon[0], polygon[1], count), expected * 1e-12, count + " vertices");
+        }
+        double[][] polygon = star(random, 100_003);
+        double expected = shoelace(polygon[0], polygon[1], 100_003);
+        assertEquals(expected, PolygonArea.area(polygon[0], polygon[1], 100_003), expected * 1e-12);
+    }
+
+    @Test
+    void compensatedSummationKeepsCancellingTermsExact() {
+        // Far from the origin every edge's term is large and they nearly cancel, so a plain
+        // running sum loses bits on each edge that the compensated sum keeps
+        int count = 50_000;
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            double angle = 2 * Math.PI * i / count;
+            xs[i] = 1e5 + 10 * Math.cos(angle);
+            ys[i] = -3e5 + 10 * Math.sin(angle);
+        }
+        double exact = exactSumOfTerms(xs, ys, count);
+
+        double vectorError = Math.abs(PolygonArea.area(xs, ys, count) - exact);
+        double scalarError = Math.abs(shoelace(xs, ys, count) - exact);
+        assertTrue(vectorError <= 2 * Math.ulp(exact), () -> "off by " + vectorError + " from " + exact);
+        assertTrue(scalarError > 100 * Math.ulp(exact), "the polygon does not show the plain sum's rounding");
+    }
+
+    /**
+     * The scalar kernel as PolygonArea documents it: the closing edge first, then the others.
+     */
+    private static double shoelace(double[] xs, double[] ys, int count) {
+        if (count == 0) {
+            return 0.0;
+        }
+        double sum = (xs[count - 1] + xs[0]) * (ys[count - 1] - ys[0]);
+        for (int i = 1; i < count; i++) {
+            sum += (xs[i - 1] + xs[i]) * (ys[i - 1] - ys[i]);
+        }
+        return 0.5 * Math.abs(sum);
+    }
+
+    /**
+     * Sums the same double terms as the kernels without rounding, so only the summation differs.
+     */
+    private static double exactSumOfTerms(double[] xs, double[] ys, int count) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 1; i <= count; i++) {
+            int current = i == count ? 0 : i;
+            sum = sum.add(new BigDecimal((xs[i - 1] + xs[current]) * (ys[i - 1] - ys[current])));
+        }
+        return 0.5 * Math.abs(sum.doubleValue());
+    }
+
+    /**
+     * Returns the x and y coordinates of a random star-shaped polygon around the origin, its
+     * vertices in angular order so the edges never cross.
+     */
+    private static double[][] star(Random random, int count) {
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            double angle = 2 * Math.PI * i / count;
+            double radius = 1 + random.nextDouble() * 9;
+            xs[i] = radius * Math.cos(angle);
+            ys[i] = radius * Math.sin(angle);
+        }
+        return new double[][] {xs, ys};
+    }
+}
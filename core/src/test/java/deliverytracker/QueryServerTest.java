@@ -0,0 +1,227 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class QueryServerTest {
+    private static final String NEWLINE = System.lineSeparator();
+
+    @TempDir
+    Path directory;
+
+    private final List<Driver> drivers = LinkedListTest.drivers(2000, 70);
+    private QueryServer server;
+
+    @AfterEach
+    void stopServer() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void answersMatchTheCommandsRunAgainstAList() throws IOException {
+        start(QueryServer.parseAddress("0"));
+        String[] lines = {"driver12", "DRIVER40", "nobody", "range 2 4", "nearest 3.3", "top 7 area dsc", "percentile 50 area",
+            "prefix Driver1 12", "sort area dsc", "top 5 name asc", "prefix driver2", "sort name asc", "top 3 area asc"};
+        LinkedList<Driver> list = listOf(drivers);
+        try (Client client = new Client(server.getAddress())) {
+            for (String line : lines) {
+                StringBuilder expected = new StringBuilder();
+                Command.parse(line).execute(list, expected);
+                assertEquals(expected.toString(), client.ask(line), line);
+            }
+        }
+    }
+
+    @Test
+    void aSortFromOneClientOrdersEveryClient() throws IOException {
+        start(QueryServer.parseAddress("0"));
+        LinkedList<Driver> byArea = listOf(drivers);
+        byArea.sortByArea("dsc");
+        StringBuilder expected = new StringBuilder();
+        Command.parse("top 10 name asc").execute(byArea, expected);
+        try (Client sorter = new Client(server.getAddress()); Client reader = new Client(server.getAddress())) {
+            assertEquals("", sorter.ask("sort area dsc"));
+            // top breaks ties by list order, so it shows the order the other client chose
+            assertEquals(expected.toString(), reader.ask("top 10 name asc"));
+        }
+    }
+
+    @Test
+    void sortsCombineLikeTheyDoInACommandFile() throws IOException {
+        start(QueryServer.parseAddress("0"));
+        LinkedList<Driver> list = listOf(drivers);
+        String[] sorts = {"sort area asc", "sort name asc", "sort area dsc"};
+        try (Client sorter = new Client(server.getAddress()); Client reader = new Client(server.getAddress())) {
+            for (String sort : sorts) {
+                Command.parse(sort).execute(list, new StringBuilder());
+                assertEquals("", sorter.ask(sort));
+                // Drivers with equal areas stay in name order, from the sort before
+                StringBuilder expected = new StringBuilder();
+                Command.parse("top 40 name dsc").execute(list, expected);
+                Command.parse("top 40 area asc").execute(list, expected);
+                assertEquals(expected.toString(), reader.ask("top 40 name dsc") + reader.ask("top 40 area asc"), sort);
+            }
+        }
+    }
+
+    @Test
+    void driversAddedToTheRegistryAreServed() throws IOException {
+        DriverRegistry registry = new DriverRegistry();
+        registry.addAll(drivers);
+        server = new QueryServer(registry, QueryServer.parseAddress("0"));
+        serveInBackground();
+        try (Client client = new Client(server.getAddress())) {
+            assertEquals("newcomer not found" + NEWLINE, client.ask("newcomer"));
+            registry.add(new Driver("newcomer", 99.5));
+            assertEquals("99.5" + NEWLINE, client.ask("newcomer"));
+            assertEquals("newcomer\t99.50" + NEWLINE, client.ask("range 99 100"));
+        }
+    }
+
+    @Test
+    void manyClientsAreAnsweredAtOnce() throws Exception {
+        start(QueryServer.parseAddress("0"));
+        LinkedList<Driver> list = listOf(drivers);
+        // A range query merges the area index on first use, which must not race between clients
+        list.makeReadOnly();
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int c = 0; c < 8; c++) {
+                int first = c;
+                results.add(clients.submit(() -> {
+                    try (Client client = new Client(server.getAddress())) {
+                        for (int i = first; i < 400; i += 8) {
+                            String line = i % 2 == 0 ? "driver" + i : "range " + (i % 12) + " " + (i % 12 + 0.5);
+                            StringBuilder expected = new StringBuilder();
+                            Command.parse(line).execute(list, expected);
+                            assertEquals(expected.toString(), client.ask(line), line);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void anInvalidNumberIsReportedAndTheConnectionStaysOpen() throws IOException {
+        start(QueryServer.parseAddress("0"));
+        try (Client client = new Client(server.getAddress())) {
+            assertEquals("Error: Invalid number format in commands." + NEWLINE, client.ask("range one two"));
+            assertFalse(client.ask("driver1").isEmpty());
+        }
+    }
+
+    @Test
+    void aUnixSocketLeftBehindIsReplaced() throws IOException {
+        Path socket = directory.resolve("query.sock");
+        try (ServerSocketChannel stale = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            stale.bind(UnixDomainSocketAddress.of(socket));
+        }
+        assertTrue(Files.exists(socket));
+        start(QueryServer.parseAddress("unix:" + socket));
+        try (Client client = new Client(server.getAddress())) {
+            assertFalse(client.ask("driver3").isEmpty());
+        }
+        server.close();
+        server = null;
+        assertFalse(Files.exists(socket), "The socket file is removed on close");
+    }
+
+    @Test
+    void aFileThatIsNotASocketIsLeftAlone() throws IOException {
+        Path file = directory.resolve("query.sock");
+        Files.write(file, List.of("keep me"));
+        assertThrows(IOException.class, () -> new QueryServer(listOf(drivers), QueryServer.parseAddress("unix:" + file)));
+        assertEquals(List.of("keep me"), Files.readAllLines(file));
+    }
+
+    private void start(SocketAddress address) throws IOException {
+        server = new QueryServer(listOf(drivers), address);
+        serveInBackground();
+    }
+
+    private void serveInBackground() {
+        QueryServer running = server;
+        Thread thread = new Thread(() -> {
+            try {
+                running.serve();
+            } catch (IOException e) {
+                // Closed by the test
+            }
+        }, "query-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static LinkedList<Driver> listOf(List<Driver> drivers) {
+        LinkedList<Driver> list = new LinkedList<>();
+        drivers.forEach(list::add);
+        return list;
+    }
+
+    /**
+     * A connection that sends one command at a time and reads its answer up to the empty line.
+     */
+    private static final class Client implements AutoCloseable {
+        private final SocketChannel channel;
+        private final BufferedReader in;
+        private final Writer out;
+
+        Client(SocketAddress address) throws IOException {
+            channel = SocketChannel.open(address);
+            in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            out = new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8);
+        }
+
+        String ask(String line) throws IOException {
+            out.write(line + "\n");
+            out.flush();
+            StringBuilder answer = new StringBuilder();
+            String received;
+            while ((received = in.readLine()) != null && !received.isEmpty()) {
+                answer.append(received).append(NEWLINE);
+            }
+            return answer.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
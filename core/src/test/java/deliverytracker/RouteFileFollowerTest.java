@@ -0,0 +1,74 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RouteFileFollowerTest {
+    @TempDir
+    Path directory;
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void theFirstLoadReadsALastLineWithoutATerminator() throws IOException {
+        Path file = directory.resolve("drivers.txt");
+        Files.writeString(file, "ann 0,0 1,0 1,1 0,0\nleo 0,0 2,0 2,2 0,0");
+        LinkedList<Driver> drivers = new LinkedList<>();
+        RouteFileFollower follower = new RouteFileFollower(file, drivers, List.of(), new StringWriter(), 10);
+
+        assertEquals(2, follower.load());
+        assertEquals(1, drivers.searchAllByName("leo").size());
+        // Nothing after the load is read twice
+        assertEquals(0, follower.poll());
+        assertEquals(2, drivers.size());
+    }
+
+    @Test
+    void anAppendedLineIsReadOnceItEnds() throws IOException {
+        Path file = directory.resolve("drivers.txt");
+        Files.writeString(file, "ann 0,0 1,0 1,1 0,0\n");
+        LinkedList<Driver> drivers = new LinkedList<>();
+        StringWriter out = new StringWriter();
+        RouteFileFollower follower = new RouteFileFollower(file, drivers, List.of(Command.parse("bob")), out, 10);
+        assertEquals(1, follower.load());
+
+        append(file, "bob 0,0 3,0");
+        assertEquals(0, follower.poll());
+        assertTrue(out.toString().isEmpty());
+        append(file, " 3,3 0,0\n");
+        assertEquals(1, follower.poll());
+        assertEquals(2, drivers.size());
+        assertEquals(1, drivers.searchAllByName("bob").size());
+        assertEquals("4.5\n", out.toString().replace("\r\n", "\n"));
+    }
+
+    @Test
+    void appendsKeepTheListSorted() throws IOException {
+        Path file = directory.resolve("drivers.txt");
+        Files.writeString(file, "ann 0,0 4,0 4,4 0,0\ncat 0,0 1,0 1,1 0,0\n");
+        LinkedList<Driver> drivers = new LinkedList<>();
+        RouteFileFollower follower = new RouteFileFollower(file, drivers, List.of(), new StringWriter(), 10);
+        follower.load();
+        drivers.sortByArea("asc");
+
+        append(file, "bob 0,0 2,0 2,2 0,0\n");
+        assertEquals(1, follower.poll());
+        StringBuilder names = new StringBuilder();
+        for (Driver driver : drivers) {
+            names.append(driver.getName()).append(' ');
+        }
+        assertEquals("cat bob ann ", names.toString());
+    }
+}
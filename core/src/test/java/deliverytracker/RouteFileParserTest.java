@@ -0,0 +1,108 @@
+package deliverytracker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RouteFileParserTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Keeps every accepted route's name and vertices.
+     */
+    private static final class Routes implements RouteFileParser.RouteSink {
+        final List<String> names = new ArrayList<>();
+        final List<double[]> xs = new ArrayList<>();
+        final List<double[]> ys = new ArrayList<>();
+        final List<Double> areas = new ArrayList<>();
+
+        @Override
+        public void accept(String name, double area) {
+            throw new AssertionError("The vertices should be passed on");
+        }
+
+        @Override
+        public void accept(String name, double area, double[] xs, double[] ys, int count) {
+            names.add(name);
+            areas.add(area);
+            this.xs.add(Arrays.copyOf(xs, count));
+            this.ys.add(Arrays.copyOf(ys, count));
+        }
+    }
+
+    private RouteFileParser parse(String contents, Routes routes) throws IOException {
+        Path file = directory.resolve("routes.txt");
+        Files.writeString(file, contents);
+        RouteFileParser parser = new RouteFileParser(routes, null);
+        parser.parse(file);
+        return parser;
+    }
+
+    @Test
+    void numbersParseLikeDoubleParseDouble() throws IOException {
+        String[] tokens = {"0", "-0.25", "+3", "1.5", ".5", "5.", "1e3", "2.5E-2", "-7e+1", "0.1", "0.3",
+            "123456789.123456789", "98765432109876543210", "1e-30", "4.9e-324", "0x1p3", "NaN", "Infinity"};
+        StringBuilder line = new StringBuilder("numbers 0,0");
+        for (int i = 0; i + 1 < tokens.length; i += 2) {
+            line.append(' ').append(tokens[i]).append(',').append(tokens[i + 1]);
+        }
+        line.append(" 0,0\n");
+        Routes routes = new Routes();
+        parse(line.toString(), routes);
+
+        assertEquals(List.of("numbers"), routes.names);
+        double[] xs = routes.xs.get(0);
+        double[] ys = routes.ys.get(0);
+        assertEquals(tokens.length / 2 + 2, xs.length);
+        for (int i = 0; i + 1 < tokens.length; i += 2) {
+            // Compare bits, so -0.0 and NaN are checked too
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(tokens[i])), Double.doubleToRawLongBits(xs[i / 2 + 1]), tokens[i]);
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(tokens[i + 1])), Double.doubleToRawLongBits(ys[i / 2 + 1]), tokens[i + 1]);
+        }
+    }
+
+    @Test
+    void spacesAndCommasBothSeparateCoordinates() throws IOException {
+        Routes routes = new Routes();
+        parse("square 0,0 2,0  2 2,0,2 0 , 0\r\n", routes);
+        assertEquals(List.of("square"), routes.names);
+        assertArrayEquals(new double[] {0, 2, 2, 0, 0}, routes.xs.get(0));
+        assertArrayEquals(new double[] {0, 0, 2, 2, 0}, routes.ys.get(0));
+        assertEquals(4.0, routes.areas.get(0), 1e-12);
+    }
+
+    @Test
+    void onlyRoutesWhoseFirstPointEqualsTheLastAreAccepted() throws IOException {
+        Routes routes = new Routes();
+        RouteFileParser parser = parse(
+                "closed 0,0 1,0 1,1 0,0\n"
+                + "open 0,0 1,0 1,1 0,1\n"
+                + "halfOpen 0,0 1,0 1,1 0,5\n"
+                + "sameX 1,2 3,4 1,3\n"
+                + "unpaired 0,0 1,0 1,1 0,0 5\n"
+                + "malformed 0,0 1,0 x,1 0,0\n"
+                + "empty\n"
+                + "\n"
+                + "closedToo 5,5 6,5 5,5\n", routes);
+        assertEquals(List.of("closed", "closedToo"), routes.names);
+        // A name without a route and a blank line are skipped, not rejected
+        assertEquals(5, parser.getRejectedCount());
+    }
+
+    @Test
+    void aLastLineWithoutATerminatorIsParsedAtTheEndOfTheFile() throws IOException {
+        Routes routes = new Routes();
+        parse("first 0,0 1,0 1,1 0,0\nlast 0,0 2,0 2,2 0,0", routes);
+        assertEquals(List.of("first", "last"), routes.names);
+    }
+}
@@ -0,0 +1,45 @@
+package deliverytracker;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Writes route files for the tests.
+ */
+final class RouteFiles {
+    private RouteFiles() {
+    }
+
+    /**
+     * Writes a route file of closed polygons with repeated names and areas, so lookups have
+     * several matches and sorts have ties. Every seventh line is an open route, which the
+     * parser rejects.
+     * @param file The file to write.
+     * @param lines The number of lines.
+     * @param seed The seed of the random data.
+     * @return The number of closed routes written.
+     */
+    static int write(Path file, int lines, long seed) throws IOException {
+        Random random = new Random(seed);
+        int closed = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < lines; i++) {
+                String name = (random.nextBoolean() ? "Driver" : "driver") + random.nextInt(lines / 3 + 1);
+                double x = random.nextInt(2000) - 1000;
+                double y = random.nextInt(2000) - 1000;
+                double size = 1 + random.nextInt(20) / 2.0;
+                out.write(name + " " + x + "," + y + " " + (x + size) + "," + y + " " + (x + size) + "," + (y + size)
+                        + " " + x + "," + (y + size));
+                if (i % 7 != 3) {
+                    out.write(" " + x + "," + y);
+                    closed++;
+                }
+                out.write("\n");
+            }
+        }
+        return closed;
+    }
+}
@@ -0,0 +1,116 @@
+package deliverytracker;
+
+import static deliverytracker.LinkedListTest.assertSameOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpatialIndexTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void coveringMatchesAScanInAddOrder() {
+        Random random = new Random(50);
+        List<Driver> drivers = new ArrayList<>();
+        SpatialIndex index = new SpatialIndex();
+        // Enough routes for several tree levels, with drivers that have no geometry mixed in
+        for (int i = 0; i < 5000; i++) {
+            Driver driver = i % 10 == 0 ? new Driver("plain" + i, 1) : new Driver("route" + i, 0, triangle(random));
+            drivers.add(driver);
+            index.add(driver);
+            if (i == 2500) {
+                index.covering(50, 50); // Routes added after a query rebuild the tree
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            double x = random.nextDouble() * 110 - 5;
+            double y = random.nextDouble() * 110 - 5;
+            assertSameOrder(scan(drivers, x, y), index.covering(x, y));
+        }
+    }
+
+    @Test
+    void onlyRoutesContainingThePointCover() {
+        // An L-shaped route whose bounding box holds points the route does not
+        Driver ell = new Driver("ell", 3, polygon(0, 0, 2, 0, 2, 1, 1, 1, 1, 2, 0, 2, 0, 0));
+        Driver square = new Driver("square", 4, polygon(1, 1, 3, 1, 3, 3, 1, 3, 1, 1));
+        SpatialIndex index = new SpatialIndex();
+        index.add(ell);
+        index.add(square);
+        index.add(new Driver("plain", 5));
+
+        assertSameOrder(List.of(ell), index.covering(0.5, 0.5));
+        assertSameOrder(List.of(square), index.covering(1.5, 1.5));
+        assertSameOrder(List.of(square), index.covering(2.5, 2.5));
+        assertTrue(index.covering(5, 5).isEmpty());
+        assertTrue(new SpatialIndex().covering(0, 0).isEmpty());
+    }
+
+    @Test
+    void aCopySharesTheTreeButNotLaterAdds() {
+        SpatialIndex index = new SpatialIndex();
+        Driver first = new Driver("first", 1, polygon(0, 0, 1, 0, 1, 1, 0, 1, 0, 0));
+        index.add(first);
+        index.build();
+        SpatialIndex copy = new SpatialIndex(index);
+        copy.add(new Driver("second", 1, polygon(0, 0, 1, 0, 1, 1, 0, 1, 0, 0)));
+
+        assertEquals(1, index.covering(0.5, 0.5).size());
+        assertEquals(2, copy.covering(0.5, 0.5).size());
+    }
+
+    @Test
+    void coversFindsDriversReadFromARouteFile() throws IOException {
+        Path file = directory.resolve("routes.txt");
+        Files.write(file, List.of("inside 0,0 4,0 4,4 0,4 0,0", "outside 10,10 12,10 12,12 10,12 10,10"));
+        LinkedList<Driver> list = new LinkedList<>();
+        Main.readDriverFile(file.toString(), list);
+
+        List<Driver> covering = list.searchCovering(2, 2);
+        assertEquals(1, covering.size());
+        assertEquals("inside", covering.get(0).getName());
+        assertEquals("outside", list.searchCovering(11, 11).get(0).getName());
+        assertTrue(list.searchCovering(7, 7).isEmpty());
+    }
+
+    private static List<Driver> scan(List<Driver> drivers, double x, double y) {
+        List<Driver> result = new ArrayList<>();
+        for (Driver driver : drivers) {
+            if (driver.getGeometry() != null && driver.getGeometry().contains(x, y)) {
+                result.add(driver);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a small closed triangle somewhere in the square from 0 to 100.
+     */
+    private static RouteGeometry triangle(Random random) {
+        double x = random.nextDouble() * 100;
+        double y = random.nextDouble() * 100;
+        double size = 1 + random.nextDouble() * 10;
+        return polygon(x, y, x + size, y, x, y + size, x, y);
+    }
+
+    private static RouteGeometry polygon(double... coordinates) {
+        int count = coordinates.length / 2;
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = coordinates[2 * i];
+            ys[i] = coordinates[2 * i + 1];
+        }
+        return new RouteGeometry(xs, ys, count);
+    }
+}